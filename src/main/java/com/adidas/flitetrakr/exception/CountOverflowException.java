@@ -0,0 +1,20 @@
+package com.adidas.flitetrakr.exception;
+
+/**
+ * Thrown when a counted number of paths/connections can't be represented as a long,
+ * e.g. because there are infinitely many of them.
+ *
+ * @author Bogdan Zafirov
+ */
+public class CountOverflowException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public CountOverflowException(final String message) {
+        super(message);
+    }
+
+    public CountOverflowException(final String message, final Throwable t) {
+        super(message, t);
+    }
+}
\ No newline at end of file
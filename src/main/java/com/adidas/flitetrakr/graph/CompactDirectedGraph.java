@@ -0,0 +1,458 @@
+package com.adidas.flitetrakr.graph;
+
+import com.adidas.flitetrakr.util.Pair;
+import com.adidas.flitetrakr.util.Triple;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+
+/**
+ * Immutable directed graph with string vertices and long edge payloads.
+ * <p>
+ * The vertex names are interned to dense int ids and the edges are stored
+ * in compressed sparse row (CSR) format: the outgoing edges of the vertex
+ * with id {@code v} occupy the positions {@code edgeOffsets[v]} to
+ * {@code edgeOffsets[v + 1] - 1} of the {@code edgeTargets} and
+ * {@code edgePrices} arrays, sorted by target id. The incoming edges are
+ * stored the same way in the {@code inEdge} arrays, sorted by source id.
+ * Instances are created
+ * with the {@link Builder}, the mutating methods of the graph interface
+ * are not supported.
+ *
+ * @author Bogdan Zafirov
+ */
+public final class CompactDirectedGraph implements SimpleGraph<String, Long> {
+
+    /* Vertex names indexed by vertex id, and the reverse mapping. */
+    private final String[] vertices;
+    private final Map<String, Integer> vertexIds;
+
+    /* CSR adjacency arrays. */
+    private final int[] edgeOffsets;
+    private final int[] edgeTargets;
+    private final long[] edgePrices;
+
+    /* Reverse CSR adjacency arrays. */
+    private final int[] inEdgeOffsets;
+    private final int[] inEdgeSources;
+    private final long[] inEdgePrices;
+
+    private CompactDirectedGraph(final String[] vertices, final Map<String, Integer> vertexIds, final int[] edgeOffsets,
+                                 final int[] edgeTargets, final long[] edgePrices) {
+        this.vertices = vertices;
+        this.vertexIds = vertexIds;
+        this.edgeOffsets = edgeOffsets;
+        this.edgeTargets = edgeTargets;
+        this.edgePrices = edgePrices;
+
+        /* Counting sort of the edges by their target vertex. Since the sources
+         * are visited in ascending order, every row is sorted by source id. */
+        inEdgeOffsets = new int[vertices.length + 1];
+        inEdgeSources = new int[edgeTargets.length];
+        inEdgePrices = new long[edgeTargets.length];
+        for (final int target : edgeTargets) {
+            inEdgeOffsets[target + 1]++;
+        }
+        for (int v = 0; v < vertices.length; v++) {
+            inEdgeOffsets[v + 1] += inEdgeOffsets[v];
+        }
+        final int[] position = Arrays.copyOf(inEdgeOffsets, vertices.length);
+        for (int v = 0; v < vertices.length; v++) {
+            for (int edge = edgeOffsets[v]; edge < edgeOffsets[v + 1]; edge++) {
+                final int inEdge = position[edgeTargets[edge]]++;
+                inEdgeSources[inEdge] = v;
+                inEdgePrices[inEdge] = edgePrices[edge];
+            }
+        }
+    }
+
+    /**
+     * Creates a compact graph from the parsed flight connections.
+     *
+     * @param connections Triples of source vertex, target vertex and edge payload.
+     * @return The frozen graph.
+     * @throws IllegalArgumentException Thrown if the connections or any of their elements are null.
+     */
+    public static CompactDirectedGraph fromConnections(final List<Triple<String, String, Long>> connections) {
+        return new Builder().addConnections(connections).build();
+    }
+
+    public boolean addVertex(final String vertex) {
+        throw new UnsupportedOperationException("The compact graph is immutable.");
+    }
+
+    public boolean addEdge(final String source, final String dest, final Long edgePayload) {
+        throw new UnsupportedOperationException("The compact graph is immutable.");
+    }
+
+    public boolean existsEdge(final String source, final String dest) {
+        if ((source == null) || (dest == null)) {
+            throw new IllegalArgumentException("The vertices may not be null.");
+        }
+        return findEdge(getVertexId(source), getVertexId(dest)) != -1;
+    }
+
+    public Long getEdge(final String source, final String dest) {
+        if ((source == null) || (dest == null)) {
+            throw new IllegalArgumentException("The vertices may not be null.");
+        }
+        final int edge = findEdge(getVertexId(source), getVertexId(dest));
+        return (edge == -1) ? null : edgePrices[edge];
+    }
+
+    public Set<Pair<String, Long>> getOutEdges(final String source) {
+        final int sourceId = checkVertex(source);
+
+        final Set<Pair<String, Long>> edges = new HashSet<>();
+        for (int edge = edgeOffsets[sourceId]; edge < edgeOffsets[sourceId + 1]; edge++) {
+            edges.add(new Pair<String, Long>(vertices[edgeTargets[edge]], edgePrices[edge]));
+        }
+        return edges;
+    }
+
+    public void forEachOutEdge(final String source, final BiConsumer<? super String, ? super Long> action) {
+        final int sourceId = checkVertex(source);
+        for (int edge = edgeOffsets[sourceId]; edge < edgeOffsets[sourceId + 1]; edge++) {
+            action.accept(vertices[edgeTargets[edge]], edgePrices[edge]);
+        }
+    }
+
+    @Override
+    public void forEachOutEdgeAsLong(final String source, final LongEdgeConsumer<? super String> action) {
+        final int sourceId = checkVertex(source);
+        for (int edge = edgeOffsets[sourceId]; edge < edgeOffsets[sourceId + 1]; edge++) {
+            action.accept(vertices[edgeTargets[edge]], edgePrices[edge]);
+        }
+    }
+
+    public void forEachInEdge(final String dest, final BiConsumer<? super String, ? super Long> action) {
+        final int destId = checkVertex(dest);
+        for (int edge = inEdgeOffsets[destId]; edge < inEdgeOffsets[destId + 1]; edge++) {
+            action.accept(vertices[inEdgeSources[edge]], inEdgePrices[edge]);
+        }
+    }
+
+    @Override
+    public void forEachInEdgeAsLong(final String dest, final LongEdgeConsumer<? super String> action) {
+        final int destId = checkVertex(dest);
+        for (int edge = inEdgeOffsets[destId]; edge < inEdgeOffsets[destId + 1]; edge++) {
+            action.accept(vertices[inEdgeSources[edge]], inEdgePrices[edge]);
+        }
+    }
+
+    public Set<String> getAllVertices() {
+        return new VertexSet(0, vertices.length, null);
+    }
+
+    public boolean containsVertex(final String vertex) {
+        return vertexIds.containsKey(vertex);
+    }
+
+    public Set<String> getNeighbors(final String source) {
+        final int sourceId = checkVertex(source);
+        return new VertexSet(edgeOffsets[sourceId], edgeOffsets[sourceId + 1], edgeTargets);
+    }
+
+    public Set<String> getPredecessors(final String dest) {
+        final int destId = checkVertex(dest);
+        return new VertexSet(inEdgeOffsets[destId], inEdgeOffsets[destId + 1], inEdgeSources);
+    }
+
+    public long getVersion() {
+        /* The graph is immutable. */
+        return 0;
+    }
+
+    /**
+     * Returns the number of vertices in the graph.
+     *
+     * @return The number of vertices.
+     */
+    public int getVertexCount() {
+        return vertices.length;
+    }
+
+    /**
+     * Returns the number of edges in the graph.
+     *
+     * @return The number of edges.
+     */
+    public int getEdgeCount() {
+        return edgeTargets.length;
+    }
+
+    /**
+     * Returns the dense id of the vertex.
+     *
+     * @param vertex The vertex.
+     * @return The id of the vertex, or -1 if the vertex is not part of the graph.
+     */
+    public int getVertexId(final String vertex) {
+        final Integer id = vertexIds.get(vertex);
+        return (id == null) ? -1 : id;
+    }
+
+    /**
+     * Returns the vertex with the specified id.
+     *
+     * @param id The vertex id.
+     * @return The vertex.
+     * @throws IndexOutOfBoundsException Thrown if no vertex has this id.
+     */
+    public String getVertex(final int id) {
+        return vertices[id];
+    }
+
+    String[] getVertices() {
+        return vertices;
+    }
+
+    Map<String, Integer> getVertexIds() {
+        return vertexIds;
+    }
+
+    int[] getEdgeOffsets() {
+        return edgeOffsets;
+    }
+
+    int[] getEdgeTargets() {
+        return edgeTargets;
+    }
+
+    long[] getEdgePrices() {
+        return edgePrices;
+    }
+
+    int[] getInEdgeOffsets() {
+        return inEdgeOffsets;
+    }
+
+    int[] getInEdgeSources() {
+        return inEdgeSources;
+    }
+
+    long[] getInEdgePrices() {
+        return inEdgePrices;
+    }
+
+    private int checkVertex(final String vertex) {
+        if (vertex == null) {
+            throw new IllegalArgumentException("The vertex may not be null.");
+        }
+        final int id = getVertexId(vertex);
+        if (id == -1) {
+            throw new IllegalArgumentException("The vertex is not part of the graph.");
+        }
+        return id;
+    }
+
+    /* Binary search for the edge inside the sorted adjacency row of the source vertex. */
+    private int findEdge(final int sourceId, final int targetId) {
+        if (sourceId == -1 || targetId == -1) {
+            return -1;
+        }
+        final int edge = Arrays.binarySearch(edgeTargets, edgeOffsets[sourceId], edgeOffsets[sourceId + 1], targetId);
+        return (edge < 0) ? -1 : edge;
+    }
+
+    /**
+     * Read-only set view over a range of vertex ids. If an id array is
+     * specified the range refers to positions inside the (sorted) array.
+     */
+    private final class VertexSet extends AbstractSet<String> {
+        private final int from;
+        private final int to;
+        private final int[] ids;
+
+        private VertexSet(final int from, final int to, final int[] ids) {
+            this.from = from;
+            this.to = to;
+            this.ids = ids;
+        }
+
+        @Override
+        public Iterator<String> iterator() {
+            return new Iterator<String>() {
+                private int position = from;
+
+                @Override
+                public boolean hasNext() {
+                    return position < to;
+                }
+
+                @Override
+                public String next() {
+                    if (position >= to) {
+                        throw new NoSuchElementException();
+                    }
+                    final int id = (ids == null) ? position : ids[position];
+                    position++;
+                    return vertices[id];
+                }
+            };
+        }
+
+        @Override
+        public boolean contains(final Object o) {
+            final Integer id = vertexIds.get(o);
+            if (id == null) {
+                return false;
+            }
+            return (ids == null) ? (id >= from && id < to) : Arrays.binarySearch(ids, from, to, id) >= 0;
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+    }
+
+    /**
+     * Collects vertices and edges and freezes them into a {@link CompactDirectedGraph}.
+     * <p>
+     * Vertices get their ids in the order they are first added. Like in the
+     * {@link SimpleDirectedGraph}, adding an edge twice overrides the payload
+     * of the previous edge. Unlike the {@link SimpleDirectedGraph}, the vertices
+     * of an edge are added implicitly.
+     */
+    public static final class Builder {
+
+        private final Map<String, Integer> vertexIds = new HashMap<>();
+        private final List<String> vertices = new ArrayList<>();
+
+        /* Edges in insertion order. */
+        private int[] sources = new int[16];
+        private int[] targets = new int[16];
+        private long[] prices = new long[16];
+        private int edgeCount;
+
+        /**
+         * Adds a vertex to the graph, if it isn't already part of it.
+         *
+         * @param vertex The vertex.
+         * @return The dense id of the vertex.
+         * @throws IllegalArgumentException Thrown if the vertex is null.
+         */
+        public int addVertex(final String vertex) {
+            if (vertex == null) {
+                throw new IllegalArgumentException("The vertex may not be null");
+            }
+            final Integer id = vertexIds.get(vertex);
+            if (id != null) {
+                return id;
+            }
+            vertexIds.put(vertex, vertices.size());
+            vertices.add(vertex);
+            return vertices.size() - 1;
+        }
+
+        /**
+         * Adds an edge between the two vertices.
+         *
+         * @param source The source vertex.
+         * @param dest The target vertex.
+         * @param price The edge payload.
+         * @return The builder.
+         * @throws IllegalArgumentException Thrown if the vertices are null.
+         */
+        public Builder addEdge(final String source, final String dest, final long price) {
+            if ((source == null) || (dest == null)) {
+                throw new IllegalArgumentException("The source and target vertices may not be null.");
+            }
+            return addEdge(addVertex(source), addVertex(dest), price);
+        }
+
+        /**
+         * Adds all the parsed flight connections to the graph.
+         *
+         * @param connections Triples of source vertex, target vertex and edge payload.
+         * @return The builder.
+         * @throws IllegalArgumentException Thrown if the connections are null.
+         */
+        public Builder addConnections(final List<Triple<String, String, Long>> connections) {
+            if (connections == null) {
+                throw new IllegalArgumentException("The connections may not be null.");
+            }
+            for (final Triple<String, String, Long> connection : connections) {
+                addEdge(connection.getFirst(), connection.getSecond(), connection.getThird());
+            }
+            return this;
+        }
+
+        /**
+         * Adds an edge between two vertices, which were already added with {@link #addVertex(String)}.
+         *
+         * @param source The id of the source vertex.
+         * @param dest The id of the target vertex.
+         * @param price The edge payload.
+         * @return The builder.
+         * @throws IllegalArgumentException Thrown if no vertex has one of the ids.
+         */
+        public Builder addEdge(final int source, final int dest, final long price) {
+            if (source < 0 || source >= vertices.size() || dest < 0 || dest >= vertices.size()) {
+                throw new IllegalArgumentException("The source and target vertices must be part of the graph.");
+            }
+            if (edgeCount == sources.length) {
+                final int capacity = edgeCount * 2;
+                sources = Arrays.copyOf(sources, capacity);
+                targets = Arrays.copyOf(targets, capacity);
+                prices = Arrays.copyOf(prices, capacity);
+            }
+            sources[edgeCount] = source;
+            targets[edgeCount] = dest;
+            prices[edgeCount] = price;
+            edgeCount++;
+            return this;
+        }
+
+        /**
+         * Freezes the collected vertices and edges into a compact graph.
+         *
+         * @return The compact graph.
+         */
+        public CompactDirectedGraph build() {
+            final int vertexCount = vertices.size();
+
+            /* Counting sort of the edges by their source vertex. */
+            final int[] rowOffsets = new int[vertexCount + 1];
+            for (int e = 0; e < edgeCount; e++) {
+                rowOffsets[sources[e] + 1]++;
+            }
+            for (int v = 0; v < vertexCount; v++) {
+                rowOffsets[v + 1] += rowOffsets[v];
+            }
+
+            /* Every row is sorted by the target id, and then by the insertion order
+             * of the edges, such that duplicate edges follow each other. */
+            final int[] position = Arrays.copyOf(rowOffsets, vertexCount);
+            final long[] keys = new long[edgeCount];
+            for (int e = 0; e < edgeCount; e++) {
+                keys[position[sources[e]]++] = ((long) targets[e] << 32) | e;
+            }
+            for (int v = 0; v < vertexCount; v++) {
+                Arrays.sort(keys, rowOffsets[v], rowOffsets[v + 1]);
+            }
+
+            /* Dropping duplicate edges, the last added edge wins. */
+            final int[] edgeOffsets = new int[vertexCount + 1];
+            final int[] edgeTargets = new int[edgeCount];
+            final long[] edgePrices = new long[edgeCount];
+            int size = 0;
+            for (int v = 0; v < vertexCount; v++) {
+                for (int i = rowOffsets[v]; i < rowOffsets[v + 1]; i++) {
+                    final int target = (int) (keys[i] >>> 32);
+                    if (i + 1 < rowOffsets[v + 1] && (int) (keys[i + 1] >>> 32) == target) {
+                        continue;
+                    }
+                    edgeTargets[size] = target;
+                    edgePrices[size] = prices[(int) keys[i]];
+                    size++;
+                }
+                edgeOffsets[v + 1] = size;
+            }
+
+            return new CompactDirectedGraph(vertices.toArray(new String[vertexCount]), new HashMap<>(vertexIds),
+                    edgeOffsets, Arrays.copyOf(edgeTargets, size), Arrays.copyOf(edgePrices, size));
+        }
+    }
+}
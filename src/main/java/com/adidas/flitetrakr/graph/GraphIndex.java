@@ -0,0 +1,315 @@
+package com.adidas.flitetrakr.graph;
+
+import java.lang.ref.WeakReference;
+import java.util.*;
+
+/**
+ * Immutable int-indexed snapshot of a graph with numeric edge payloads.
+ * <p>
+ * The vertices are numbered from 0 to {@code getVertexCount() - 1} in the
+ * iteration order of {@link SimpleGraph#getAllVertices()}, and the outgoing
+ * edges of every vertex are stored in compressed sparse row (CSR) format in
+ * the iteration order of {@link SimpleGraph#forEachOutEdgeAsLong}. This allows
+ * algorithms to work with primitive arrays instead of hash maps.
+ * <p>
+ * Snapshots are cached per graph and are rebuilt when the version of the
+ * graph changes. The most recently returned snapshot is checked without a
+ * lock, so concurrent queries on the same graph don't wait for each other;
+ * only a snapshot of another graph or version is looked up under the lock.
+ * For a {@link CompactDirectedGraph} the snapshot shares the arrays of the
+ * graph, including the arrays of the incoming edges.
+ *
+ * @param <V> The vertex type.
+ * @author Bogdan Zafirov
+ */
+public final class GraphIndex<V> {
+
+    /* Snapshots per graph, the graphs are compared by identity. */
+    private static final Map<SimpleGraph<?, ?>, GraphIndex<?>> SNAPSHOTS = new WeakHashMap<>();
+    /* The most recently returned snapshot. */
+    private static volatile GraphIndex<?> latest;
+
+    /* The graph of the snapshot, weakly referenced such that the cache doesn't keep it alive. */
+    private final WeakReference<SimpleGraph<?, ?>> graph;
+    private final Object[] vertices;
+    private final Map<V, Integer> vertexIds;
+    private final int[] edgeOffsets;
+    private final int[] edgeTargets;
+    private final long[] edgePrices;
+    private final long graphVersion;
+    /* Incoming edges, built on first use. */
+    private volatile ReverseEdges reverseEdges;
+
+    private GraphIndex(final SimpleGraph<?, ?> graph, final Object[] vertices, final Map<V, Integer> vertexIds,
+                       final int[] edgeOffsets, final int[] edgeTargets, final long[] edgePrices, final long graphVersion) {
+        this.graph = new WeakReference<SimpleGraph<?, ?>>(graph);
+        this.vertices = vertices;
+        this.vertexIds = vertexIds;
+        this.edgeOffsets = edgeOffsets;
+        this.edgeTargets = edgeTargets;
+        this.edgePrices = edgePrices;
+        this.graphVersion = graphVersion;
+    }
+
+    /**
+     * Returns the snapshot of the current version of the graph.
+     *
+     * @param graph The graph.
+     * @param <V> The vertex type.
+     * @param <E> The edge payload type.
+     * @return The int-indexed snapshot of the graph.
+     * @throws IllegalArgumentException Thrown if the graph is null.
+     */
+    @SuppressWarnings("unchecked")
+    public static <V, E extends Number> GraphIndex<V> of(final SimpleGraph<V, E> graph) {
+        if (graph == null) {
+            throw new IllegalArgumentException("The graph can't be null.");
+        }
+        final GraphIndex<?> last = latest;
+        if (last != null && last.graph.get() == graph && last.graphVersion == graph.getVersion()) {
+            return (GraphIndex<V>) last;
+        }
+        synchronized (SNAPSHOTS) {
+            GraphIndex<V> index = (GraphIndex<V>) SNAPSHOTS.get(graph);
+            if (index == null || index.graphVersion != graph.getVersion()) {
+                index = (graph instanceof CompactDirectedGraph) ? (GraphIndex<V>) wrap((CompactDirectedGraph) graph) : build(graph);
+                SNAPSHOTS.put(graph, index);
+            }
+            latest = index;
+            return index;
+        }
+    }
+
+    private static GraphIndex<String> wrap(final CompactDirectedGraph graph) {
+        final GraphIndex<String> index = new GraphIndex<>(graph, graph.getVertices(), graph.getVertexIds(), graph.getEdgeOffsets(),
+                graph.getEdgeTargets(), graph.getEdgePrices(), graph.getVersion());
+        index.reverseEdges = new ReverseEdges(graph.getInEdgeOffsets(), graph.getInEdgeSources(), graph.getInEdgePrices());
+        return index;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V, E extends Number> GraphIndex<V> build(final SimpleGraph<V, E> graph) {
+        final Object[] vertices = graph.getAllVertices().toArray();
+        final Map<V, Integer> vertexIds = new HashMap<>();
+        for (int v = 0; v < vertices.length; v++) {
+            vertexIds.put((V) vertices[v], v);
+        }
+
+        /* The first pass counts the edges, the second one writes them. */
+        final int[] edgeOffsets = new int[vertices.length + 1];
+        for (int v = 0; v < vertices.length; v++) {
+            edgeOffsets[v + 1] = edgeOffsets[v] + graph.getNeighbors((V) vertices[v]).size();
+        }
+        final EdgeWriter<V> writer = new EdgeWriter<>(vertexIds, edgeOffsets[vertices.length]);
+        for (int v = 0; v < vertices.length; v++) {
+            graph.forEachOutEdgeAsLong((V) vertices[v], writer);
+        }
+        return new GraphIndex<>(graph, vertices, vertexIds, edgeOffsets, writer.targets, writer.prices, graph.getVersion());
+    }
+
+    /**
+     * Returns the number of vertices.
+     *
+     * @return The number of vertices.
+     */
+    public int getVertexCount() {
+        return vertices.length;
+    }
+
+    /**
+     * Returns the number of edges.
+     *
+     * @return The number of edges.
+     */
+    public int getEdgeCount() {
+        return edgeTargets.length;
+    }
+
+    /**
+     * Returns the id of the vertex.
+     *
+     * @param vertex The vertex.
+     * @return The id of the vertex, or -1 if the vertex is not part of the graph.
+     */
+    public int getVertexId(final V vertex) {
+        final Integer id = vertexIds.get(vertex);
+        return (id == null) ? -1 : id;
+    }
+
+    /**
+     * Returns the vertex with the specified id.
+     *
+     * @param id The vertex id.
+     * @return The vertex.
+     * @throws IndexOutOfBoundsException Thrown if no vertex has this id.
+     */
+    @SuppressWarnings("unchecked")
+    public V getVertex(final int id) {
+        return (V) vertices[id];
+    }
+
+    /**
+     * Returns the position of the first outgoing edge of the vertex.
+     *
+     * @param vertex The vertex id.
+     * @return The position of the first outgoing edge.
+     */
+    public int getEdgeStart(final int vertex) {
+        return edgeOffsets[vertex];
+    }
+
+    /**
+     * Returns the position after the last outgoing edge of the vertex.
+     *
+     * @param vertex The vertex id.
+     * @return The (exclusive) end position of the outgoing edges.
+     */
+    public int getEdgeEnd(final int vertex) {
+        return edgeOffsets[vertex + 1];
+    }
+
+    /**
+     * Returns the target vertex of the edge.
+     *
+     * @param edge The edge position.
+     * @return The id of the target vertex.
+     */
+    public int getEdgeTarget(final int edge) {
+        return edgeTargets[edge];
+    }
+
+    /**
+     * Returns the payload of the edge.
+     *
+     * @param edge The edge position.
+     * @return The edge payload.
+     */
+    public long getEdgePrice(final int edge) {
+        return edgePrices[edge];
+    }
+
+    /**
+     * Returns the position of the first incoming edge of the vertex.
+     *
+     * @param vertex The vertex id.
+     * @return The position of the first incoming edge.
+     */
+    public int getInEdgeStart(final int vertex) {
+        return getReverseEdges().offsets[vertex];
+    }
+
+    /**
+     * Returns the position after the last incoming edge of the vertex.
+     *
+     * @param vertex The vertex id.
+     * @return The (exclusive) end position of the incoming edges.
+     */
+    public int getInEdgeEnd(final int vertex) {
+        return getReverseEdges().offsets[vertex + 1];
+    }
+
+    /**
+     * Returns the source vertex of the incoming edge.
+     *
+     * @param edge The incoming edge position.
+     * @return The id of the source vertex.
+     */
+    public int getInEdgeSource(final int edge) {
+        return getReverseEdges().sources[edge];
+    }
+
+    /**
+     * Returns the payload of the incoming edge.
+     *
+     * @param edge The incoming edge position.
+     * @return The edge payload.
+     */
+    public long getInEdgePrice(final int edge) {
+        return getReverseEdges().prices[edge];
+    }
+
+    /**
+     * Returns the version of the graph this snapshot was created from.
+     *
+     * @return The graph version.
+     */
+    public long getGraphVersion() {
+        return graphVersion;
+    }
+
+    private ReverseEdges getReverseEdges() {
+        ReverseEdges edges = reverseEdges;
+        if (edges == null) {
+            synchronized (this) {
+                edges = reverseEdges;
+                if (edges == null) {
+                    edges = ReverseEdges.fromOutEdges(edgeOffsets, edgeTargets, edgePrices);
+                    reverseEdges = edges;
+                }
+            }
+        }
+        return edges;
+    }
+
+    /**
+     * The incoming edges in CSR format, either shared with a compact graph or
+     * created from the outgoing edges with a counting sort by the target vertex.
+     */
+    private static class ReverseEdges {
+        private final int[] offsets;
+        private final int[] sources;
+        private final long[] prices;
+
+        public ReverseEdges(final int[] offsets, final int[] sources, final long[] prices) {
+            this.offsets = offsets;
+            this.sources = sources;
+            this.prices = prices;
+        }
+
+        public static ReverseEdges fromOutEdges(final int[] edgeOffsets, final int[] edgeTargets, final long[] edgePrices) {
+            final int vertexCount = edgeOffsets.length - 1;
+            final int[] offsets = new int[vertexCount + 1];
+            final int[] sources = new int[edgeTargets.length];
+            final long[] prices = new long[edgeTargets.length];
+
+            for (final int target : edgeTargets) {
+                offsets[target + 1]++;
+            }
+            for (int v = 0; v < vertexCount; v++) {
+                offsets[v + 1] += offsets[v];
+            }
+            final int[] position = Arrays.copyOf(offsets, vertexCount);
+            for (int v = 0; v < vertexCount; v++) {
+                for (int edge = edgeOffsets[v]; edge < edgeOffsets[v + 1]; edge++) {
+                    final int reverseEdge = position[edgeTargets[edge]]++;
+                    sources[reverseEdge] = v;
+                    prices[reverseEdge] = edgePrices[edge];
+                }
+            }
+            return new ReverseEdges(offsets, sources, prices);
+        }
+    }
+
+    /**
+     * Writes the visited edges one after another into the CSR arrays.
+     */
+    private static class EdgeWriter<V> implements LongEdgeConsumer<V> {
+        private final Map<V, Integer> vertexIds;
+        private final int[] targets;
+        private final long[] prices;
+        private int position;
+
+        public EdgeWriter(final Map<V, Integer> vertexIds, final int edgeCount) {
+            this.vertexIds = vertexIds;
+            this.targets = new int[edgeCount];
+            this.prices = new long[edgeCount];
+        }
+
+        @Override
+        public void accept(final V dest, final long payload) {
+            targets[position] = vertexIds.get(dest);
+            prices[position] = payload;
+            position++;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.adidas.flitetrakr.graph;
+
+/**
+ * Consumer of graph edges with numeric payloads. This is the primitive
+ * specialization of a {@code BiConsumer<V, P>}, which avoids the boxing
+ * of the edge payload.
+ *
+ * @param <V> The vertex type.
+ * @author Bogdan Zafirov
+ */
+@FunctionalInterface
+public interface LongEdgeConsumer<V> {
+
+    /**
+     * Performs the operation on the edge.
+     *
+     * @param dest The target vertex of the edge.
+     * @param payload The edge payload.
+     */
+    void accept(final V dest, final long payload);
+}
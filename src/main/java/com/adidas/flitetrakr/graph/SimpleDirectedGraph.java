@@ -3,6 +3,7 @@ package com.adidas.flitetrakr.graph;
 import com.adidas.flitetrakr.util.Pair;
 
 import java.util.*;
+import java.util.function.BiConsumer;
 
 /**
  * Implementation of a simple directed graph.
@@ -16,9 +17,14 @@ public class SimpleDirectedGraph<V, P> implements SimpleGraph<V, P> {
 
     /* Adjacency list, storing the all the vertices in the graph and their adjacents. */
     private final Map<V, Map<V, P>> adjacencyMap;
+    /* Reverse adjacency list, storing the vertices with an edge to every vertex. */
+    private final Map<V, Map<V, P>> reverseAdjacencyMap;
+    /* Incremented on every modification of the graph. */
+    private long version;
 
     public SimpleDirectedGraph() {
         adjacencyMap = new HashMap<V, Map<V, P>>();
+        reverseAdjacencyMap = new HashMap<V, Map<V, P>>();
     }
 
     public boolean addVertex(final V vertex) {
@@ -29,6 +35,8 @@ public class SimpleDirectedGraph<V, P> implements SimpleGraph<V, P> {
             return false;
         }
         adjacencyMap.put(vertex, new HashMap<V, P>());
+        reverseAdjacencyMap.put(vertex, new HashMap<V, P>());
+        version++;
         return true;
     }
 
@@ -45,6 +53,8 @@ public class SimpleDirectedGraph<V, P> implements SimpleGraph<V, P> {
         }
 
         adjacencyMap.get(source).put(dest, edgePayload);
+        reverseAdjacencyMap.get(dest).put(source, edgePayload);
+        version++;
         return true;
     }
 
@@ -85,6 +95,26 @@ public class SimpleDirectedGraph<V, P> implements SimpleGraph<V, P> {
         return edges;
     }
 
+    public void forEachOutEdge(final V source, final BiConsumer<? super V, ? super P> action) {
+        if (source == null) {
+            throw new IllegalArgumentException("The vertex may not be null.");
+        }
+        if (!adjacencyMap.containsKey(source)) {
+            throw new IllegalArgumentException("The vertex is not part of the graph.");
+        }
+        adjacencyMap.get(source).forEach(action);
+    }
+
+    public void forEachInEdge(final V dest, final BiConsumer<? super V, ? super P> action) {
+        if (dest == null) {
+            throw new IllegalArgumentException("The vertex may not be null.");
+        }
+        if (!reverseAdjacencyMap.containsKey(dest)) {
+            throw new IllegalArgumentException("The vertex is not part of the graph.");
+        }
+        reverseAdjacencyMap.get(dest).forEach(action);
+    }
+
     public Set<V> getAllVertices() {
         return Collections.unmodifiableSet(adjacencyMap.keySet());
     }
@@ -102,4 +132,18 @@ public class SimpleDirectedGraph<V, P> implements SimpleGraph<V, P> {
         }
         return Collections.unmodifiableSet(adjacencyMap.get(source).keySet());
     }
+
+    public Set<V> getPredecessors(final V dest) {
+        if (dest == null) {
+            throw new IllegalArgumentException("The vertex may not be null.");
+        }
+        if (!reverseAdjacencyMap.containsKey(dest)) {
+            throw new IllegalArgumentException("The vertex doesn't exist in the graph.");
+        }
+        return Collections.unmodifiableSet(reverseAdjacencyMap.get(dest).keySet());
+    }
+
+    public long getVersion() {
+        return version;
+    }
 }
@@ -3,6 +3,7 @@ package com.adidas.flitetrakr.graph;
 import com.adidas.flitetrakr.util.Pair;
 
 import java.util.*;
+import java.util.function.BiConsumer;
 
 /**
  * A graph consisting of a set of vertices of type V and a set of edges
@@ -49,6 +50,55 @@ public interface SimpleGraph<V, P> {
      */
     Set<Pair<V, P>> getOutEdges(final V source);
 
+    /**
+     * Invokes the action for every outgoing edge of the vertex with the target
+     * vertex and the payload/attribute of the edge. Unlike {@link #getOutEdges(Object)},
+     * this method doesn't create any intermediate collection.
+     *
+     * @param source The source vertex.
+     * @param action The action, invoked with the target vertex and the edge payload.
+     * @throws IllegalArgumentException Thrown if the vertex is not part of the graph or it's null.
+     */
+    void forEachOutEdge(final V source, final BiConsumer<? super V, ? super P> action);
+
+    /**
+     * Invokes the action for every outgoing edge of the vertex with the target
+     * vertex and the edge payload as a primitive long. The payload type must be
+     * a number.
+     *
+     * @param source The source vertex.
+     * @param action The action, invoked with the target vertex and the edge payload.
+     * @throws IllegalArgumentException Thrown if the vertex is not part of the graph or it's null.
+     * @throws ClassCastException Thrown if the edge payload is not a number.
+     */
+    default void forEachOutEdgeAsLong(final V source, final LongEdgeConsumer<? super V> action) {
+        forEachOutEdge(source, (dest, payload) -> action.accept(dest, ((Number) payload).longValue()));
+    }
+
+    /**
+     * Invokes the action for every incoming edge of the vertex with the source
+     * vertex and the payload/attribute of the edge.
+     *
+     * @param dest The target vertex.
+     * @param action The action, invoked with the source vertex and the edge payload.
+     * @throws IllegalArgumentException Thrown if the vertex is not part of the graph or it's null.
+     */
+    void forEachInEdge(final V dest, final BiConsumer<? super V, ? super P> action);
+
+    /**
+     * Invokes the action for every incoming edge of the vertex with the source
+     * vertex and the edge payload as a primitive long. The payload type must be
+     * a number.
+     *
+     * @param dest The target vertex.
+     * @param action The action, invoked with the source vertex and the edge payload.
+     * @throws IllegalArgumentException Thrown if the vertex is not part of the graph or it's null.
+     * @throws ClassCastException Thrown if the edge payload is not a number.
+     */
+    default void forEachInEdgeAsLong(final V dest, final LongEdgeConsumer<? super V> action) {
+        forEachInEdge(dest, (source, payload) -> action.accept(source, ((Number) payload).longValue()));
+    }
+
     /**
      * Returns a set of all vertices in the graph.
      *
@@ -93,5 +143,22 @@ public interface SimpleGraph<V, P> {
      * @throws IllegalArgumentException Thrown if the vertex is not part of the graph or it's null.
      */
     Set<V> getNeighbors(final V vertex);
-}
 
+    /**
+     * Returns all vertices with an edge to the specified vertex.
+     *
+     * @param vertex The target vertex.
+     * @return Set containing all vertices with an edge to the vertex.
+     * @throws IllegalArgumentException Thrown if the vertex is not part of the graph or it's null.
+     */
+    Set<V> getPredecessors(final V vertex);
+
+    /**
+     * Returns the version of the graph. The version changes every time a vertex
+     * or an edge is added, so it can be used to detect outdated data derived
+     * from the graph.
+     *
+     * @return The current version of the graph.
+     */
+    long getVersion();
+}
@@ -1,17 +1,18 @@
 package com.adidas.flitetrakr.main;
 
-import com.adidas.flitetrakr.exception.UnsupportedQuestionException;
-import com.adidas.flitetrakr.graph.SimpleDirectedGraph;
 import com.adidas.flitetrakr.graph.SimpleGraph;
-import com.adidas.flitetrakr.parse.FileReader;
-import com.adidas.flitetrakr.solver.Solver;
+import com.adidas.flitetrakr.parse.MappedFileParser;
+import com.adidas.flitetrakr.solver.QueryDispatcher;
 import com.adidas.flitetrakr.solver.factory.SolverFactory;
-import com.adidas.flitetrakr.util.Triple;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
 import java.nio.file.Files;
 import java.nio.file.LinkOption;
 import java.nio.file.Paths;
+import java.util.stream.Stream;
 
 /**
  * The Main class. This class reads the input file,
@@ -21,9 +22,12 @@ import java.nio.file.Paths;
  */
 public class FliteTrakr {
 
+    /* Option reading all questions first and answering them as one batch. */
+    private static final String BATCH_OPTION = "--batch";
+
     public static void main(final String[] args) throws IOException {
         if (args == null || args.length < 1) {
-            System.err.println("Usage: java -jar FliteTrakr-jar-with-dependencies.jar <PATH TO INPUT FILE>");
+            System.err.println("Usage: java -jar FliteTrakr-jar-with-dependencies.jar <PATH TO INPUT FILE> [<NUMBER OF THREADS>] [--batch]");
             System.exit(0);
         }
 
@@ -33,25 +37,34 @@ public class FliteTrakr {
             System.exit(0);
         }
 
-        final SimpleGraph<String, Long> flightGraph = new SimpleDirectedGraph<>();
-        /* Parsing the connections & creating the flight graph. */
-        final FileReader reader = new FileReader(fileName);
-        for (final Triple<String, String, Long> triple : reader.getConnections()) {
-            flightGraph.addVertex(triple.getFirst());
-            flightGraph.addVertex(triple.getSecond());
-            flightGraph.addEdge(triple.getFirst(), triple.getSecond(), triple.getThird());
+        /* The questions are answered by all available processors by default. */
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean batch = false;
+        for (int i = 1; i < args.length; i++) {
+            if (BATCH_OPTION.equals(args[i])) {
+                batch = true;
+                continue;
+            }
+            try {
+                threads = Integer.parseInt(args[i]);
+            } catch (NumberFormatException e) {
+                threads = 0;
+            }
+            if (threads < 1) {
+                System.err.println("The number of threads must be a positive number. Value: " + args[i]);
+                System.exit(0);
+            }
         }
 
-        /* Processing & answering the questions. */
-        final Solver solver = new SolverFactory().createSolverChain(flightGraph);
-        reader.getQuestions().forEach(question -> {
-            int noIndex = question.indexOf(":");
-            if(noIndex == -1) {
-                throw new UnsupportedQuestionException("Can't process question: " + question);
-            }
+        /* Parsing the connections & creating the (immutable) flight graph. */
+        final MappedFileParser parser = new MappedFileParser(fileName);
+        final SimpleGraph<String, Long> flightGraph = parser.getGraph();
 
-            final String answer = solver.solveQuestion(question.substring(noIndex + 1).trim());
-            System.out.println(question.substring(0, noIndex + 1) + " " + answer);
-        });
+        /* Processing & answering the questions, in batch mode the cheapest connections of an origin share one search. */
+        final QueryDispatcher dispatcher = new SolverFactory().createQueryDispatcher(flightGraph);
+        final PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out)));
+        try (Stream<String> questions = parser.getQuestions()) {
+            new QuestionRunner(dispatcher, threads, batch).run(questions, out);
+        }
     }
 }
@@ -0,0 +1,191 @@
+package com.adidas.flitetrakr.main;
+
+import com.adidas.flitetrakr.exception.UnsupportedQuestionException;
+import com.adidas.flitetrakr.query.Query;
+import com.adidas.flitetrakr.solver.QueryDispatcher;
+import com.adidas.flitetrakr.solver.Solver;
+
+import java.io.PrintWriter;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Stream;
+
+/**
+ * Answers numbered questions (e.g. "#1: What is the price of the connection A-B?")
+ * with a solver chain and writes the answers in the order of the questions.
+ * <p>
+ * With more than one thread the questions are answered concurrently by a fixed
+ * thread pool. At most {@code IN_FLIGHT_PER_THREAD} questions per thread are
+ * submitted ahead of the oldest unanswered question, therefore the memory use
+ * doesn't grow with the number of questions. The solvers must be thread-safe,
+ * which holds for the solvers of the {@link com.adidas.flitetrakr.solver.factory.SolverFactory}
+ * as long as the graph isn't modified.
+ * <p>
+ * In batch mode all questions are read and parsed by a {@link QueryDispatcher}
+ * before the first one is answered. The dispatcher plans the batch, such that
+ * the cheapest connection questions of the same origin share a single search,
+ * and the answers are written once all of them are known.
+ *
+ * @author Bogdan Zafirov
+ */
+public class QuestionRunner {
+
+    /* Number of submitted questions per thread, which may wait for their answer. */
+    private static final int IN_FLIGHT_PER_THREAD = 64;
+
+    private final Solver<String, Long> solver;
+    private final int threads;
+    /* The dispatcher of the batch mode, null if the questions are answered one by one. */
+    private final QueryDispatcher dispatcher;
+
+    /**
+     * Creates the question runner.
+     *
+     * @param solver  The solver chain.
+     * @param threads The number of threads answering the questions, 1 answers them in the calling thread.
+     * @throws IllegalArgumentException Thrown if the solver is null or the number of threads isn't positive.
+     */
+    public QuestionRunner(final Solver<String, Long> solver, final int threads) {
+        if (solver == null) {
+            throw new IllegalArgumentException("The solver can't be null.");
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("The number of threads must be positive.");
+        }
+        this.solver = solver;
+        this.threads = threads;
+        this.dispatcher = null;
+    }
+
+    /**
+     * Creates the question runner with a query dispatcher, which can plan batches of questions.
+     *
+     * @param dispatcher The query dispatcher.
+     * @param threads    The number of threads answering the questions, 1 answers them in the calling thread.
+     * @param batch      True to read all questions before answering them as one batch.
+     * @throws IllegalArgumentException Thrown if the dispatcher is null or the number of threads isn't positive.
+     */
+    public QuestionRunner(final QueryDispatcher dispatcher, final int threads, final boolean batch) {
+        if (dispatcher == null) {
+            throw new IllegalArgumentException("The dispatcher can't be null.");
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("The number of threads must be positive.");
+        }
+        this.solver = dispatcher;
+        this.threads = threads;
+        this.dispatcher = batch ? dispatcher : null;
+    }
+
+    /**
+     * Answers all questions and writes one line "NUMBER: ANSWER" per question.
+     * The writer is flushed, but not closed.
+     *
+     * @param questions The numbered question lines.
+     * @param out       The writer for the answers.
+     * @throws UnsupportedQuestionException Thrown if a question can't be processed.
+     *                                      The answers to the previous questions are written.
+     */
+    public void run(final Stream<String> questions, final PrintWriter out) {
+        try {
+            if (dispatcher != null) {
+                runBatch(questions.iterator(), out);
+            } else if (threads == 1) {
+                questions.forEach(question -> out.println(answer(question)));
+            } else {
+                runConcurrently(questions.iterator(), out);
+            }
+        } finally {
+            out.flush();
+        }
+    }
+
+    private void runBatch(final Iterator<String> questions, final PrintWriter out) {
+        final List<String> numbers = new ArrayList<>();
+        final List<Query> queries = new ArrayList<>();
+        /* The questions before an unsupported one are still answered. */
+        UnsupportedQuestionException unsupported = null;
+        while (questions.hasNext()) {
+            final String question = questions.next();
+            try {
+                final int noIndex = numberEnd(question);
+                queries.add(dispatcher.parse(question.substring(noIndex).trim()));
+                numbers.add(question.substring(0, noIndex));
+            } catch (UnsupportedQuestionException e) {
+                unsupported = e;
+                break;
+            }
+        }
+
+        final List<String> answers;
+        if (threads == 1) {
+            answers = dispatcher.answerAll(queries, null);
+        } else {
+            final ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                answers = dispatcher.answerAll(queries, executor);
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+        for (int i = 0; i < answers.size(); i++) {
+            out.println(numbers.get(i) + " " + answers.get(i));
+        }
+        if (unsupported != null) {
+            throw unsupported;
+        }
+    }
+
+    private void runConcurrently(final Iterator<String> questions, final PrintWriter out) {
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final Queue<Future<String>> answers = new ArrayDeque<>();
+        final int maxInFlight = threads * IN_FLIGHT_PER_THREAD;
+        try {
+            while (questions.hasNext()) {
+                final String question = questions.next();
+                answers.add(executor.submit(() -> answer(question)));
+                if (answers.size() >= maxInFlight) {
+                    out.println(await(answers.remove()));
+                }
+            }
+            while (!answers.isEmpty()) {
+                out.println(await(answers.remove()));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /* Waits for the answer and rethrows the exception of the solver, if there is one. */
+    private static String await(final Future<String> answer) {
+        try {
+            return answer.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for an answer.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private String answer(final String question) {
+        final int noIndex = numberEnd(question);
+        final String answer = solver.solveQuestion(question.substring(noIndex).trim());
+        return question.substring(0, noIndex) + " " + answer;
+    }
+
+    /* Returns the end of the question number, which includes the ":". */
+    private static int numberEnd(final String question) {
+        final int noIndex = question.indexOf(":");
+        if (noIndex == -1) {
+            throw new UnsupportedQuestionException("Can't process question: " + question);
+        }
+        return noIndex + 1;
+    }
+}
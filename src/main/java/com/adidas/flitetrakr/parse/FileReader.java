@@ -11,6 +11,8 @@ import java.util.stream.Stream;
 
 /**
  * File utility class offering functionality for parsing question-input files.
+ * <p>
+ * For big input files use the {@link MappedFileParser}, which reads the file only once.
  *
  * @author Bogdan Zafirov
  */
@@ -35,8 +37,8 @@ public class FileReader {
      */
     public List<Triple<String, String, Long>> getConnections() {
         final String header;
-        try {
-            header = Files.lines(Paths.get(fileName)).findFirst().get();
+        try (Stream<String> lines = Files.lines(Paths.get(fileName))) {
+            header = lines.findFirst().orElseThrow(() -> new IllegalArgumentException("Invalid file format."));
         } catch(IOException exception) {
             throw new IllegalArgumentException("Exception while reading input file.", exception);
         }
@@ -60,7 +62,8 @@ public class FileReader {
     }
 
     /**
-     * Returns a lazy stream for iterating over the file questions.
+     * Returns a lazy stream for iterating over the file questions. The stream
+     * holds the file open and has to be closed after use.
      *
      * @return Stream of all the lines in the input file without the header (first) line.
      * @throws IllegalArgumentException Thrown if the file can't be read.
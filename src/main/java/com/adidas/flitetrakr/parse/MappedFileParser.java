@@ -0,0 +1,359 @@
+package com.adidas.flitetrakr.parse;
+
+import com.adidas.flitetrakr.graph.CompactDirectedGraph;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Single-pass parser for question-input files, working directly on the
+ * memory-mapped bytes of the file.
+ * <p>
+ * The connections header is tokenized byte by byte straight into a
+ * {@link CompactDirectedGraph.Builder}: vertex names are looked up in a
+ * hash table over the mapped bytes, therefore a string is only created the
+ * first time a vertex is seen and no intermediate strings are created per
+ * connection. The question lines after the header are decoded lazily, while
+ * the returned stream is consumed. The file is read as UTF-8.
+ *
+ * @author Bogdan Zafirov
+ */
+public class MappedFileParser {
+
+    /* Connections prefix. */
+    private static final byte[] CONNECTION_PREFIX = "Connections:".getBytes(StandardCharsets.US_ASCII);
+    /* Files are mapped in regions of 2^30 bytes, since a single mapping is limited to 2GB. */
+    private static final int REGION_BITS = 30;
+
+    /* The file name. */
+    private final String fileName;
+    private final int regionBits;
+
+    /* The mapped regions of the file. */
+    private MappedByteBuffer[] regions;
+    private long size;
+    /* The parsed graph and the position of the first question line. */
+    private CompactDirectedGraph graph;
+    private long questionsStart;
+
+    public MappedFileParser(final String fileName) {
+        this(fileName, REGION_BITS);
+    }
+
+    MappedFileParser(final String fileName, final int regionBits) {
+        if (fileName == null) {
+            throw new IllegalArgumentException("The file name can't be null.");
+        }
+        this.fileName = fileName;
+        this.regionBits = regionBits;
+    }
+
+    /**
+     * Parses the flight connections from the header (first) line of the input file.
+     * The header is parsed only once.
+     *
+     * @return The graph of the flight connections.
+     * @throws IllegalArgumentException Thrown if the input file can't be parsed or read.
+     * @throws NumberFormatException Thrown if the edge attribute is not a number.
+     */
+    public CompactDirectedGraph getGraph() {
+        if (graph == null) {
+            map();
+            graph = parseConnections();
+        }
+        return graph;
+    }
+
+    /**
+     * Returns a lazy stream for iterating over the file questions. The header
+     * is parsed first, if it wasn't already.
+     *
+     * @return Stream of all the lines in the input file without the header (first) line.
+     * @throws IllegalArgumentException Thrown if the input file can't be parsed or read.
+     */
+    public Stream<String> getQuestions() {
+        getGraph();
+        final Iterator<String> lines = new LineIterator(questionsStart);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(lines,
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    private void map() {
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+            /* The mappings stay valid after the channel is closed. */
+            size = channel.size();
+            final long regionSize = 1L << regionBits;
+            regions = new MappedByteBuffer[(int) ((size + regionSize - 1) >>> regionBits)];
+            for (int i = 0; i < regions.length; i++) {
+                final long start = (long) i << regionBits;
+                regions[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(regionSize, size - start));
+            }
+        } catch (IOException exception) {
+            throw new IllegalArgumentException("Exception while reading input file.", exception);
+        }
+    }
+
+    private byte byteAt(final long position) {
+        return regions[(int) (position >>> regionBits)].get((int) (position & ((1L << regionBits) - 1)));
+    }
+
+    private boolean isLineEnd(final long position) {
+        if (position >= size) {
+            return true;
+        }
+        final byte b = byteAt(position);
+        return b == '\n' || b == '\r';
+    }
+
+    /* Whitespace as in String.trim(), without the line terminators. */
+    private boolean isBlank(final long position) {
+        return !isLineEnd(position) && (byteAt(position) & 0xFF) <= ' ';
+    }
+
+    /* Position after the line terminator of the line containing the position. */
+    private long skipLine(long position) {
+        while (!isLineEnd(position)) {
+            position++;
+        }
+        if (position < size && byteAt(position) == '\r') {
+            position++;
+        }
+        if (position < size && byteAt(position) == '\n') {
+            position++;
+        }
+        return position;
+    }
+
+    private CompactDirectedGraph parseConnections() {
+        long position = findConnectionPrefix();
+        final CompactDirectedGraph.Builder builder = new CompactDirectedGraph.Builder();
+        final VertexTable vertexTable = new VertexTable(builder);
+
+        /* Connections of the format "SOURCE-TARGET-PRICE", separated by commas. */
+        while (true) {
+            final long sourceStart = skipBlanks(position);
+            position = findDelimiter(sourceStart, (byte) '-');
+            final int source = vertexTable.getVertexId(sourceStart, trimEnd(sourceStart, position));
+
+            final long targetStart = skipBlanks(position + 1);
+            position = findDelimiter(targetStart, (byte) '-');
+            final int target = vertexTable.getVertexId(targetStart, trimEnd(targetStart, position));
+
+            final long priceStart = skipBlanks(position + 1);
+            position = findDelimiter(priceStart, (byte) ',');
+            builder.addEdge(source, target, parsePrice(priceStart, trimEnd(priceStart, position)));
+
+            /* Empty elements after the last connection are skipped, as String.split(",") drops them. */
+            if (isHeaderEnd(position)) {
+                break;
+            }
+            position++;
+        }
+
+        questionsStart = skipLine(position);
+        return builder.build();
+    }
+
+    /* Position after the connections prefix in the header line. */
+    private long findConnectionPrefix() {
+        for (long start = 0; !isLineEnd(start); start++) {
+            int matched = 0;
+            while (matched < CONNECTION_PREFIX.length && start + matched < size
+                    && byteAt(start + matched) == CONNECTION_PREFIX[matched]) {
+                matched++;
+            }
+            if (matched == CONNECTION_PREFIX.length) {
+                return start + matched;
+            }
+        }
+        throw new IllegalArgumentException("Invalid file format.");
+    }
+
+    /* Whether only blanks and commas are left until the line end. */
+    private boolean isHeaderEnd(long position) {
+        while (!isLineEnd(position)) {
+            if (byteAt(position) != ',' && !isBlank(position)) {
+                return false;
+            }
+            position++;
+        }
+        return true;
+    }
+
+    private long skipBlanks(long position) {
+        while (isBlank(position)) {
+            position++;
+        }
+        return position;
+    }
+
+    /* Position of the delimiter, or of the line end if the delimiter is a comma. */
+    private long findDelimiter(long position, final byte delimiter) {
+        while (!isLineEnd(position)) {
+            final byte b = byteAt(position);
+            if (b == delimiter) {
+                return position;
+            }
+            /* A connection has exactly three parts. */
+            if (b == '-' || b == ',') {
+                throw new IllegalArgumentException("Invalid file format.");
+            }
+            position++;
+        }
+        if (delimiter != ',') {
+            throw new IllegalArgumentException("Invalid file format.");
+        }
+        return position;
+    }
+
+    /* End position of the token without trailing whitespace. */
+    private long trimEnd(final long start, long end) {
+        while (end > start && (byteAt(end - 1) & 0xFF) <= ' ') {
+            end--;
+        }
+        if (end == start) {
+            throw new IllegalArgumentException("Invalid file format.");
+        }
+        return end;
+    }
+
+    private long parsePrice(final long start, final long end) {
+        long position = (byteAt(start) == '+') ? start + 1 : start;
+        if (position == end) {
+            throw new NumberFormatException("For input string: \"" + decode(start, end) + "\"");
+        }
+        long price = 0;
+        for (; position < end; position++) {
+            final int digit = byteAt(position) - '0';
+            if (digit < 0 || digit > 9 || price > (Long.MAX_VALUE - digit) / 10) {
+                throw new NumberFormatException("For input string: \"" + decode(start, end) + "\"");
+            }
+            price = price * 10 + digit;
+        }
+        return price;
+    }
+
+    private String decode(final long start, final long end) {
+        final byte[] bytes = new byte[(int) (end - start)];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = byteAt(start + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Open addressing hash table from vertex names, given as byte ranges of the
+     * mapped file, to vertex ids of the builder. The names are compared on the
+     * mapped bytes, the string of a name is only created when it is added.
+     */
+    private final class VertexTable {
+        private final CompactDirectedGraph.Builder builder;
+
+        /* Vertex id + 1 per slot, 0 for empty slots. */
+        private int[] slots = new int[64];
+        /* Position, length and hash of the first occurrence of every vertex name, indexed by id. */
+        private long[] nameStarts = new long[16];
+        private int[] nameLengths = new int[16];
+        private int[] nameHashes = new int[16];
+        private int count;
+
+        private VertexTable(final CompactDirectedGraph.Builder builder) {
+            this.builder = builder;
+        }
+
+        private int getVertexId(final long start, final long end) {
+            int hash = 0;
+            for (long position = start; position < end; position++) {
+                hash = 31 * hash + byteAt(position);
+            }
+            final int length = (int) (end - start);
+
+            int slot = hash & (slots.length - 1);
+            while (slots[slot] != 0) {
+                final int id = slots[slot] - 1;
+                if (nameHashes[id] == hash && nameLengths[id] == length && equalBytes(nameStarts[id], start, length)) {
+                    return id;
+                }
+                slot = (slot + 1) & (slots.length - 1);
+            }
+
+            final int id = builder.addVertex(decode(start, end));
+            if (id != count) {
+                /* Differently encoded names, which decode to the same string. */
+                return id;
+            }
+            if (count == nameStarts.length) {
+                nameStarts = Arrays.copyOf(nameStarts, count * 2);
+                nameLengths = Arrays.copyOf(nameLengths, count * 2);
+                nameHashes = Arrays.copyOf(nameHashes, count * 2);
+            }
+            nameStarts[count] = start;
+            nameLengths[count] = length;
+            nameHashes[count] = hash;
+            slots[slot] = ++count;
+            if (count * 2 > slots.length) {
+                rehash();
+            }
+            return id;
+        }
+
+        private boolean equalBytes(final long first, final long second, final int length) {
+            for (int i = 0; i < length; i++) {
+                if (byteAt(first + i) != byteAt(second + i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void rehash() {
+            slots = new int[slots.length * 2];
+            for (int id = 0; id < count; id++) {
+                int slot = nameHashes[id] & (slots.length - 1);
+                while (slots[slot] != 0) {
+                    slot = (slot + 1) & (slots.length - 1);
+                }
+                slots[slot] = id + 1;
+            }
+        }
+    }
+
+    /**
+     * Decodes the lines of the mapped file one at a time. Like
+     * {@link java.io.BufferedReader#readLine()}, lines are terminated by
+     * a line feed, a carriage return or both.
+     */
+    private final class LineIterator implements Iterator<String> {
+        private long position;
+
+        private LineIterator(final long position) {
+            this.position = position;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return position < size;
+        }
+
+        @Override
+        public String next() {
+            if (position >= size) {
+                throw new NoSuchElementException();
+            }
+            long end = position;
+            while (!isLineEnd(end)) {
+                end++;
+            }
+            final String line = decode(position, end);
+            position = skipLine(end);
+            return line;
+        }
+    }
+}
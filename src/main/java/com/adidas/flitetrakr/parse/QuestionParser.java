@@ -0,0 +1,246 @@
+package com.adidas.flitetrakr.parse;
+
+import com.adidas.flitetrakr.exception.UnsupportedQuestionException;
+import com.adidas.flitetrakr.query.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Single-pass parser of the questions into typed {@link Query} objects.
+ * <p>
+ * A question is read word by word from left to right: the fixed words of
+ * the question types are compared as whole words, and the airports and
+ * numbers are the words in between. An airport name may consist of several
+ * words and ends before the next word of the question ("to", "below", "and")
+ * or at the end of the question. Its first word is always part of the name,
+ * therefore an airport name isn't confused with a word of the question, e.g.
+ * in "from TOR to STO", "from New York to Rio de Janeiro" or "between AND and BER".
+ * The supported questions are:
+ *
+ * <pre>
+ * What is the price of the connection A-B-C?
+ * What is the cheapest connection from A to B?
+ * What are the N cheapest connections from A to B?
+ * Find all connections from A to B below X Euros!
+ * How many different connections with (minimum|maximum|exactly) X stops exists between A and B?
+ * </pre>
+ *
+ * The final "?" or "!" is optional. The parser is stateless and thread-safe.
+ *
+ * @author Bogdan Zafirov
+ */
+public class QuestionParser {
+
+    /**
+     * Parses the question.
+     *
+     * @param question The question, without its number.
+     * @return The typed query.
+     * @throws UnsupportedQuestionException Thrown if the question isn't supported or malformed.
+     */
+    public Query parse(final String question) {
+        if (question == null) {
+            throw new UnsupportedQuestionException("Can't process question: null");
+        }
+        final Cursor cursor = new Cursor(question);
+        final Query query;
+        if (cursor.word("What")) {
+            if (cursor.word("is")) {
+                cursor.expect("the");
+                if (cursor.word("price")) {
+                    cursor.expect("of", "the", "connection");
+                    query = new ConnectionPriceQuery(cursor.route());
+                } else {
+                    cursor.expect("cheapest", "connection", "from");
+                    final String source = cursor.name("to");
+                    cursor.expect("to");
+                    query = new CheapestConnectionQuery(source, cursor.name());
+                }
+            } else {
+                cursor.expect("are", "the");
+                final int count = cursor.number();
+                if (count < 1) {
+                    throw cursor.unsupported();
+                }
+                cursor.expect("cheapest", "connections", "from");
+                final String source = cursor.name("to");
+                cursor.expect("to");
+                query = new CheapestConnectionsQuery(source, cursor.name(), count);
+            }
+        } else if (cursor.word("Find")) {
+            cursor.expect("all", "connections", "from");
+            final String source = cursor.name("to");
+            cursor.expect("to");
+            final String destination = cursor.name("below");
+            cursor.expect("below");
+            final long priceLimit = cursor.longNumber();
+            if (!cursor.word("Euros")) {
+                cursor.expect("Euro");
+            }
+            query = new AllConnectionsQuery(source, destination, priceLimit);
+        } else {
+            cursor.expect("How", "many", "different", "connections", "with");
+            final DifferentConnectionsQuery.Comparison comparison;
+            if (cursor.word("minimum")) {
+                comparison = DifferentConnectionsQuery.Comparison.MINIMUM;
+            } else if (cursor.word("maximum")) {
+                comparison = DifferentConnectionsQuery.Comparison.MAXIMUM;
+            } else {
+                cursor.expect("exactly");
+                comparison = DifferentConnectionsQuery.Comparison.EXACTLY;
+            }
+            final int stops = cursor.number();
+            if (!cursor.word("stops")) {
+                cursor.expect("stop");
+            }
+            if (!cursor.word("exists")) {
+                cursor.expect("exist");
+            }
+            cursor.expect("between");
+            final String source = cursor.name("and");
+            cursor.expect("and");
+            query = new DifferentConnectionsQuery(source, cursor.name(), comparison, stops);
+        }
+        cursor.end();
+        return query;
+    }
+
+    /**
+     * Reading position in a question. The question ends before its final "?" or "!".
+     */
+    private static final class Cursor {
+        private final String question;
+        private final int end;
+        private int position;
+
+        private Cursor(final String question) {
+            this.question = question;
+            int last = question.length();
+            while (last > 0 && Character.isWhitespace(question.charAt(last - 1))) {
+                last--;
+            }
+            if (last > 0 && (question.charAt(last - 1) == '?' || question.charAt(last - 1) == '!')) {
+                last--;
+            }
+            this.end = last;
+        }
+
+        /* Consumes the word, if it is the next one. */
+        private boolean word(final String word) {
+            skipSpaces();
+            final int wordEnd = position + word.length();
+            if (wordEnd <= end && question.startsWith(word, position)
+                    && (wordEnd == end || Character.isWhitespace(question.charAt(wordEnd)))) {
+                position = wordEnd;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(final String... words) {
+            for (final String word : words) {
+                if (!word(word)) {
+                    throw unsupported();
+                }
+            }
+        }
+
+        /* Consumes the next word, e.g. a number. */
+        private String token() {
+            skipSpaces();
+            final int start = position;
+            while (position < end && !Character.isWhitespace(question.charAt(position))) {
+                position++;
+            }
+            if (start == position) {
+                throw unsupported();
+            }
+            return question.substring(start, position);
+        }
+
+        /* Consumes the last airport of the question. */
+        private String name() {
+            return name(null);
+        }
+
+        /* Consumes an airport, i.e. at least one word and the following words up to the terminator or the end. */
+        private String name(final String terminator) {
+            skipSpaces();
+            final int start = position;
+            token();
+            int nameEnd = position;
+            while (!isNext(terminator)) {
+                token();
+                nameEnd = position;
+            }
+            position = nameEnd;
+            return question.substring(start, nameEnd);
+        }
+
+        /* Whether the question ends or the terminator is the next word, without consuming it. */
+        private boolean isNext(final String terminator) {
+            final int mark = position;
+            skipSpaces();
+            final boolean next = position == end || (terminator != null && word(terminator));
+            position = mark;
+            return next;
+        }
+
+        private int number() {
+            final long number = longNumber();
+            if (number > Integer.MAX_VALUE) {
+                throw unsupported();
+            }
+            return (int) number;
+        }
+
+        private long longNumber() {
+            final String word = token();
+            long number = 0;
+            for (int i = 0; i < word.length(); i++) {
+                final int digit = Character.digit(word.charAt(i), 10);
+                if (digit == -1 || number > (Long.MAX_VALUE - digit) / 10) {
+                    throw unsupported();
+                }
+                number = number * 10 + digit;
+            }
+            return number;
+        }
+
+        /* Consumes the rest of the question as airports separated by "-". */
+        private List<String> route() {
+            final List<String> route = new ArrayList<>();
+            int start = position;
+            for (int i = position; i <= end; i++) {
+                if (i == end || question.charAt(i) == '-') {
+                    final String airport = question.substring(start, i).trim();
+                    if (airport.isEmpty()) {
+                        throw unsupported();
+                    }
+                    route.add(airport);
+                    start = i + 1;
+                }
+            }
+            position = end;
+            return route;
+        }
+
+        private void end() {
+            skipSpaces();
+            if (position != end) {
+                throw unsupported();
+            }
+        }
+
+        private void skipSpaces() {
+            while (position < end && Character.isWhitespace(question.charAt(position))) {
+                position++;
+            }
+        }
+
+        private UnsupportedQuestionException unsupported() {
+            return new UnsupportedQuestionException("Can't process question: \"" + question + "\"");
+        }
+    }
+}
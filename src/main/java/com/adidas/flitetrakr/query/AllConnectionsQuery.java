@@ -0,0 +1,39 @@
+package com.adidas.flitetrakr.query;
+
+/**
+ * Question for all connections below a price, e.g. "Find all connections from A to B below 170 Euros!".
+ *
+ * @author Bogdan Zafirov
+ */
+public final class AllConnectionsQuery extends Query {
+
+    private final String source;
+    private final String destination;
+    private final long priceLimit;
+
+    /**
+     * Creates the query.
+     *
+     * @param source      The source airport.
+     * @param destination The destination airport.
+     * @param priceLimit  The (exclusive) price limit.
+     */
+    public AllConnectionsQuery(final String source, final String destination, final long priceLimit) {
+        super(Type.ALL_CONNECTIONS);
+        this.source = source;
+        this.destination = destination;
+        this.priceLimit = priceLimit;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public String getDestination() {
+        return destination;
+    }
+
+    public long getPriceLimit() {
+        return priceLimit;
+    }
+}
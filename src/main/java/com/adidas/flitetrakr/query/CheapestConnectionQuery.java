@@ -0,0 +1,32 @@
+package com.adidas.flitetrakr.query;
+
+/**
+ * Question for the cheapest connection, e.g. "What is the cheapest connection from A to B?".
+ *
+ * @author Bogdan Zafirov
+ */
+public final class CheapestConnectionQuery extends Query {
+
+    private final String source;
+    private final String destination;
+
+    /**
+     * Creates the query.
+     *
+     * @param source      The source airport.
+     * @param destination The destination airport.
+     */
+    public CheapestConnectionQuery(final String source, final String destination) {
+        super(Type.CHEAPEST_CONNECTION);
+        this.source = source;
+        this.destination = destination;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public String getDestination() {
+        return destination;
+    }
+}
@@ -0,0 +1,39 @@
+package com.adidas.flitetrakr.query;
+
+/**
+ * Question for the N cheapest connections, e.g. "What are the 3 cheapest connections from A to B?".
+ *
+ * @author Bogdan Zafirov
+ */
+public final class CheapestConnectionsQuery extends Query {
+
+    private final String source;
+    private final String destination;
+    private final int count;
+
+    /**
+     * Creates the query.
+     *
+     * @param source      The source airport.
+     * @param destination The destination airport.
+     * @param count       The number of connections.
+     */
+    public CheapestConnectionsQuery(final String source, final String destination, final int count) {
+        super(Type.CHEAPEST_CONNECTIONS);
+        this.source = source;
+        this.destination = destination;
+        this.count = count;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public String getDestination() {
+        return destination;
+    }
+
+    public int getCount() {
+        return count;
+    }
+}
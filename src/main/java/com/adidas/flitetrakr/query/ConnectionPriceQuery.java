@@ -0,0 +1,34 @@
+package com.adidas.flitetrakr.query;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Question for the price of a connection, e.g. "What is the price of the connection A-B-C?".
+ *
+ * @author Bogdan Zafirov
+ */
+public final class ConnectionPriceQuery extends Query {
+
+    private final List<String> route;
+
+    /**
+     * Creates the query.
+     *
+     * @param route The airports of the connection.
+     */
+    public ConnectionPriceQuery(final List<String> route) {
+        super(Type.CONNECTION_PRICE);
+        this.route = Collections.unmodifiableList(new ArrayList<>(route));
+    }
+
+    /**
+     * Returns the airports of the connection.
+     *
+     * @return The unmodifiable list of airports.
+     */
+    public List<String> getRoute() {
+        return route;
+    }
+}
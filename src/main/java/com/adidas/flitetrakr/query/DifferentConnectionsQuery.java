@@ -0,0 +1,55 @@
+package com.adidas.flitetrakr.query;
+
+/**
+ * Question for the number of connections with a number of stops, e.g.
+ * "How many different connections with maximum 3 stops exists between A and B?".
+ *
+ * @author Bogdan Zafirov
+ */
+public final class DifferentConnectionsQuery extends Query {
+
+    /**
+     * The comparison of the number of stops of a connection with the number of the question.
+     */
+    public enum Comparison {
+        MINIMUM, MAXIMUM, EXACTLY
+    }
+
+    private final String source;
+    private final String destination;
+    private final Comparison comparison;
+    private final int stops;
+
+    /**
+     * Creates the query.
+     *
+     * @param source      The source airport.
+     * @param destination The destination airport.
+     * @param comparison  The comparison of the number of stops.
+     * @param stops       The number of stops.
+     */
+    public DifferentConnectionsQuery(final String source, final String destination, final Comparison comparison,
+                                     final int stops) {
+        super(Type.DIFFERENT_CONNECTIONS);
+        this.source = source;
+        this.destination = destination;
+        this.comparison = comparison;
+        this.stops = stops;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public String getDestination() {
+        return destination;
+    }
+
+    public Comparison getComparison() {
+        return comparison;
+    }
+
+    public int getStops() {
+        return stops;
+    }
+}
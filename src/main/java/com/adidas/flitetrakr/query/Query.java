@@ -0,0 +1,44 @@
+package com.adidas.flitetrakr.query;
+
+/**
+ * An immutable, parsed question about the flight graph.
+ * <p>
+ * Every question type has its own query class, which holds the typed
+ * values of the question. The type allows to route a query to its solver
+ * without any string comparison.
+ *
+ * @author Bogdan Zafirov
+ */
+public abstract class Query {
+
+    /**
+     * The question types.
+     */
+    public enum Type {
+        /** What is the price of the connection A-B-C? */
+        CONNECTION_PRICE,
+        /** What is the cheapest connection from A to B? */
+        CHEAPEST_CONNECTION,
+        /** What are the N cheapest connections from A to B? */
+        CHEAPEST_CONNECTIONS,
+        /** Find all connections from A to B below X Euros! */
+        ALL_CONNECTIONS,
+        /** How many different connections with (minimum|maximum|exactly) X stops exists between A and B? */
+        DIFFERENT_CONNECTIONS
+    }
+
+    private final Type type;
+
+    protected Query(final Type type) {
+        this.type = type;
+    }
+
+    /**
+     * Returns the type of the question.
+     *
+     * @return The question type.
+     */
+    public Type getType() {
+        return type;
+    }
+}
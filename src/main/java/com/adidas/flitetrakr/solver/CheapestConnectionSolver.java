@@ -2,9 +2,11 @@ package com.adidas.flitetrakr.solver;
 
 import com.adidas.flitetrakr.exception.UnsupportedQuestionException;
 import com.adidas.flitetrakr.graph.SimpleGraph;
+import com.adidas.flitetrakr.query.CheapestConnectionQuery;
+import com.adidas.flitetrakr.solver.algo.BidirectionalDijkstra;
+import com.adidas.flitetrakr.solver.algo.ComponentIndex;
 import com.adidas.flitetrakr.solver.algo.DijkstraMinimalDistance;
-import com.adidas.flitetrakr.solver.algo.TarjanSimpleCycles;
-import com.adidas.flitetrakr.util.Pair;
+import com.adidas.flitetrakr.solver.algo.ShortestPathEngine;
 
 import java.util.*;
 
@@ -18,8 +20,26 @@ public class CheapestConnectionSolver<V extends String, E extends Number> extend
 
     private final static String CHEAPEST_PATH_QUESTION = "What is the cheapest connection from";
 
+    /* The search engine is stateless and is shared by all questions. */
+    private final ShortestPathEngine<V> engine;
+
     public CheapestConnectionSolver(final SimpleGraph<V, E> graph) {
+        this(graph, new DijkstraMinimalDistance<>(graph));
+    }
+
+    /**
+     * Creates the solver with a specific search engine, e.g. a {@link BidirectionalDijkstra}.
+     *
+     * @param graph The input graph.
+     * @param engine The engine searching the cheapest connections in the input graph.
+     * @throws IllegalArgumentException Thrown if the engine is null.
+     */
+    public CheapestConnectionSolver(final SimpleGraph<V, E> graph, final ShortestPathEngine<V> engine) {
         super(graph);
+        if (engine == null) {
+            throw new IllegalArgumentException("The search engine can't be null.");
+        }
+        this.engine = engine;
     }
 
     @Override
@@ -32,70 +52,63 @@ public class CheapestConnectionSolver<V extends String, E extends Number> extend
             }
         }
 
-        final Pair<V, V> sourceDest = getSourceAndDestination(question);
-        final V source = sourceDest.getFirst(), destination = sourceDest.getSecond();
-
-        List<V> path = null;
-        if (source.equals(destination)) {
-            path = findCycles(source);
-        } else {
-            path = new DijkstraMinimalDistance<>(graph).findPath(source, destination);
-        }
-        return (path == null) ? NO_CONNECTION : pathToString(path);
+        return answer(parseQuestion(question, CheapestConnectionQuery.class));
     }
 
-    private Pair<V, V> getSourceAndDestination(final String question) {
-        final int questionMarkIndex = question.indexOf("?");
-        if (questionMarkIndex == -1) {
-            throw new UnsupportedQuestionException("Can't process question: \"" + question + "\"");
-        }
-
-        final String connection = question.substring(CHEAPEST_PATH_QUESTION.length(), questionMarkIndex);
+    /**
+     * Answers the parsed question.
+     *
+     * @param query The cheapest connection question.
+     * @return The cheapest connection, or "No such connection found!".
+     */
+    public String answer(final CheapestConnectionQuery query) {
+        final V source = (V) query.getSource(), destination = (V) query.getDestination();
 
-        final int toIndex = connection.indexOf("to");
-        if (toIndex == -1) {
-            throw new UnsupportedQuestionException("Can't process question: \"" + question + "\"");
+        /* Unreachable destinations are answered without a search. */
+        if (!ComponentIndex.of(graph).hasConnection(source, destination)) {
+            return NO_CONNECTION;
         }
 
-        final String source = connection.substring(0, toIndex).trim();
-        final String destination = connection.substring(toIndex + 2).trim();
-
-        return new Pair<V, V>((V) source, (V) destination);
+        final List<V> path = source.equals(destination) ? engine.findCycle(source) : engine.findPath(source, destination);
+        return (path == null) ? NO_CONNECTION : pathToString(path);
     }
 
     /**
-     * Finds all simple cycles in the graph.
+     * Answers a batch of parsed questions. The questions are grouped by their
+     * source, and the destinations of a source are searched together with
+     * {@link ShortestPathEngine#findPaths(Object, List)}, i.e. with a single
+     * one-to-many search if the engine supports it.
      *
-     * @param source The source vertex, where the loop should start.
-     * @return The cycle.
+     * @param queries The cheapest connection questions.
+     * @return The answers in the order of the questions.
      */
-    private List<V> findCycles(final V source) {
-        final List<List<V>> cycles = new TarjanSimpleCycles<>(graph).findSimpleCycles();
-
-        /* Setting the source of the cycle as the first element of the list. */
-        for(final List<V> cycle : cycles) {
-            rotateCycle(source, cycle);
+    @SuppressWarnings("unchecked")
+    public List<String> answerAll(final List<CheapestConnectionQuery> queries) {
+        /* The airports of the queries are vertices of the string-typed graph. */
+        final ComponentIndex<V> components = ComponentIndex.of(graph);
+        final String[] answers = new String[queries.size()];
+
+        /* The positions of the questions with a reachable destination, grouped by their source. */
+        final Map<V, List<Integer>> origins = new LinkedHashMap<>();
+        for (int i = 0; i < queries.size(); i++) {
+            final CheapestConnectionQuery query = queries.get(i);
+            if (components.hasConnection((V) query.getSource(), (V) query.getDestination())) {
+                origins.computeIfAbsent((V) query.getSource(), source -> new ArrayList<>()).add(i);
+            } else {
+                answers[i] = NO_CONNECTION;
+            }
         }
 
-        /* Converting the cycles into paths. */
-        final Map<List<V>, Long> paths = new HashMap<>();
-        for (final List<V> cycle : cycles) {
-            if(!cycle.contains(source)) {
-                continue;
+        for (final Map.Entry<V, List<Integer>> origin : origins.entrySet()) {
+            final List<V> destinations = new ArrayList<>(origin.getValue().size());
+            for (final int position : origin.getValue()) {
+                destinations.add((V) queries.get(position).getDestination());
             }
-            long pathPrice = 0;
-            V currentSource = source;
-            for (int i = 1; i < cycle.size(); i++) {
-                V dest = cycle.get(i);
-                pathPrice += graph.getEdge(currentSource, dest).longValue();
-                currentSource = dest;
+            final List<List<V>> paths = engine.findPaths(origin.getKey(), destinations);
+            for (int i = 0; i < paths.size(); i++) {
+                answers[origin.getValue().get(i)] = (paths.get(i) == null) ? NO_CONNECTION : pathToString(paths.get(i));
             }
-            paths.put(cycle, pathPrice);
         }
-
-        /* Returning the path with the lowest price. */
-        return paths.isEmpty() ? null : paths.entrySet().stream().max((path1, path2) -> {
-            return path2.getValue().compareTo(path1.getValue().longValue());
-        }).get().getKey();
+        return Arrays.asList(answers);
     }
-}
\ No newline at end of file
+}
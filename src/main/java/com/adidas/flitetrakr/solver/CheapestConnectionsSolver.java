@@ -0,0 +1,75 @@
+package com.adidas.flitetrakr.solver;
+
+import com.adidas.flitetrakr.exception.UnsupportedQuestionException;
+import com.adidas.flitetrakr.graph.SimpleGraph;
+import com.adidas.flitetrakr.query.CheapestConnectionsQuery;
+import com.adidas.flitetrakr.solver.algo.ComponentIndex;
+import com.adidas.flitetrakr.solver.algo.YenKShortestPaths;
+import com.adidas.flitetrakr.util.Pair;
+
+import java.util.*;
+
+/**
+ * Finds the N cheapest connections between two vertices in a graph,
+ * for example "What are the 3 cheapest connections from NUE to LHR?".
+ * <p>
+ * In contrast to the {@link AllConnectionsSolver}, a connection doesn't
+ * pass the same airport twice, and only the requested number of connections
+ * is searched with the {@link YenKShortestPaths} algorithm, instead of
+ * enumerating all connections below a price. The connections are listed
+ * from the cheapest to the most expensive one.
+ *
+ * @param <V> The vertex type, which can be a string subtype.
+ * @param <E> The edge payload/attribute representing a number.
+ * @author Bogdan Zafirov
+ */
+public class CheapestConnectionsSolver<V extends String, E extends Number> extends Solver<V, E> {
+
+    private final static String CHEAPEST_PATHS_QUESTION = "What are the";
+
+    private final YenKShortestPaths<V, E> pathFinder = new YenKShortestPaths<>(graph);
+
+    public CheapestConnectionsSolver(final SimpleGraph<V, E> graph) {
+        super(graph);
+    }
+
+    @Override
+    protected String processQuestion(final String question) {
+        if (!question.startsWith(CHEAPEST_PATHS_QUESTION)) {
+            if(successor != null) {
+                return successor.processQuestion(question);
+            } else {
+                throw new UnsupportedQuestionException("Can't process question: \"" + question + "\"");
+            }
+        }
+
+        return answer(parseQuestion(question, CheapestConnectionsQuery.class));
+    }
+
+    /**
+     * Answers the parsed question.
+     *
+     * @param query The question for the N cheapest connections.
+     * @return The connections, or "No such connection found!".
+     */
+    @SuppressWarnings("unchecked")
+    public String answer(final CheapestConnectionsQuery query) {
+        /* The airports of the query are vertices of the string-typed graph. */
+        final V source = (V) query.getSource(), destination = (V) query.getDestination();
+        /* Unreachable destinations are answered without a search. */
+        if (!ComponentIndex.of(graph).hasConnection(source, destination)) {
+            return NO_CONNECTION;
+        }
+        final List<Pair<List<V>, Long>> paths = pathFinder.findPaths(source, destination, query.getCount());
+        if (paths.isEmpty()) {
+            return NO_CONNECTION;
+        }
+
+        final StringBuffer buf = new StringBuffer();
+        for (final Pair<List<V>, Long> path : paths) {
+            buf.append(pathToString(path.getFirst()) + ", ");
+        }
+        buf.setLength(buf.length() - 2);
+        return buf.toString();
+    }
+}
@@ -3,6 +3,9 @@ package com.adidas.flitetrakr.solver;
 import com.adidas.flitetrakr.exception.NoPathException;
 import com.adidas.flitetrakr.exception.UnsupportedQuestionException;
 import com.adidas.flitetrakr.graph.SimpleGraph;
+import com.adidas.flitetrakr.query.ConnectionPriceQuery;
+
+import java.util.List;
 
 /**
  * Calculates the price for a list of connections.
@@ -34,24 +37,32 @@ public class ConnectionPriceSolver<V extends String, E extends Number> extends S
                 throw new UnsupportedQuestionException("Can't process question: \"" + question + "\"");
             }
         }
-        final String connection = question.substring(PRICE_QUESTION.length(), question.indexOf("?"));
+        return answer(parseQuestion(question, ConnectionPriceQuery.class));
+    }
 
+    /**
+     * Answers the parsed question.
+     *
+     * @param query The price question.
+     * @return The price, or "No such connection found!".
+     */
+    public String answer(final ConnectionPriceQuery query) {
         try {
-            return Long.toString(calculatePrice(connection.split("-")));
+            return Long.toString(calculatePrice(query.getRoute()));
         } catch(NoPathException e) {
             return NO_CONNECTION;
         }
     }
 
-    private long calculatePrice(final String [] path) {
-        if(path.length == 1) {
+    private long calculatePrice(final List<String> path) {
+        if(path.size() == 1) {
             throw new IllegalArgumentException("The path should consist from at least two locations.");
         }
 
         long price = 0;
-        V source = (V) path[0].trim();
-        for (int i = 1; i < path.length; i++) {
-            final V destination = (V) path[i].trim();
+        V source = (V) path.get(0);
+        for (int i = 1; i < path.size(); i++) {
+            final V destination = (V) path.get(i);
             if (graph.containsVertex(source) && (graph.getEdge(source, destination) != null)) {
                 price += graph.getEdge(source, destination).longValue();
             } else {
@@ -1,17 +1,20 @@
 package com.adidas.flitetrakr.solver;
 
+import com.adidas.flitetrakr.exception.CountOverflowException;
 import com.adidas.flitetrakr.exception.UnsupportedQuestionException;
 import com.adidas.flitetrakr.graph.SimpleGraph;
-import com.adidas.flitetrakr.solver.algo.PathFinder;
-import com.adidas.flitetrakr.solver.algo.TarjanSimpleCycles;
-import com.adidas.flitetrakr.util.Triple;
-
-import java.util.*;
-import java.util.stream.Collectors;
+import com.adidas.flitetrakr.query.DifferentConnectionsQuery;
+import com.adidas.flitetrakr.solver.algo.ComponentIndex;
+import com.adidas.flitetrakr.solver.algo.WalkCounter;
 
 /**
  * Finds how many different connections/paths with a specified number of stops
  * between two vertices in a graph exist.
+ * <p>
+ * Connections may pass the same airport more than once and are counted with a
+ * {@link WalkCounter}. For a minimum number of stops there are infinitely many
+ * connections, if a cycle lies on a connection; otherwise no connection is longer
+ * than the number of components it passes, which bounds the count.
  *
  * @param <V> The vertex type, which can be a string subtype.
  * @param <E> The edge payload/attribute representing a number.
@@ -20,6 +23,10 @@ import java.util.stream.Collectors;
 public class DifferentConnectionsSolver<V extends String, E extends Number> extends Solver<V, E> {
 
     private final static String DIFFERENT_PATHS_QUESTION = "How many different connections with";
+    private final static String COUNT_OVERFLOW = "More than " + (Long.MAX_VALUE - 1) + " connections exist!";
+    private final static String INFINITE_COUNT = "Infinitely many connections exist!";
+
+    private final WalkCounter<V, E> walkCounter = new WalkCounter<>(graph);
 
     public DifferentConnectionsSolver(final SimpleGraph<V, E> graph) {
         super(graph);
@@ -35,103 +42,45 @@ public class DifferentConnectionsSolver<V extends String, E extends Number> exte
             }
         }
 
-        final Triple<V, V, Evaluator> values = getSourceDestinationAndStops(question);
-        final V source = values.getFirst(), destination = values.getSecond();
-        final Evaluator evaluator = values.getThird();
-
-        final List<List<V>> cycles = new TarjanSimpleCycles<>(graph).findSimpleCycles();
-        /* Removing cycles on which the destination isn't included. */
-        final Iterator<List<V>> iterator = cycles.iterator();
-        while (iterator.hasNext()) {
-            List<V> cycle = iterator.next();
-            if (!cycle.contains(destination)) {
-                iterator.remove();
-                continue;
-            }
-            rotateCycle(destination, cycle);
-        }
-
-        /* Special case, if the source and destination are the same,
-         * we only search for cycle paths/connections. */
-        if (source.equals(destination)) {
-            final List<List<V>> cyclePaths = new ArrayList<>();
-            /* Generating cycled paths. */
-            for (List<V> cycle : cycles) {
-                if (evaluator.compare(cycle.size() - 2)) {
-                    cyclePaths.add(cycle);
-                }
-                expandPath(cycle, cyclePaths, evaluator, null);
-            }
-            return Integer.toString(cyclePaths.size());
-        }
-
-        /* Merging the simple paths with the cycles if there are cycles. */
-        final List<List<V>> allPaths = new ArrayList<>();
-        final List<List<V>> paths = new PathFinder<>(graph).findAllPaths(source, destination);
-        for (List<V> path : paths) {
-            /* Simple non-cycled paths. */
-            if (evaluator.compare(path.size() - 2)) {
-                allPaths.add(path);
-            }
-            /* Generating cycled paths. */
-            for (List<V> cycle : cycles) {
-                expandPath(cycle, allPaths, evaluator, path);
-            }
-        }
-
-        return Integer.toString(allPaths.size());
+        return answer(parseQuestion(question, DifferentConnectionsQuery.class));
     }
 
-    private void expandPath(final List<V> cycle, final List<List<V>> cyclePaths, Evaluator evaluator, List<V> initialPath) {
-        int numLoops = 1;
-        while (true) {
-            final List<V> concatLoop = new ArrayList<V>();
-            if(initialPath != null) {
-                concatLoop.addAll(initialPath);
-            } else {
-                concatLoop.addAll(cycle);
-            }
-            for (int i = 0; i < numLoops; i++) {
-                concatLoop.addAll(cycle.stream().skip(1).collect(Collectors.toList()));
-            }
-            if (evaluator.compare(concatLoop.size() - 2)) {
-                cyclePaths.add(concatLoop);
-            } else {
-                break;
-            }
-            numLoops++;
+    /**
+     * Answers the parsed question.
+     *
+     * @param query The question for the number of connections with a number of stops.
+     * @return The number of connections.
+     */
+    public String answer(final DifferentConnectionsQuery query) {
+        final V source = (V) query.getSource(), destination = (V) query.getDestination();
+        final Evaluator evaluator = new Evaluator(query.getStops(), query.getComparison());
+
+        /* Without any connection there is nothing to count. */
+        final ComponentIndex<V> components = ComponentIndex.of(graph);
+        if (!components.hasConnection(source, destination)) {
+            return "0";
         }
-    }
 
-    private Triple<V, V, Evaluator> getSourceDestinationAndStops(final String question) {
-        final int fromIndex = question.indexOf("between");
-        final int toIndex = question.indexOf("and");
-        final int minIndex = question.indexOf("minimum");
-        final int maxIndex = question.indexOf("maximum");
-        final int eqIndex = question.indexOf("exactly");
-        final int stopsIndex = question.indexOf("stop");
-        if (fromIndex == -1 || toIndex == -1 || stopsIndex == -1) {
-            throw new UnsupportedQuestionException("Can't process question: \"" + question + "\"");
+        /* Connections are counted as walks, which have one edge more than stops,
+         * without materializing them. */
+        final int maxEdges;
+        if (evaluator.isBounded()) {
+            maxEdges = evaluator.getMaxEdges();
+        } else if (components.hasCycleOnConnection(source, destination)) {
+            /* The cycle can be repeated any number of times. */
+            return INFINITE_COUNT;
+        } else {
+            /* Without a cycle every edge leads to a smaller component, which bounds the walks. */
+            maxEdges = components.getComponent(source) - components.getComponent(destination);
         }
-
-        int operatorIndex = 0;
-        String operator = null;
-        if (minIndex != -1) {
-            operator = "min";
-            operatorIndex = minIndex;
-        } else if (maxIndex != -1) {
-            operator = "max";
-            operatorIndex = maxIndex;
-        } else if (eqIndex != -1) {
-            operator = "eq";
-            operatorIndex = eqIndex;
+        if (evaluator.getMinEdges() > maxEdges) {
+            return "0";
+        }
+        try {
+            return Long.toString(walkCounter.countWalks(source, destination, evaluator.getMinEdges(), maxEdges));
+        } catch (CountOverflowException e) {
+            return COUNT_OVERFLOW;
         }
-
-        final Evaluator comp = new Evaluator(Integer.parseInt(question.substring(operatorIndex + 7, stopsIndex - 1).trim()), operator);
-        final String source = question.substring(fromIndex + 7, toIndex).trim();
-        final String dest = question.substring(toIndex + 3, question.indexOf("?")).trim();
-
-        return new Triple<>((V) source, (V) dest, comp);
     }
 
     /**
@@ -140,24 +89,38 @@ public class DifferentConnectionsSolver<V extends String, E extends Number> exte
      */
     private static class Evaluator {
         private final int stops;
-        private final String operator;
+        private final DifferentConnectionsQuery.Comparison comparison;
 
-        public Evaluator(final int stops, final String operator) {
+        public Evaluator(final int stops, final DifferentConnectionsQuery.Comparison comparison) {
             this.stops = stops;
-            this.operator = operator;
+            this.comparison = comparison;
         }
 
-        public boolean compare(int noStops) {
-            switch (operator) {
-                case "min":
-                    return noStops >= stops;
-                case "max":
-                    return noStops <= stops;
-                case "eq":
-                    return noStops == stops;
-                default:
-                    throw new IllegalArgumentException("Invalid operator: " + operator);
-            }
+        /**
+         * Checks if the number of stops has an upper bound.
+         *
+         * @return True for a maximum or an exact number of stops.
+         */
+        public boolean isBounded() {
+            return comparison != DifferentConnectionsQuery.Comparison.MINIMUM;
+        }
+
+        /**
+         * Returns the minimal number of edges of a connection (one more than the stops).
+         *
+         * @return The minimal number of edges.
+         */
+        public int getMinEdges() {
+            return (comparison == DifferentConnectionsQuery.Comparison.MAXIMUM) ? 1 : stops + 1;
+        }
+
+        /**
+         * Returns the maximal number of edges of a connection (one more than the stops).
+         *
+         * @return The maximal number of edges.
+         */
+        public int getMaxEdges() {
+            return stops + 1;
         }
     }
 }
@@ -0,0 +1,207 @@
+package com.adidas.flitetrakr.solver;
+
+import com.adidas.flitetrakr.graph.SimpleGraph;
+import com.adidas.flitetrakr.parse.QuestionParser;
+import com.adidas.flitetrakr.query.*;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Answers the questions by parsing them once into a {@link Query} and
+ * routing the query directly to the solver of its type, instead of passing
+ * the question along the chain of solvers.
+ * <p>
+ * The parsed queries of asked questions are cached in a concurrent map, so
+ * repeated questions are neither parsed nor compared with the question types
+ * again, and a cached question is looked up without a lock. A full cache is
+ * cleared instead of tracking the access order. The dispatcher is thread-safe
+ * as long as its solvers are.
+ * <p>
+ * A batch of queries can be answered at once: the cheapest connection
+ * questions are grouped by their source, and every group is answered from a
+ * single one-to-many search of the engine, instead of one search per question.
+ *
+ * @author Bogdan Zafirov
+ */
+public class QueryDispatcher extends Solver<String, Long> {
+
+    /**
+     * Default number of cached questions.
+     */
+    public static final int DEFAULT_CACHE_SIZE = 4096;
+
+    private final QuestionParser parser = new QuestionParser();
+    private final ConnectionPriceSolver<String, Long> priceSolver;
+    private final CheapestConnectionSolver<String, Long> cheapestConnectionSolver;
+    private final CheapestConnectionsSolver<String, Long> cheapestConnectionsSolver;
+    private final AllConnectionsSolver<String, Long> allConnectionsSolver;
+    private final DifferentConnectionsSolver<String, Long> differentConnectionsSolver;
+
+    /* The parsed questions. */
+    private final Map<String, Query> queries = new ConcurrentHashMap<>();
+    private final int cacheSize;
+
+    /**
+     * Creates the dispatcher.
+     *
+     * @param graph The input graph.
+     * @param priceSolver The solver of the price questions.
+     * @param cheapestConnectionSolver The solver of the cheapest connection questions.
+     * @param cheapestConnectionsSolver The solver of the N cheapest connections questions.
+     * @param allConnectionsSolver The solver of the all connections questions.
+     * @param differentConnectionsSolver The solver of the different connections questions.
+     * @param cacheSize The maximal number of cached questions.
+     * @throws IllegalArgumentException Thrown if a solver is null or the cache size is negative.
+     */
+    public QueryDispatcher(final SimpleGraph<String, Long> graph,
+                           final ConnectionPriceSolver<String, Long> priceSolver,
+                           final CheapestConnectionSolver<String, Long> cheapestConnectionSolver,
+                           final CheapestConnectionsSolver<String, Long> cheapestConnectionsSolver,
+                           final AllConnectionsSolver<String, Long> allConnectionsSolver,
+                           final DifferentConnectionsSolver<String, Long> differentConnectionsSolver,
+                           final int cacheSize) {
+        super(graph);
+        if (priceSolver == null || cheapestConnectionSolver == null || cheapestConnectionsSolver == null
+                || allConnectionsSolver == null || differentConnectionsSolver == null) {
+            throw new IllegalArgumentException("The solvers can't be null.");
+        }
+        if (cacheSize < 0) {
+            throw new IllegalArgumentException("The cache size can't be negative.");
+        }
+        this.priceSolver = priceSolver;
+        this.cheapestConnectionSolver = cheapestConnectionSolver;
+        this.cheapestConnectionsSolver = cheapestConnectionsSolver;
+        this.allConnectionsSolver = allConnectionsSolver;
+        this.differentConnectionsSolver = differentConnectionsSolver;
+        this.cacheSize = cacheSize;
+    }
+
+    @Override
+    protected String processQuestion(final String question) {
+        return answer(parse(question));
+    }
+
+    /**
+     * Answers the parsed question with the solver of its type.
+     *
+     * @param query The parsed question.
+     * @return The answer.
+     */
+    public String answer(final Query query) {
+        switch (query.getType()) {
+            case CONNECTION_PRICE:
+                return priceSolver.answer((ConnectionPriceQuery) query);
+            case CHEAPEST_CONNECTION:
+                return cheapestConnectionSolver.answer((CheapestConnectionQuery) query);
+            case CHEAPEST_CONNECTIONS:
+                return cheapestConnectionsSolver.answer((CheapestConnectionsQuery) query);
+            case ALL_CONNECTIONS:
+                return allConnectionsSolver.answer((AllConnectionsQuery) query);
+            case DIFFERENT_CONNECTIONS:
+                return differentConnectionsSolver.answer((DifferentConnectionsQuery) query);
+            default:
+                throw new IllegalArgumentException("Unknown query type: " + query.getType());
+        }
+    }
+
+    /**
+     * Answers a batch of parsed questions. The cheapest connection questions with
+     * the same source are answered together by one task, every other question by
+     * a task of its own.
+     *
+     * @param queries The parsed questions.
+     * @param executor The executor running the tasks, or null to run them in the calling thread.
+     * @return The answers in the order of the questions.
+     */
+    public List<String> answerAll(final List<? extends Query> queries, final ExecutorService executor) {
+        final String[] answers = new String[queries.size()];
+        final List<Runnable> tasks = new ArrayList<>();
+
+        /* The positions of the cheapest connection questions, grouped by their source. */
+        final Map<String, List<Integer>> origins = new LinkedHashMap<>();
+        for (int i = 0; i < queries.size(); i++) {
+            final Query query = queries.get(i);
+            if (query.getType() == Query.Type.CHEAPEST_CONNECTION) {
+                origins.computeIfAbsent(((CheapestConnectionQuery) query).getSource(), source -> new ArrayList<>()).add(i);
+            } else {
+                final int position = i;
+                tasks.add(() -> answers[position] = answer(query));
+            }
+        }
+        for (final List<Integer> positions : origins.values()) {
+            tasks.add(() -> {
+                final List<CheapestConnectionQuery> group = new ArrayList<>(positions.size());
+                for (final int position : positions) {
+                    group.add((CheapestConnectionQuery) queries.get(position));
+                }
+                final List<String> groupAnswers = cheapestConnectionSolver.answerAll(group);
+                for (int i = 0; i < positions.size(); i++) {
+                    answers[positions.get(i)] = groupAnswers.get(i);
+                }
+            });
+        }
+
+        if (executor == null) {
+            tasks.forEach(Runnable::run);
+        } else {
+            final List<Future<?>> futures = new ArrayList<>(tasks.size());
+            for (final Runnable task : tasks) {
+                futures.add(executor.submit(task));
+            }
+            await(futures);
+        }
+        return Arrays.asList(answers);
+    }
+
+    /**
+     * Parses the question, or returns the cached query of the same question.
+     *
+     * @param question The question.
+     * @return The parsed question.
+     * @throws com.adidas.flitetrakr.exception.UnsupportedQuestionException Thrown if the question isn't supported.
+     */
+    public Query parse(final String question) {
+        final Query cached = (question == null) ? null : queries.get(question);
+        if (cached != null) {
+            return cached;
+        }
+        /* Unsupported questions throw and are never cached. */
+        final Query query = parser.parse(question);
+        if (cacheSize > 0) {
+            /* Concurrent misses may exceed the size slightly, the next miss clears the cache again. */
+            if (queries.size() >= cacheSize) {
+                queries.clear();
+            }
+            queries.put(question, query);
+        }
+        return query;
+    }
+
+    /* Waits for all tasks and rethrows the exception of the first failed one. */
+    private static void await(final List<Future<?>> tasks) {
+        try {
+            for (final Future<?> task : tasks) {
+                task.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the answers.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            for (final Future<?> task : tasks) {
+                task.cancel(true);
+            }
+        }
+    }
+}
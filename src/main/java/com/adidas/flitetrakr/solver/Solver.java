@@ -2,8 +2,9 @@ package com.adidas.flitetrakr.solver;
 
 import com.adidas.flitetrakr.exception.UnsupportedQuestionException;
 import com.adidas.flitetrakr.graph.SimpleGraph;
+import com.adidas.flitetrakr.parse.QuestionParser;
+import com.adidas.flitetrakr.query.Query;
 
-import java.util.Collections;
 import java.util.List;
 
 /**
@@ -18,6 +19,9 @@ public abstract class Solver<V, E extends Number> {
 
     protected static final String NO_CONNECTION = "No such connection found!";
 
+    /* The parser is stateless and is shared by all solvers. */
+    private static final QuestionParser QUESTION_PARSER = new QuestionParser();
+
     protected final SimpleGraph<V, E> graph;
     protected Solver successor;
 
@@ -37,6 +41,23 @@ public abstract class Solver<V, E extends Number> {
      */
     protected abstract String processQuestion(final String question);
 
+    /**
+     * Parses the question, which must be of the query type of the solver.
+     *
+     * @param question The question.
+     * @param queryType The expected query class.
+     * @param <Q> The query type.
+     * @return The parsed query.
+     * @throws UnsupportedQuestionException Thrown if the question is malformed or of another type.
+     */
+    protected <Q extends Query> Q parseQuestion(final String question, final Class<Q> queryType) {
+        final Query query = QUESTION_PARSER.parse(question);
+        if (!queryType.isInstance(query)) {
+            throw new UnsupportedQuestionException("Can't process question: \"" + question + "\"");
+        }
+        return queryType.cast(query);
+    }
+
     protected String pathToString(final List<V> vertexPath) {
         /* Building the path. */
         final StringBuffer pathString = new StringBuffer();
@@ -53,28 +74,6 @@ public abstract class Solver<V, E extends Number> {
         return pathString.toString();
     }
 
-    /**
-     * Shifts the cycle, such that the start vertex is set as
-     * first element in the cycle list.
-     *
-     * @param start The start vertex.
-     * @param cycle List of vertices representing the cycle.
-     */
-    protected void rotateCycle(final V start, final List<V> cycle) {
-        if(!cycle.contains(start)) {
-            return;
-        }
-        int position = 0;
-        for (final V location : cycle) {
-            if (location.equals(start)) {
-                break;
-            }
-            position--;
-        }
-        Collections.rotate(cycle, position);
-        cycle.add(start);
-    }
-
     public String solveQuestion(String question) {
         return processQuestion(question);
     }
@@ -0,0 +1,331 @@
+package com.adidas.flitetrakr.solver.algo;
+
+import com.adidas.flitetrakr.graph.GraphIndex;
+import com.adidas.flitetrakr.graph.SimpleGraph;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Precomputed cheapest prices and paths between all pairs of vertices.
+ * <p>
+ * The prices are kept in a {@code long[][]} matrix, and the paths in a
+ * successor matrix: the successor of {@code s} towards {@code t} is the
+ * vertex following {@code s} on the cheapest path from {@code s} to
+ * {@code t}. A price lookup takes constant time, and a path is rebuilt in
+ * time linear in its length. The diagonal holds the cheapest cycles.
+ * <p>
+ * The matrices are computed in parallel on the common fork-join pool, either
+ * with one dijkstra search per source vertex, or with a blocked
+ * Floyd&ndash;Warshall algorithm, which is faster for dense graphs. Both
+ * matrices need {@link #estimateMemory(int)} bytes, which grows with the
+ * square of the vertex count, so the engine is meant for small and medium
+ * networks. If the graph changed since the matrices were built, the engine
+ * falls back to a plain dijkstra search.
+ *
+ * @param <V> The vertex type.
+ * @author Bogdan Zafirov
+ */
+public final class AllPairsShortestPaths<V> implements ShortestPathEngine<V> {
+
+    /**
+     * Price of a vertex pair without a connection.
+     */
+    public static final long UNREACHABLE = Long.MAX_VALUE;
+
+    /**
+     * Algorithm computing the matrices.
+     */
+    public enum Algorithm {
+        /** One dijkstra search per source vertex, for sparse graphs. */
+        DIJKSTRA,
+        /** Blocked Floyd&ndash;Warshall algorithm, for dense graphs. */
+        FLOYD_WARSHALL
+    }
+
+    /* Graphs with at least one in DENSITY_FACTOR of all possible edges are dense. */
+    private static final int DENSITY_FACTOR = 8;
+    private static final int BLOCK_SIZE = 64;
+
+    private final SimpleGraph<V, ?> graph;
+    private final GraphIndex<V> index;
+    private final Algorithm algorithm;
+    private final long[][] prices;
+    private final int[][] successors;
+    private final ShortestPathEngine<V> fallback;
+
+    private <E extends Number> AllPairsShortestPaths(final SimpleGraph<V, E> graph, final Algorithm algorithm) {
+        this.graph = graph;
+        this.index = GraphIndex.of(graph);
+        this.algorithm = algorithm;
+        this.fallback = new DijkstraMinimalDistance<>(graph);
+
+        final int vertexCount = index.getVertexCount();
+        prices = new long[vertexCount][vertexCount];
+        successors = new int[vertexCount][vertexCount];
+        for (int v = 0; v < vertexCount; v++) {
+            for (int edge = index.getEdgeStart(v); edge < index.getEdgeEnd(v); edge++) {
+                if (index.getEdgePrice(edge) < 0) {
+                    throw new IllegalArgumentException("The edge prices can't be negative.");
+                }
+            }
+        }
+        if (algorithm == Algorithm.DIJKSTRA) {
+            IntStream.range(0, vertexCount).parallel().forEach(this::computeRow);
+        } else {
+            computeFloydWarshall();
+        }
+    }
+
+    /**
+     * Computes the matrices for the current version of the graph, with the
+     * algorithm chosen by the density of the graph.
+     *
+     * @param graph The graph. The edge prices must not be negative.
+     * @param <V> The vertex type.
+     * @param <E> The edge payload type.
+     * @return The all pairs engine.
+     * @throws IllegalArgumentException Thrown if the graph is null or has negative edge prices.
+     */
+    public static <V, E extends Number> AllPairsShortestPaths<V> build(final SimpleGraph<V, E> graph) {
+        if (graph == null) {
+            throw new IllegalArgumentException("The graph can't be null.");
+        }
+        final GraphIndex<V> index = GraphIndex.of(graph);
+        return build(graph, chooseAlgorithm(index.getVertexCount(), index.getEdgeCount()));
+    }
+
+    /**
+     * Computes the matrices for the current version of the graph, with the given algorithm.
+     *
+     * @param graph The graph. The edge prices must not be negative.
+     * @param algorithm The algorithm.
+     * @param <V> The vertex type.
+     * @param <E> The edge payload type.
+     * @return The all pairs engine.
+     * @throws IllegalArgumentException Thrown if the graph or the algorithm is null, or the graph has
+     *                                  negative edge prices.
+     */
+    public static <V, E extends Number> AllPairsShortestPaths<V> build(final SimpleGraph<V, E> graph,
+                                                                      final Algorithm algorithm) {
+        if (graph == null || algorithm == null) {
+            throw new IllegalArgumentException("The graph and the algorithm can't be null.");
+        }
+        return new AllPairsShortestPaths<>(graph, algorithm);
+    }
+
+    /**
+     * Chooses the algorithm for a graph of the given size: Floyd&ndash;Warshall
+     * if at least one in eight of all possible edges exists, dijkstra otherwise.
+     *
+     * @param vertexCount The number of vertices.
+     * @param edgeCount The number of edges.
+     * @return The algorithm.
+     */
+    public static Algorithm chooseAlgorithm(final int vertexCount, final int edgeCount) {
+        return ((long) edgeCount * DENSITY_FACTOR >= (long) vertexCount * vertexCount)
+                ? Algorithm.FLOYD_WARSHALL : Algorithm.DIJKSTRA;
+    }
+
+    /**
+     * Estimates the memory of the price and successor matrices for the given
+     * number of vertices, e.g. for checking it against the available memory
+     * before building them.
+     *
+     * @param vertexCount The number of vertices.
+     * @return The estimated memory in bytes.
+     */
+    public static long estimateMemory(final int vertexCount) {
+        /* Each row is an array with a header of 16 bytes, the outer arrays hold a reference per row. */
+        final long rows = (long) vertexCount * (16 + 8);
+        return 2 * rows + (long) vertexCount * vertexCount * (Long.BYTES + Integer.BYTES);
+    }
+
+    /**
+     * Returns the algorithm the matrices were computed with.
+     *
+     * @return The algorithm.
+     */
+    public Algorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * Returns the version of the graph the matrices were computed for.
+     *
+     * @return The graph version.
+     */
+    public long getGraphVersion() {
+        return index.getGraphVersion();
+    }
+
+    /**
+     * Returns the price of the cheapest connection, in the version of the
+     * graph the matrices were computed for.
+     *
+     * @param source The source vertex.
+     * @param target The target vertex. If it is the source, the price of the cheapest cycle is returned.
+     * @return The price, or {@link #UNREACHABLE} if there is no connection or a vertex doesn't exist.
+     */
+    public long getPrice(final V source, final V target) {
+        final int sourceId = index.getVertexId(source);
+        final int targetId = index.getVertexId(target);
+        if (sourceId == -1 || targetId == -1) {
+            return UNREACHABLE;
+        }
+        return prices[sourceId][targetId];
+    }
+
+    @Override
+    public List<V> findPath(final V source, final V target) {
+        if (graph.getVersion() != index.getGraphVersion()) {
+            return fallback.findPath(source, target);
+        }
+        final int sourceId = index.getVertexId(source);
+        final int targetId = index.getVertexId(target);
+        if (sourceId == -1 || targetId == -1 || sourceId == targetId) {
+            return null;
+        }
+        return createPath(sourceId, targetId);
+    }
+
+    @Override
+    public List<V> findCycle(final V vertex) {
+        if (graph.getVersion() != index.getGraphVersion()) {
+            return fallback.findCycle(vertex);
+        }
+        final int vertexId = index.getVertexId(vertex);
+        if (vertexId == -1) {
+            return null;
+        }
+        return createPath(vertexId, vertexId);
+    }
+
+    private List<V> createPath(final int source, final int target) {
+        if (prices[source][target] == UNREACHABLE) {
+            return null;
+        }
+        final List<V> path = new ArrayList<V>();
+        path.add(index.getVertex(source));
+        int vertex = source;
+        do {
+            vertex = successors[vertex][target];
+            path.add(index.getVertex(vertex));
+        } while (vertex != target);
+        return path;
+    }
+
+    /*
+     * Dijkstra search from the source. As in the cycle search of the DijkstraMinimalDistance,
+     * the edges of the source are relaxed right away, such that the source itself gets
+     * the price of its cheapest cycle. The successors are taken from the predecessors
+     * in the settle order.
+     */
+    private void computeRow(final int source) {
+        final long[] row = prices[source];
+        final int[] successorRow = successors[source];
+        Arrays.fill(row, UNREACHABLE);
+        Arrays.fill(successorRow, -1);
+
+        final SearchScratch scratch = SearchScratch.acquire(index.getVertexCount(), 0);
+        try {
+            final VertexHeap heap = scratch.getHeap();
+            final int[] order = scratch.getStack();
+            int settled = 0;
+            relaxEdges(scratch, source, 0L);
+            while (!heap.isEmpty()) {
+                final int vertex = heap.peekVertex();
+                final long price = heap.peekKey();
+                heap.remove();
+                if (scratch.isSettled(vertex)) {
+                    continue;
+                }
+                scratch.settle(vertex);
+                order[settled++] = vertex;
+                relaxEdges(scratch, vertex, price);
+            }
+
+            for (int i = 0; i < settled; i++) {
+                final int vertex = order[i];
+                final int predecessor = scratch.getPredecessor(vertex);
+                row[vertex] = scratch.getDistance(vertex);
+                successorRow[vertex] = (predecessor == source) ? vertex : successorRow[predecessor];
+            }
+        } finally {
+            scratch.release();
+        }
+    }
+
+    private void relaxEdges(final SearchScratch scratch, final int vertex, final long price) {
+        for (int edge = index.getEdgeStart(vertex); edge < index.getEdgeEnd(vertex); edge++) {
+            final int target = index.getEdgeTarget(edge);
+            final long targetPrice = price + index.getEdgePrice(edge);
+            if (!scratch.isSettled(target) && targetPrice < scratch.getDistance(target)) {
+                scratch.setDistance(target, targetPrice, vertex);
+                scratch.getHeap().add(target, targetPrice);
+            }
+        }
+    }
+
+    /*
+     * Blocked Floyd-Warshall: for every diagonal block, the block itself is updated first,
+     * then the blocks in its row and column, and finally all remaining blocks. The blocks
+     * of the last two phases are independent of each other and updated in parallel.
+     * The diagonal starts without a price, so it ends up with the cheapest cycles.
+     */
+    private void computeFloydWarshall() {
+        final int vertexCount = index.getVertexCount();
+        for (int v = 0; v < vertexCount; v++) {
+            Arrays.fill(prices[v], UNREACHABLE);
+            Arrays.fill(successors[v], -1);
+            for (int edge = index.getEdgeStart(v); edge < index.getEdgeEnd(v); edge++) {
+                final int target = index.getEdgeTarget(edge);
+                if (index.getEdgePrice(edge) < prices[v][target]) {
+                    prices[v][target] = index.getEdgePrice(edge);
+                    successors[v][target] = target;
+                }
+            }
+        }
+
+        final int blockCount = (vertexCount + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        for (int k = 0; k < blockCount; k++) {
+            final int block = k;
+            updateBlock(block, block, block);
+            IntStream.range(0, blockCount).parallel().filter(other -> other != block).forEach(other -> {
+                updateBlock(block, other, block);
+                updateBlock(other, block, block);
+            });
+            IntStream.range(0, blockCount * blockCount).parallel().forEach(position -> {
+                final int row = position / blockCount, column = position % blockCount;
+                if (row != block && column != block) {
+                    updateBlock(row, column, block);
+                }
+            });
+        }
+    }
+
+    private void updateBlock(final int rowBlock, final int columnBlock, final int viaBlock) {
+        final int vertexCount = index.getVertexCount();
+        final int rowEnd = Math.min(vertexCount, (rowBlock + 1) * BLOCK_SIZE);
+        final int columnStart = columnBlock * BLOCK_SIZE;
+        final int columnEnd = Math.min(vertexCount, columnStart + BLOCK_SIZE);
+        final int viaEnd = Math.min(vertexCount, (viaBlock + 1) * BLOCK_SIZE);
+        for (int via = viaBlock * BLOCK_SIZE; via < viaEnd; via++) {
+            final long[] viaRow = prices[via];
+            for (int i = rowBlock * BLOCK_SIZE; i < rowEnd; i++) {
+                final long toVia = prices[i][via];
+                if (toVia == UNREACHABLE) {
+                    continue;
+                }
+                final long[] row = prices[i];
+                final int[] successorRow = successors[i];
+                for (int j = columnStart; j < columnEnd; j++) {
+                    if (viaRow[j] != UNREACHABLE && toVia + viaRow[j] < row[j]) {
+                        row[j] = toVia + viaRow[j];
+                        successorRow[j] = successorRow[via];
+                    }
+                }
+            }
+        }
+    }
+}
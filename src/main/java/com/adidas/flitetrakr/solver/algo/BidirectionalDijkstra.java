@@ -0,0 +1,211 @@
+package com.adidas.flitetrakr.solver.algo;
+
+import com.adidas.flitetrakr.graph.GraphIndex;
+import com.adidas.flitetrakr.graph.SimpleGraph;
+
+import java.util.*;
+
+/**
+ * Bidirectional dijkstra search for cheapest paths and cycles.
+ * <p>
+ * A forward search from the source over the outgoing edges and a backward
+ * search from the target over the incoming edges of the {@link GraphIndex}
+ * run alternately; the search with the smaller tentative distance settles
+ * the next vertex. Every time a vertex is reached by both searches, the
+ * connection through it is a candidate for the cheapest path. The search
+ * stops as soon as the sum of the smallest tentative distances of both
+ * searches is not smaller than the cheapest candidate. For nearby source
+ * and target vertices both searches settle only a small part of the graph.
+ * <p>
+ * Like the {@link DijkstraMinimalDistance}, the engine is stateless and
+ * keeps its working sets in reusable per-thread {@link SearchScratch} buffers.
+ * The edge prices must not be negative.
+ *
+ * @param <V> The type vertex type.
+ * @param <E> The edge attribute type. The type must be a number (e.g. long, int, double).
+ * @author Bogdan Zafirov
+ */
+public class BidirectionalDijkstra<V, E extends Number> implements ShortestPathEngine<V> {
+
+    private final SimpleGraph<V, E> graph;
+
+    public BidirectionalDijkstra(final SimpleGraph<V, E> graph) {
+        if (graph == null) {
+            throw new IllegalArgumentException("The graph can't be null.");
+        }
+        this.graph = graph;
+    }
+
+    @Override
+    public List<V> findPath(final V source, final V target) {
+        final GraphIndex<V> index = GraphIndex.of(graph);
+        final int sourceId = index.getVertexId(source);
+        final int targetId = index.getVertexId(target);
+        if (sourceId == -1 || targetId == -1 || sourceId == targetId) {
+            return null;
+        }
+
+        final Search search = new Search(index, -1);
+        try {
+            search.forward.setDistance(sourceId, 0L, -1);
+            search.forward.getHeap().add(sourceId, 0L);
+            search.backward.setDistance(targetId, 0L, -1);
+            search.backward.getHeap().add(targetId, 0L);
+            search.run();
+            return search.createPath(sourceId, targetId);
+        } finally {
+            search.release();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The vertex is split into a source for the forward search and a target
+     * for the backward search, both start with the edges of the vertex
+     * relaxed. The split vertex itself is never reached by the searches.
+     */
+    @Override
+    public List<V> findCycle(final V vertex) {
+        final GraphIndex<V> index = GraphIndex.of(graph);
+        final int vertexId = index.getVertexId(vertex);
+        if (vertexId == -1) {
+            return null;
+        }
+
+        final Search search = new Search(index, vertexId);
+        try {
+            search.relaxOutEdges(vertexId, 0L);
+            search.relaxInEdges(vertexId, 0L);
+            /* Self loops don't pass any other vertex. */
+            for (int edge = index.getEdgeStart(vertexId); edge < index.getEdgeEnd(vertexId); edge++) {
+                if (index.getEdgeTarget(edge) == vertexId && index.getEdgePrice(edge) < search.bestPrice) {
+                    search.bestPrice = index.getEdgePrice(edge);
+                    search.meetingVertex = vertexId;
+                }
+            }
+            search.run();
+            return search.createPath(vertexId, vertexId);
+        } finally {
+            search.release();
+        }
+    }
+
+    /**
+     * State of a single bidirectional search. The predecessors of the backward
+     * search are the successors of the vertices on the path to the target.
+     */
+    private final class Search {
+        private final GraphIndex<V> index;
+        /* The split vertex of a cycle search, or -1. */
+        private final int splitVertex;
+        private final SearchScratch forward;
+        private final SearchScratch backward;
+        /* The cheapest connection found so far. */
+        private long bestPrice = Long.MAX_VALUE;
+        private int meetingVertex = -1;
+
+        private Search(final GraphIndex<V> index, final int splitVertex) {
+            this.index = index;
+            this.splitVertex = splitVertex;
+            this.forward = SearchScratch.acquire(index.getVertexCount(), 0);
+            this.backward = SearchScratch.acquire(index.getVertexCount(), 0);
+        }
+
+        private void release() {
+            forward.release();
+            backward.release();
+        }
+
+        private void run() {
+            while (true) {
+                final long forwardKey = peekKey(forward);
+                final long backwardKey = peekKey(backward);
+                /* Stopping criterion: no connection through an unsettled vertex can be cheaper. */
+                if (forwardKey == Long.MAX_VALUE || backwardKey == Long.MAX_VALUE
+                        || forwardKey + backwardKey >= bestPrice) {
+                    return;
+                }
+                if (forwardKey <= backwardKey) {
+                    final int vertex = forward.getHeap().peekVertex();
+                    forward.getHeap().remove();
+                    forward.settle(vertex);
+                    relaxOutEdges(vertex, forwardKey);
+                } else {
+                    final int vertex = backward.getHeap().peekVertex();
+                    backward.getHeap().remove();
+                    backward.settle(vertex);
+                    relaxInEdges(vertex, backwardKey);
+                }
+            }
+        }
+
+        /* Smallest key of the heap after dropping stale entries, or Long.MAX_VALUE if it is empty. */
+        private long peekKey(final SearchScratch scratch) {
+            final VertexHeap heap = scratch.getHeap();
+            while (!heap.isEmpty()) {
+                final int vertex = heap.peekVertex();
+                if (!scratch.isSettled(vertex) && heap.peekKey() == scratch.getDistance(vertex)) {
+                    return heap.peekKey();
+                }
+                heap.remove();
+            }
+            return Long.MAX_VALUE;
+        }
+
+        private void relaxOutEdges(final int vertex, final long vertexDistance) {
+            for (int edge = index.getEdgeStart(vertex); edge < index.getEdgeEnd(vertex); edge++) {
+                relax(forward, backward, vertex, index.getEdgeTarget(edge), vertexDistance + index.getEdgePrice(edge));
+            }
+        }
+
+        private void relaxInEdges(final int vertex, final long vertexDistance) {
+            for (int edge = index.getInEdgeStart(vertex); edge < index.getInEdgeEnd(vertex); edge++) {
+                relax(backward, forward, vertex, index.getInEdgeSource(edge), vertexDistance + index.getInEdgePrice(edge));
+            }
+        }
+
+        private void relax(final SearchScratch search, final SearchScratch opposite, final int vertex,
+                           final int neighbor, final long distance) {
+            if (neighbor == splitVertex || search.isSettled(neighbor) || search.getDistance(neighbor) <= distance) {
+                return;
+            }
+            search.setDistance(neighbor, distance, vertex);
+            search.getHeap().add(neighbor, distance);
+
+            /* The neighbor was reached from both sides. */
+            final long oppositeDistance = opposite.getDistance(neighbor);
+            if (oppositeDistance != Long.MAX_VALUE && distance + oppositeDistance < bestPrice) {
+                bestPrice = distance + oppositeDistance;
+                meetingVertex = neighbor;
+            }
+        }
+
+        private List<V> createPath(final int source, final int target) {
+            if (meetingVertex == -1) {
+                return null;
+            }
+            final LinkedList<V> path = new LinkedList<V>();
+            if (meetingVertex == splitVertex) {
+                /* Self loop of the split vertex. */
+                path.add(index.getVertex(source));
+                path.add(index.getVertex(target));
+                return path;
+            }
+
+            /* Going backwards from the meeting vertex to the source, and forwards to the target. */
+            int vertex = meetingVertex;
+            path.addFirst(index.getVertex(vertex));
+            while (vertex != source) {
+                vertex = forward.getPredecessor(vertex);
+                path.addFirst(index.getVertex(vertex));
+            }
+            vertex = meetingVertex;
+            while (vertex != target) {
+                vertex = backward.getPredecessor(vertex);
+                path.addLast(index.getVertex(vertex));
+            }
+            return path;
+        }
+    }
+}
@@ -0,0 +1,401 @@
+package com.adidas.flitetrakr.solver.algo;
+
+import com.adidas.flitetrakr.graph.GraphIndex;
+import com.adidas.flitetrakr.graph.SimpleGraph;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Immutable index of the strongly connected components (SCC) of a graph.
+ * <p>
+ * The components are found with an iterative version of Tarjan's algorithm,
+ * which numbers them in reverse topological order: every edge between two
+ * components leads to a component with a smaller id. The condensation DAG,
+ * with one vertex per component and one edge per pair of connected
+ * components, is stored in compressed sparse row (CSR) format. From it the
+ * set of reachable components is calculated for every component as a bitset,
+ * as long as the bitsets fit into {@link #REACHABILITY_MEMORY_LIMIT}; for
+ * larger graphs the reachability is answered by a search in the condensation.
+ * <p>
+ * A connection from one vertex to another exists if the component of the
+ * destination is reachable from the component of the source, which lets the
+ * solvers answer negative questions without searching the graph. Every cycle
+ * lies within a single component, so cycle searches don't need to leave it.
+ * <p>
+ * Like the {@link GraphIndex}, the index is cached per graph and rebuilt when
+ * the version of the graph changes, and the most recently returned index is
+ * checked without a lock.
+ *
+ * @param <V> The vertex type.
+ * @author Bogdan Zafirov
+ */
+public final class ComponentIndex<V> {
+
+    /**
+     * Maximal memory of the reachability bitsets, 64 MiB.
+     */
+    public static final long REACHABILITY_MEMORY_LIMIT = 64L << 20;
+
+    /* Indexes per graph, the graphs are compared by identity. */
+    private static final Map<SimpleGraph<?, ?>, ComponentIndex<?>> INDEXES = new WeakHashMap<>();
+    /* The most recently returned index. */
+    private static volatile ComponentIndex<?> latest;
+
+    private final GraphIndex<V> graphIndex;
+    private final int componentCount;
+    private final int[] vertexComponents;
+    private final boolean[] cyclic;
+    /* Condensation DAG in CSR format. */
+    private final int[] successorOffsets;
+    private final int[] successors;
+    /* Reachable components per component, null if they exceed the memory limit. */
+    private final long[][] reachable;
+
+    private ComponentIndex(final GraphIndex<V> graphIndex) {
+        this.graphIndex = graphIndex;
+        final int vertexCount = graphIndex.getVertexCount();
+        vertexComponents = new int[vertexCount];
+        componentCount = findComponents();
+
+        cyclic = new boolean[componentCount];
+        final int[] sizes = new int[componentCount];
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            sizes[vertexComponents[vertex]]++;
+        }
+        for (int component = 0; component < componentCount; component++) {
+            cyclic[component] = sizes[component] > 1;
+        }
+
+        /* Grouping the vertices by component, to collect the distinct successors of each component. */
+        final int[] vertexOffsets = new int[componentCount + 1];
+        for (int component = 0; component < componentCount; component++) {
+            vertexOffsets[component + 1] = vertexOffsets[component] + sizes[component];
+        }
+        final int[] componentVertices = new int[vertexCount];
+        final int[] fill = Arrays.copyOf(vertexOffsets, componentCount);
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            componentVertices[fill[vertexComponents[vertex]]++] = vertex;
+        }
+
+        successorOffsets = new int[componentCount + 1];
+        int[] targets = new int[Math.max(16, componentCount)];
+        int size = 0;
+        final int[] lastSeen = new int[componentCount];
+        Arrays.fill(lastSeen, -1);
+        for (int component = 0; component < componentCount; component++) {
+            for (int i = vertexOffsets[component]; i < vertexOffsets[component + 1]; i++) {
+                final int vertex = componentVertices[i];
+                for (int edge = graphIndex.getEdgeStart(vertex); edge < graphIndex.getEdgeEnd(vertex); edge++) {
+                    final int target = vertexComponents[graphIndex.getEdgeTarget(edge)];
+                    if (target == component) {
+                        /* Only a self loop makes a single vertex cyclic. */
+                        cyclic[component] |= graphIndex.getEdgeTarget(edge) == vertex;
+                    } else if (lastSeen[target] != component) {
+                        lastSeen[target] = component;
+                        if (size == targets.length) {
+                            targets = Arrays.copyOf(targets, size * 2);
+                        }
+                        targets[size++] = target;
+                    }
+                }
+            }
+            successorOffsets[component + 1] = size;
+        }
+        successors = Arrays.copyOf(targets, size);
+        reachable = (estimateReachabilityMemory(componentCount) <= REACHABILITY_MEMORY_LIMIT) ? buildReachability() : null;
+    }
+
+    /**
+     * Returns the component index of the current version of the graph.
+     *
+     * @param graph The graph.
+     * @param <V> The vertex type.
+     * @param <E> The edge payload type.
+     * @return The component index of the graph.
+     * @throws IllegalArgumentException Thrown if the graph is null.
+     */
+    @SuppressWarnings("unchecked")
+    public static <V, E extends Number> ComponentIndex<V> of(final SimpleGraph<V, E> graph) {
+        final GraphIndex<V> graphIndex = GraphIndex.of(graph);
+        /* A snapshot belongs to a single graph and version, so it identifies the index. */
+        final ComponentIndex<?> last = latest;
+        if (last != null && last.graphIndex == graphIndex) {
+            return (ComponentIndex<V>) last;
+        }
+        synchronized (INDEXES) {
+            ComponentIndex<V> index = (ComponentIndex<V>) INDEXES.get(graph);
+            if (index == null || index.graphIndex != graphIndex) {
+                index = new ComponentIndex<>(graphIndex);
+                INDEXES.put(graph, index);
+            }
+            latest = index;
+            return index;
+        }
+    }
+
+    /**
+     * Estimates the memory of the reachability bitsets.
+     *
+     * @param componentCount The number of components.
+     * @return The estimated memory in bytes.
+     */
+    public static long estimateReachabilityMemory(final int componentCount) {
+        return (long) componentCount * (((componentCount + 63) >>> 6) * 8L + 16);
+    }
+
+    /**
+     * Returns the int-indexed snapshot of the graph the components belong to.
+     *
+     * @return The graph index.
+     */
+    public GraphIndex<V> getGraphIndex() {
+        return graphIndex;
+    }
+
+    /**
+     * Returns the number of components.
+     *
+     * @return The number of components.
+     */
+    public int getComponentCount() {
+        return componentCount;
+    }
+
+    /**
+     * Returns the component of the vertex.
+     *
+     * @param vertex The vertex.
+     * @return The component id, or -1 if the vertex is not part of the graph.
+     */
+    public int getComponent(final V vertex) {
+        final int id = graphIndex.getVertexId(vertex);
+        return (id == -1) ? -1 : vertexComponents[id];
+    }
+
+    /**
+     * Returns the component of the vertex with the id of the {@link GraphIndex}.
+     *
+     * @param vertexId The vertex id.
+     * @return The component id.
+     */
+    public int getVertexComponent(final int vertexId) {
+        return vertexComponents[vertexId];
+    }
+
+    /**
+     * Checks if the component contains a cycle, i.e. it has more than one
+     * vertex or its single vertex has a self loop.
+     *
+     * @param component The component id.
+     * @return True if the component is cyclic.
+     */
+    public boolean isCyclic(final int component) {
+        return cyclic[component];
+    }
+
+    /**
+     * Returns the position of the first successor of the component in the condensation DAG.
+     *
+     * @param component The component id.
+     * @return The position of the first successor.
+     */
+    public int getSuccessorStart(final int component) {
+        return successorOffsets[component];
+    }
+
+    /**
+     * Returns the position after the last successor of the component in the condensation DAG.
+     *
+     * @param component The component id.
+     * @return The position after the last successor.
+     */
+    public int getSuccessorEnd(final int component) {
+        return successorOffsets[component + 1];
+    }
+
+    /**
+     * Returns the successor component at the position, which is smaller than its predecessors.
+     *
+     * @param position The position of the successor.
+     * @return The successor component id.
+     */
+    public int getSuccessor(final int position) {
+        return successors[position];
+    }
+
+    /**
+     * Checks if the target component can be reached from the source component.
+     * Every component can reach itself.
+     *
+     * @param source The source component id.
+     * @param target The target component id.
+     * @return True if the target component is reachable.
+     */
+    public boolean isReachable(final int source, final int target) {
+        if (source == target) {
+            return true;
+        }
+        /* Edges only lead to smaller components. */
+        if (target > source) {
+            return false;
+        }
+        if (reachable != null) {
+            return (reachable[source][target >>> 6] & (1L << target)) != 0;
+        }
+        return searchReachable(source, target);
+    }
+
+    /**
+     * Checks if a connection with at least one edge from the source to the
+     * destination vertex exists. For the same vertex this is a cycle through it.
+     *
+     * @param source The source vertex.
+     * @param destination The destination vertex.
+     * @return True if a connection exists, false if it doesn't or a vertex is not part of the graph.
+     */
+    public boolean hasConnection(final V source, final V destination) {
+        final int sourceId = graphIndex.getVertexId(source);
+        final int destinationId = graphIndex.getVertexId(destination);
+        if (sourceId == -1 || destinationId == -1) {
+            return false;
+        }
+        final int sourceComponent = vertexComponents[sourceId];
+        if (sourceId == destinationId) {
+            return cyclic[sourceComponent];
+        }
+        return isReachable(sourceComponent, vertexComponents[destinationId]);
+    }
+
+    /**
+     * Checks if a cycle lies on a connection from the source to the destination
+     * vertex. Such a cycle can be repeated any number of times, therefore there
+     * are infinitely many connections between the vertices.
+     *
+     * @param source The source vertex.
+     * @param destination The destination vertex.
+     * @return True if a cycle lies on a connection, false if it doesn't or there is no connection.
+     */
+    public boolean hasCycleOnConnection(final V source, final V destination) {
+        if (!hasConnection(source, destination)) {
+            return false;
+        }
+        final int sourceComponent = getComponent(source);
+        final int destinationComponent = getComponent(destination);
+        /* The components on a connection lie between the destination and the source component. */
+        for (int component = destinationComponent; component <= sourceComponent; component++) {
+            if (cyclic[component] && isReachable(sourceComponent, component)
+                    && isReachable(component, destinationComponent)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /* Iterative Tarjan's algorithm, returns the number of components. */
+    private int findComponents() {
+        final int vertexCount = graphIndex.getVertexCount();
+        /* Discovery order (0 = not yet discovered) and the smallest reachable discovery order on the stack. */
+        final int[] order = new int[vertexCount];
+        final int[] lowLinks = new int[vertexCount];
+        final int[] nextEdges = new int[vertexCount];
+        final int[] callStack = new int[vertexCount];
+        final int[] componentStack = new int[vertexCount];
+        final boolean[] onStack = new boolean[vertexCount];
+        int counter = 0;
+        int components = 0;
+        int componentSize = 0;
+
+        for (int root = 0; root < vertexCount; root++) {
+            if (order[root] != 0) {
+                continue;
+            }
+            int depth = 0;
+            callStack[0] = root;
+            order[root] = lowLinks[root] = ++counter;
+            nextEdges[root] = graphIndex.getEdgeStart(root);
+            componentStack[componentSize++] = root;
+            onStack[root] = true;
+
+            while (depth >= 0) {
+                final int vertex = callStack[depth];
+                if (nextEdges[vertex] < graphIndex.getEdgeEnd(vertex)) {
+                    final int target = graphIndex.getEdgeTarget(nextEdges[vertex]++);
+                    if (order[target] == 0) {
+                        order[target] = lowLinks[target] = ++counter;
+                        nextEdges[target] = graphIndex.getEdgeStart(target);
+                        componentStack[componentSize++] = target;
+                        onStack[target] = true;
+                        callStack[++depth] = target;
+                    } else if (onStack[target]) {
+                        lowLinks[vertex] = Math.min(lowLinks[vertex], order[target]);
+                    }
+                    continue;
+                }
+
+                /* All edges of the vertex are explored, it is the root of a component or reports to its parent. */
+                if (lowLinks[vertex] == order[vertex]) {
+                    int member;
+                    do {
+                        member = componentStack[--componentSize];
+                        onStack[member] = false;
+                        vertexComponents[member] = components;
+                    } while (member != vertex);
+                    components++;
+                }
+                depth--;
+                if (depth >= 0) {
+                    final int parent = callStack[depth];
+                    lowLinks[parent] = Math.min(lowLinks[parent], lowLinks[vertex]);
+                }
+            }
+        }
+        return components;
+    }
+
+    /* The successors have smaller ids, so their bitsets are complete before they are merged. */
+    private long[][] buildReachability() {
+        final int words = (componentCount + 63) >>> 6;
+        final long[][] bitsets = new long[componentCount][];
+        for (int component = 0; component < componentCount; component++) {
+            final long[] bitset = new long[words];
+            bitset[component >>> 6] |= 1L << component;
+            for (int i = successorOffsets[component]; i < successorOffsets[component + 1]; i++) {
+                final long[] successorBitset = bitsets[successors[i]];
+                for (int word = 0; word <= (successors[i] >>> 6); word++) {
+                    bitset[word] |= successorBitset[word];
+                }
+            }
+            bitsets[component] = bitset;
+        }
+        return bitsets;
+    }
+
+    /* Depth-first search in the condensation, which skips the components smaller than the target. */
+    private boolean searchReachable(final int source, final int target) {
+        final SearchScratch scratch = SearchScratch.acquire(componentCount, 0);
+        try {
+            final int[] stack = scratch.getStack();
+            int size = 0;
+            stack[size++] = source;
+            scratch.settle(source);
+            while (size > 0) {
+                final int component = stack[--size];
+                for (int i = successorOffsets[component]; i < successorOffsets[component + 1]; i++) {
+                    final int successor = successors[i];
+                    if (successor == target) {
+                        return true;
+                    }
+                    if (successor > target && !scratch.isSettled(successor)) {
+                        scratch.settle(successor);
+                        stack[size++] = successor;
+                    }
+                }
+            }
+            return false;
+        } finally {
+            scratch.release();
+        }
+    }
+}
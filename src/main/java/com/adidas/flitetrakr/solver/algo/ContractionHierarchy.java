@@ -0,0 +1,524 @@
+package com.adidas.flitetrakr.solver.algo;
+
+import com.adidas.flitetrakr.graph.GraphIndex;
+import com.adidas.flitetrakr.graph.SimpleGraph;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Contraction hierarchy of a graph, used by the {@link ContractionHierarchyEngine}.
+ * <p>
+ * The vertices are contracted one after another, in the order of their
+ * priority: the edge difference (shortcuts added minus edges removed),
+ * weighted by four, plus twice the number of contracted neighbors, plus the
+ * level of the vertex in the hierarchy. The priorities are updated lazily, a
+ * vertex is only contracted if its recomputed priority is still the smallest.
+ * Contracting a vertex {@code v} removes it from the remaining graph; for
+ * every pair of remaining neighbors {@code u -> v -> w} a shortcut
+ * {@code u -> w} is added, unless a local witness search finds a path from
+ * {@code u} to {@code w} avoiding {@code v} which isn't more expensive. Cycles {@code u -> v -> u} are preserved as self
+ * loop shortcuts, such that cheapest cycles can be found as well. The rank of
+ * a vertex is its position in the contraction order.
+ * <p>
+ * Every shortcut remembers the two edges it replaces and can be unpacked into
+ * the original path. After the contraction, the edges (original and shortcuts)
+ * are split into upward edges, leading to a higher ranked vertex, and downward
+ * edges, which are stored at their target for the backward search.
+ *
+ * @param <V> The vertex type.
+ * @author Bogdan Zafirov
+ */
+public final class ContractionHierarchy<V> {
+
+    /* Maximal number of vertices settled by a witness search, smaller when only the priority is computed. */
+    private static final int WITNESS_SETTLE_LIMIT = 500;
+    private static final int PRIORITY_SETTLE_LIMIT = 20;
+
+    private final GraphIndex<V> index;
+    private final int[] ranks;
+
+    /* All edges; a shortcut refers to the two edges it replaces, an original edge has -1. */
+    private final int[] edgeSources;
+    private final int[] edgeTargets;
+    private final long[] edgePrices;
+    private final int[] edgeFirst;
+    private final int[] edgeSecond;
+    private final int shortcutCount;
+
+    /* Upward edges per source and downward edges per target in CSR format, and the cheapest self loops. */
+    private final int[] upOffsets;
+    private final int[] upEdges;
+    private final int[] downOffsets;
+    private final int[] downEdges;
+    private final int[] selfLoops;
+
+    private ContractionHierarchy(final GraphIndex<V> index, final Contraction contraction) {
+        this.index = index;
+        this.ranks = contraction.ranks;
+        this.edgeSources = Arrays.copyOf(contraction.sources, contraction.edgeCount);
+        this.edgeTargets = Arrays.copyOf(contraction.targets, contraction.edgeCount);
+        this.edgePrices = Arrays.copyOf(contraction.prices, contraction.edgeCount);
+        this.edgeFirst = Arrays.copyOf(contraction.first, contraction.edgeCount);
+        this.edgeSecond = Arrays.copyOf(contraction.second, contraction.edgeCount);
+        this.shortcutCount = contraction.shortcutCount;
+
+        final int vertexCount = index.getVertexCount();
+        selfLoops = new int[vertexCount];
+        Arrays.fill(selfLoops, -1);
+        upOffsets = new int[vertexCount + 1];
+        downOffsets = new int[vertexCount + 1];
+        for (int edge = 0; edge < edgeSources.length; edge++) {
+            if (contraction.replaced[edge]) {
+                continue;
+            }
+            final int source = edgeSources[edge], target = edgeTargets[edge];
+            if (source == target) {
+                if (selfLoops[source] == -1 || edgePrices[edge] < edgePrices[selfLoops[source]]) {
+                    selfLoops[source] = edge;
+                }
+            } else if (ranks[source] < ranks[target]) {
+                upOffsets[source + 1]++;
+            } else {
+                downOffsets[target + 1]++;
+            }
+        }
+        for (int v = 0; v < vertexCount; v++) {
+            upOffsets[v + 1] += upOffsets[v];
+            downOffsets[v + 1] += downOffsets[v];
+        }
+        upEdges = new int[upOffsets[vertexCount]];
+        downEdges = new int[downOffsets[vertexCount]];
+        final int[] upPosition = Arrays.copyOf(upOffsets, vertexCount);
+        final int[] downPosition = Arrays.copyOf(downOffsets, vertexCount);
+        for (int edge = 0; edge < edgeSources.length; edge++) {
+            final int source = edgeSources[edge], target = edgeTargets[edge];
+            if (contraction.replaced[edge] || source == target) {
+                continue;
+            }
+            if (ranks[source] < ranks[target]) {
+                upEdges[upPosition[source]++] = edge;
+            } else {
+                downEdges[downPosition[target]++] = edge;
+            }
+        }
+    }
+
+    /**
+     * Contracts all vertices of the current version of the graph.
+     *
+     * @param graph The graph. The edge prices must not be negative.
+     * @param <V> The vertex type.
+     * @param <E> The edge payload type.
+     * @return The contraction hierarchy.
+     * @throws IllegalArgumentException Thrown if the graph is null or has negative edge prices.
+     */
+    public static <V, E extends Number> ContractionHierarchy<V> build(final SimpleGraph<V, E> graph) {
+        if (graph == null) {
+            throw new IllegalArgumentException("The graph can't be null.");
+        }
+        final GraphIndex<V> index = GraphIndex.of(graph);
+        final Contraction contraction = new Contraction(index);
+        contraction.contractAll();
+        return new ContractionHierarchy<>(index, contraction);
+    }
+
+    /**
+     * Returns the version of the graph this hierarchy was built for.
+     *
+     * @return The graph version.
+     */
+    public long getGraphVersion() {
+        return index.getGraphVersion();
+    }
+
+    /**
+     * Returns the number of shortcuts added during the contraction.
+     *
+     * @return The number of shortcuts.
+     */
+    public int getShortcutCount() {
+        return shortcutCount;
+    }
+
+    /**
+     * Returns the rank of the vertex, its position in the contraction order.
+     *
+     * @param vertex The vertex id.
+     * @return The rank.
+     */
+    public int getRank(final int vertex) {
+        return ranks[vertex];
+    }
+
+    GraphIndex<V> getIndex() {
+        return index;
+    }
+
+    int getUpStart(final int vertex) {
+        return upOffsets[vertex];
+    }
+
+    int getUpEnd(final int vertex) {
+        return upOffsets[vertex + 1];
+    }
+
+    int getUpEdge(final int position) {
+        return upEdges[position];
+    }
+
+    int getDownStart(final int vertex) {
+        return downOffsets[vertex];
+    }
+
+    int getDownEnd(final int vertex) {
+        return downOffsets[vertex + 1];
+    }
+
+    int getDownEdge(final int position) {
+        return downEdges[position];
+    }
+
+    int getSelfLoop(final int vertex) {
+        return selfLoops[vertex];
+    }
+
+    int getEdgeSource(final int edge) {
+        return edgeSources[edge];
+    }
+
+    int getEdgeTarget(final int edge) {
+        return edgeTargets[edge];
+    }
+
+    long getEdgePrice(final int edge) {
+        return edgePrices[edge];
+    }
+
+    /**
+     * Appends the vertices of the (unpacked) edge to the path, without its source.
+     *
+     * @param edge The edge.
+     * @param path The path, ending with the source of the edge.
+     */
+    void unpackEdge(final int edge, final List<V> path) {
+        int[] stack = new int[16];
+        int size = 0;
+        stack[size++] = edge;
+        while (size > 0) {
+            final int current = stack[--size];
+            if (edgeFirst[current] == -1) {
+                path.add(index.getVertex(edgeTargets[current]));
+                continue;
+            }
+            if (size + 2 > stack.length) {
+                stack = Arrays.copyOf(stack, stack.length * 2);
+            }
+            /* The first edge is unpacked first. */
+            stack[size++] = edgeSecond[current];
+            stack[size++] = edgeFirst[current];
+        }
+    }
+
+    /**
+     * The mutable state of the contraction: the remaining graph with its
+     * adjacency lists, which include shortcuts, and the contraction order.
+     */
+    private static final class Contraction {
+        private final int vertexCount;
+
+        private int[] sources = new int[16];
+        private int[] targets = new int[16];
+        private long[] prices = new long[16];
+        private int[] first = new int[16];
+        private int[] second = new int[16];
+        /* Edges replaced by a cheaper shortcut between the same vertices. */
+        private boolean[] replaced = new boolean[16];
+        private int edgeCount;
+        private int shortcutCount;
+
+        /* Edge ids per vertex. */
+        private final int[][] outEdges;
+        private final int[] outSizes;
+        private final int[][] inEdges;
+        private final int[] inSizes;
+
+        private final boolean[] contracted;
+        private final int[] contractedNeighbors;
+        /* Upper bound of the number of hierarchy levels below the vertex. */
+        private final int[] levels;
+        private final int[] ranks;
+
+        /* The targets of the current witness search are stamped with the current stamp. */
+        private final int[] targetStamps;
+        private int targetStamp;
+
+        private Contraction(final GraphIndex<?> index) {
+            this.vertexCount = index.getVertexCount();
+            outEdges = new int[vertexCount][];
+            inEdges = new int[vertexCount][];
+            outSizes = new int[vertexCount];
+            inSizes = new int[vertexCount];
+            contracted = new boolean[vertexCount];
+            contractedNeighbors = new int[vertexCount];
+            levels = new int[vertexCount];
+            targetStamps = new int[vertexCount];
+            ranks = new int[vertexCount];
+            for (int v = 0; v < vertexCount; v++) {
+                outEdges[v] = new int[Math.max(2, index.getEdgeEnd(v) - index.getEdgeStart(v))];
+                inEdges[v] = new int[Math.max(2, index.getInEdgeEnd(v) - index.getInEdgeStart(v))];
+            }
+            for (int v = 0; v < vertexCount; v++) {
+                for (int edge = index.getEdgeStart(v); edge < index.getEdgeEnd(v); edge++) {
+                    if (index.getEdgePrice(edge) < 0) {
+                        throw new IllegalArgumentException("The edge prices can't be negative.");
+                    }
+                    addEdge(v, index.getEdgeTarget(edge), index.getEdgePrice(edge), -1, -1);
+                }
+            }
+        }
+
+        private void contractAll() {
+            final int[] priorities = new int[vertexCount];
+            final VertexHeap queue = new VertexHeap();
+            for (int v = 0; v < vertexCount; v++) {
+                priorities[v] = priority(v);
+                queue.add(v, priorities[v]);
+            }
+
+            int rank = 0;
+            final int[] neighborStamps = new int[vertexCount];
+            while (!queue.isEmpty()) {
+                final int vertex = queue.peekVertex();
+                final long key = queue.peekKey();
+                queue.remove();
+                if (contracted[vertex] || key != priorities[vertex]) {
+                    continue;
+                }
+                /* Lazy update: the priority may have grown since it was computed. */
+                final int priority = priority(vertex);
+                if (priority > key && !queue.isEmpty() && priority > queue.peekKey()) {
+                    priorities[vertex] = priority;
+                    queue.add(vertex, priority);
+                    continue;
+                }
+
+                processVertex(vertex, true);
+                contracted[vertex] = true;
+                ranks[vertex] = rank++;
+
+                /* Updating the remaining neighbors, each of them once. */
+                for (int i = 0; i < outSizes[vertex] + inSizes[vertex]; i++) {
+                    final int neighbor = (i < outSizes[vertex])
+                            ? targets[outEdges[vertex][i]] : sources[inEdges[vertex][i - outSizes[vertex]]];
+                    if (!contracted[neighbor] && neighborStamps[neighbor] != rank) {
+                        neighborStamps[neighbor] = rank;
+                        contractedNeighbors[neighbor]++;
+                        levels[neighbor] = Math.max(levels[neighbor], levels[vertex] + 1);
+                        compact(neighbor);
+                    }
+                }
+            }
+        }
+
+        private int priority(final int vertex) {
+            int removedEdges = 0;
+            for (int i = 0; i < outSizes[vertex]; i++) {
+                removedEdges += isRemaining(outEdges[vertex][i], targets) ? 1 : 0;
+            }
+            for (int i = 0; i < inSizes[vertex]; i++) {
+                removedEdges += isRemaining(inEdges[vertex][i], sources) ? 1 : 0;
+            }
+            return 4 * (processVertex(vertex, false) - removedEdges) + 2 * contractedNeighbors[vertex] + levels[vertex];
+        }
+
+        private boolean isRemaining(final int edge, final int[] ends) {
+            return !replaced[edge] && !contracted[ends[edge]];
+        }
+
+        /* Removes replaced edges and edges to contracted vertices from the adjacency lists. */
+        private void compact(final int vertex) {
+            int size = 0;
+            for (int i = 0; i < outSizes[vertex]; i++) {
+                if (isRemaining(outEdges[vertex][i], targets)) {
+                    outEdges[vertex][size++] = outEdges[vertex][i];
+                }
+            }
+            outSizes[vertex] = size;
+            size = 0;
+            for (int i = 0; i < inSizes[vertex]; i++) {
+                if (isRemaining(inEdges[vertex][i], sources)) {
+                    inEdges[vertex][size++] = inEdges[vertex][i];
+                }
+            }
+            inSizes[vertex] = size;
+        }
+
+        /*
+         * Counts (and adds, if requested) the shortcuts needed for contracting the vertex.
+         */
+        private int processVertex(final int vertex, final boolean addShortcuts) {
+            long maxOutPrice = -1;
+            for (int j = 0; j < outSizes[vertex]; j++) {
+                final int outEdge = outEdges[vertex][j];
+                if (isRemaining(outEdge, targets) && targets[outEdge] != vertex) {
+                    maxOutPrice = Math.max(maxOutPrice, prices[outEdge]);
+                }
+            }
+            if (maxOutPrice == -1) {
+                return 0;
+            }
+
+            int shortcuts = 0;
+            /* The lists may grow while shortcuts are added, so the sizes are fixed first. */
+            final int inSize = inSizes[vertex];
+            final int outSize = outSizes[vertex];
+            for (int i = 0; i < inSize; i++) {
+                final int inEdge = inEdges[vertex][i];
+                final int source = sources[inEdge];
+                if (!isRemaining(inEdge, sources) || source == vertex) {
+                    continue;
+                }
+
+                targetStamp++;
+                int targetCount = 0;
+                for (int j = 0; j < outSize; j++) {
+                    final int outEdge = outEdges[vertex][j];
+                    final int target = targets[outEdge];
+                    if (isRemaining(outEdge, targets) && target != vertex && target != source
+                            && targetStamps[target] != targetStamp) {
+                        targetStamps[target] = targetStamp;
+                        targetCount++;
+                    }
+                }
+
+                final SearchScratch witnesses = SearchScratch.acquire(vertexCount, 0);
+                try {
+                    if (targetCount > 0) {
+                        findWitnesses(witnesses, source, vertex, prices[inEdge] + maxOutPrice, targetCount,
+                                addShortcuts ? WITNESS_SETTLE_LIMIT : PRIORITY_SETTLE_LIMIT);
+                    }
+                    for (int j = 0; j < outSize; j++) {
+                        final int outEdge = outEdges[vertex][j];
+                        final int target = targets[outEdge];
+                        if (!isRemaining(outEdge, targets) || target == vertex) {
+                            continue;
+                        }
+                        final long price = prices[inEdge] + prices[outEdge];
+                        /* Cycles through the vertex become self loops, without a witness search. */
+                        final long witnessPrice = (target == source)
+                                ? priceOf(findEdge(source, source)) : witnesses.getDistance(target);
+                        if (witnessPrice <= price) {
+                            continue;
+                        }
+                        /* Self loops don't increase the search space, they aren't counted. */
+                        shortcuts += (target == source) ? 0 : 1;
+                        if (addShortcuts) {
+                            addShortcut(source, target, price, inEdge, outEdge);
+                        }
+                    }
+                } finally {
+                    witnesses.release();
+                }
+            }
+            return shortcuts;
+        }
+
+        /*
+         * Local dijkstra search from the source, avoiding the excluded vertex, up to the price limit,
+         * until all stamped targets are settled.
+         */
+        private void findWitnesses(final SearchScratch scratch, final int source, final int excluded, final long limit,
+                                   final int targetCount, final int settleLimit) {
+            final VertexHeap heap = scratch.getHeap();
+            scratch.setDistance(source, 0, -1);
+            heap.add(source, 0);
+            int settled = 0;
+            int remainingTargets = targetCount;
+            while (!heap.isEmpty() && settled < settleLimit && remainingTargets > 0) {
+                final int vertex = heap.peekVertex();
+                final long price = heap.peekKey();
+                heap.remove();
+                if (scratch.isSettled(vertex)) {
+                    continue;
+                }
+                if (price > limit) {
+                    break;
+                }
+                scratch.settle(vertex);
+                settled++;
+                if (targetStamps[vertex] == targetStamp) {
+                    remainingTargets--;
+                }
+                for (int i = 0; i < outSizes[vertex]; i++) {
+                    final int edge = outEdges[vertex][i];
+                    final int target = targets[edge];
+                    if (!isRemaining(edge, targets) || target == excluded) {
+                        continue;
+                    }
+                    final long targetPrice = price + prices[edge];
+                    if (targetPrice <= limit && targetPrice < scratch.getDistance(target)) {
+                        scratch.setDistance(target, targetPrice, vertex);
+                        heap.add(target, targetPrice);
+                    }
+                }
+            }
+        }
+
+        private long priceOf(final int edge) {
+            return (edge == -1) ? Long.MAX_VALUE : prices[edge];
+        }
+
+        private int findEdge(final int source, final int target) {
+            for (int i = 0; i < outSizes[source]; i++) {
+                final int edge = outEdges[source][i];
+                if (targets[edge] == target && !replaced[edge]) {
+                    return edge;
+                }
+            }
+            return -1;
+        }
+
+        private void addShortcut(final int source, final int target, final long price, final int firstEdge,
+                                 final int secondEdge) {
+            /* Only the cheapest edge between two vertices is kept. */
+            final int existing = findEdge(source, target);
+            if (existing != -1) {
+                if (prices[existing] <= price) {
+                    return;
+                }
+                replaced[existing] = true;
+            }
+            addEdge(source, target, price, firstEdge, secondEdge);
+            shortcutCount++;
+        }
+
+        private void addEdge(final int source, final int target, final long price, final int firstEdge,
+                             final int secondEdge) {
+            if (edgeCount == sources.length) {
+                final int capacity = edgeCount * 2;
+                sources = Arrays.copyOf(sources, capacity);
+                targets = Arrays.copyOf(targets, capacity);
+                prices = Arrays.copyOf(prices, capacity);
+                first = Arrays.copyOf(first, capacity);
+                second = Arrays.copyOf(second, capacity);
+                replaced = Arrays.copyOf(replaced, capacity);
+            }
+            sources[edgeCount] = source;
+            targets[edgeCount] = target;
+            prices[edgeCount] = price;
+            first[edgeCount] = firstEdge;
+            second[edgeCount] = secondEdge;
+
+            if (outSizes[source] == outEdges[source].length) {
+                outEdges[source] = Arrays.copyOf(outEdges[source], outSizes[source] * 2);
+            }
+            outEdges[source][outSizes[source]++] = edgeCount;
+            if (inSizes[target] == inEdges[target].length) {
+                inEdges[target] = Arrays.copyOf(inEdges[target], inSizes[target] * 2);
+            }
+            inEdges[target][inSizes[target]++] = edgeCount;
+            edgeCount++;
+        }
+    }
+}
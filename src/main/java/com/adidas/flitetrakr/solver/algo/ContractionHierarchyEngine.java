@@ -0,0 +1,243 @@
+package com.adidas.flitetrakr.solver.algo;
+
+import com.adidas.flitetrakr.graph.GraphIndex;
+import com.adidas.flitetrakr.graph.SimpleGraph;
+
+import java.util.*;
+
+/**
+ * Query engine for cheapest paths and cycles on a {@link ContractionHierarchy}.
+ * <p>
+ * A forward search from the source over the upward edges and a backward
+ * search from the target over the downward edges run alternately; both only
+ * climb the hierarchy and settle a few hundred vertices even on large graphs.
+ * A vertex settled by one search and reached by the other is a candidate for
+ * the highest vertex of the cheapest path. The search stops as soon as the
+ * smallest tentative distances of both searches are not smaller than the
+ * cheapest candidate. Finally the shortcuts on the path are unpacked, such
+ * that the path consists of the original edges of the graph.
+ * <p>
+ * The predecessors of the searches are the edges a vertex was reached over,
+ * not the previous vertices. If the graph changed since the hierarchy was
+ * built, the engine falls back to a plain dijkstra search. Like the other
+ * engines, this one is stateless and can answer concurrent queries.
+ *
+ * @param <V> The type vertex type.
+ * @param <E> The edge attribute type. The type must be a number (e.g. long, int, double).
+ * @author Bogdan Zafirov
+ */
+public class ContractionHierarchyEngine<V, E extends Number> implements ShortestPathEngine<V> {
+
+    private final SimpleGraph<V, E> graph;
+    private final ContractionHierarchy<V> hierarchy;
+    private final DijkstraMinimalDistance<V, E> fallback;
+
+    /**
+     * Creates the engine and contracts the graph.
+     *
+     * @param graph The input graph.
+     * @throws IllegalArgumentException Thrown if the graph is null.
+     */
+    public ContractionHierarchyEngine(final SimpleGraph<V, E> graph) {
+        this(graph, ContractionHierarchy.build(graph));
+    }
+
+    /**
+     * Creates the engine with an existing contraction hierarchy of the graph.
+     *
+     * @param graph The input graph.
+     * @param hierarchy The contraction hierarchy of the graph.
+     * @throws IllegalArgumentException Thrown if the graph or the hierarchy is null.
+     */
+    public ContractionHierarchyEngine(final SimpleGraph<V, E> graph, final ContractionHierarchy<V> hierarchy) {
+        if (graph == null || hierarchy == null) {
+            throw new IllegalArgumentException("The graph and the contraction hierarchy can't be null.");
+        }
+        this.graph = graph;
+        this.hierarchy = hierarchy;
+        this.fallback = new DijkstraMinimalDistance<>(graph);
+    }
+
+    /**
+     * Returns the contraction hierarchy.
+     *
+     * @return The contraction hierarchy.
+     */
+    public ContractionHierarchy<V> getHierarchy() {
+        return hierarchy;
+    }
+
+    @Override
+    public List<V> findPath(final V source, final V target) {
+        if (graph.getVersion() != hierarchy.getGraphVersion()) {
+            return fallback.findPath(source, target);
+        }
+        final GraphIndex<V> index = hierarchy.getIndex();
+        final int sourceId = index.getVertexId(source);
+        final int targetId = index.getVertexId(target);
+        if (sourceId == -1 || targetId == -1 || sourceId == targetId) {
+            return null;
+        }
+
+        final Search search = new Search(index.getVertexCount(), -1);
+        try {
+            search.start(sourceId, targetId);
+            search.run();
+            return search.createPath(sourceId);
+        } finally {
+            search.release();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Both searches start at the vertex. A cycle either meets at a higher
+     * vertex, or it consists of lower vertices only, which were contracted
+     * into a self loop of the vertex.
+     */
+    @Override
+    public List<V> findCycle(final V vertex) {
+        if (graph.getVersion() != hierarchy.getGraphVersion()) {
+            return fallback.findCycle(vertex);
+        }
+        final GraphIndex<V> index = hierarchy.getIndex();
+        final int vertexId = index.getVertexId(vertex);
+        if (vertexId == -1) {
+            return null;
+        }
+
+        final Search search = new Search(index.getVertexCount(), vertexId);
+        try {
+            search.start(vertexId, vertexId);
+            final int selfLoop = hierarchy.getSelfLoop(vertexId);
+            if (selfLoop != -1) {
+                search.bestPrice = hierarchy.getEdgePrice(selfLoop);
+            }
+            search.run();
+            if (search.meetingVertex == -1 && selfLoop != -1) {
+                final List<V> path = new ArrayList<V>();
+                path.add(vertex);
+                hierarchy.unpackEdge(selfLoop, path);
+                return path;
+            }
+            return search.createPath(vertexId);
+        } finally {
+            search.release();
+        }
+    }
+
+    /**
+     * State of a single query, the predecessors are edge ids.
+     */
+    private final class Search {
+        /* The start vertex of a cycle search, which can't be the meeting vertex, or -1. */
+        private final int cycleVertex;
+        private final SearchScratch forward;
+        private final SearchScratch backward;
+        /* The cheapest connection found so far. */
+        private long bestPrice = Long.MAX_VALUE;
+        private int meetingVertex = -1;
+
+        private Search(final int vertexCount, final int cycleVertex) {
+            this.cycleVertex = cycleVertex;
+            this.forward = SearchScratch.acquire(vertexCount, 0);
+            this.backward = SearchScratch.acquire(vertexCount, 0);
+        }
+
+        private void release() {
+            forward.release();
+            backward.release();
+        }
+
+        private void start(final int source, final int target) {
+            forward.setDistance(source, 0L, -1);
+            forward.getHeap().add(source, 0L);
+            backward.setDistance(target, 0L, -1);
+            backward.getHeap().add(target, 0L);
+        }
+
+        private void run() {
+            while (true) {
+                final long forwardKey = peekKey(forward);
+                final long backwardKey = peekKey(backward);
+                /* Each search stops on its own, once it can't lead to a cheaper connection. */
+                final boolean forwardDone = forwardKey >= bestPrice;
+                final boolean backwardDone = backwardKey >= bestPrice;
+                if (forwardDone && backwardDone) {
+                    return;
+                }
+                if (!forwardDone && (backwardDone || forwardKey <= backwardKey)) {
+                    settle(forward, backward, forwardKey, true);
+                } else {
+                    settle(backward, forward, backwardKey, false);
+                }
+            }
+        }
+
+        /* Smallest key of the heap after dropping stale entries, or Long.MAX_VALUE if it is empty. */
+        private long peekKey(final SearchScratch scratch) {
+            final VertexHeap heap = scratch.getHeap();
+            while (!heap.isEmpty()) {
+                final int vertex = heap.peekVertex();
+                if (!scratch.isSettled(vertex) && heap.peekKey() == scratch.getDistance(vertex)) {
+                    return heap.peekKey();
+                }
+                heap.remove();
+            }
+            return Long.MAX_VALUE;
+        }
+
+        private void settle(final SearchScratch search, final SearchScratch opposite, final long distance,
+                            final boolean upward) {
+            final int vertex = search.getHeap().peekVertex();
+            search.getHeap().remove();
+            search.settle(vertex);
+
+            /* The vertex was reached from both sides. */
+            final long oppositeDistance = opposite.getDistance(vertex);
+            if (vertex != cycleVertex && oppositeDistance != Long.MAX_VALUE
+                    && distance + oppositeDistance < bestPrice) {
+                bestPrice = distance + oppositeDistance;
+                meetingVertex = vertex;
+            }
+
+            final int start = upward ? hierarchy.getUpStart(vertex) : hierarchy.getDownStart(vertex);
+            final int end = upward ? hierarchy.getUpEnd(vertex) : hierarchy.getDownEnd(vertex);
+            for (int position = start; position < end; position++) {
+                final int edge = upward ? hierarchy.getUpEdge(position) : hierarchy.getDownEdge(position);
+                final int neighbor = upward ? hierarchy.getEdgeTarget(edge) : hierarchy.getEdgeSource(edge);
+                final long neighborDistance = distance + hierarchy.getEdgePrice(edge);
+                if (!search.isSettled(neighbor) && neighborDistance < search.getDistance(neighbor)) {
+                    search.setDistance(neighbor, neighborDistance, edge);
+                    search.getHeap().add(neighbor, neighborDistance);
+                }
+            }
+        }
+
+        private List<V> createPath(final int source) {
+            if (meetingVertex == -1) {
+                return null;
+            }
+            /* Collecting the edges from the source up to the meeting vertex, and down to the target. */
+            final Deque<Integer> edges = new ArrayDeque<Integer>();
+            int vertex = meetingVertex;
+            for (int edge = forward.getPredecessor(vertex); edge != -1; edge = forward.getPredecessor(vertex)) {
+                edges.addFirst(edge);
+                vertex = hierarchy.getEdgeSource(edge);
+            }
+            vertex = meetingVertex;
+            for (int edge = backward.getPredecessor(vertex); edge != -1; edge = backward.getPredecessor(vertex)) {
+                edges.addLast(edge);
+                vertex = hierarchy.getEdgeTarget(edge);
+            }
+
+            final List<V> path = new ArrayList<V>();
+            path.add(hierarchy.getIndex().getVertex(source));
+            for (final int edge : edges) {
+                hierarchy.unpackEdge(edge, path);
+            }
+            return path;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.adidas.flitetrakr.solver.algo;
+
+import java.util.List;
+
+/**
+ * Consumer of the cycles found by {@link TarjanSimpleCycles}, which can
+ * stop the enumeration.
+ *
+ * @param <V> The vertex type.
+ * @author Bogdan Zafirov
+ */
+@FunctionalInterface
+public interface CycleConsumer<V> {
+
+    /**
+     * Receives a cycle. The cycle belongs to the consumer and isn't modified by the enumeration.
+     *
+     * @param cycle The vertices of the cycle, starting with the start vertex, which isn't repeated at the end.
+     * @return True to continue the enumeration, false to stop it.
+     */
+    boolean accept(final List<V> cycle);
+}
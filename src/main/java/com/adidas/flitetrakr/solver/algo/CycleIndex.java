@@ -0,0 +1,83 @@
+package com.adidas.flitetrakr.solver.algo;
+
+import com.adidas.flitetrakr.graph.SimpleGraph;
+
+import java.util.*;
+
+/**
+ * Index of all simple cycles in a graph, grouped by their member vertices.
+ * <p>
+ * The cycles are enumerated once with {@link TarjanSimpleCycles} and are
+ * shared by all users of the index. Every cycle is stored once per member
+ * vertex, rotated such that it starts and ends with that vertex (for
+ * example, the cycle A-B-C is stored as B-C-A-B for the vertex B). The
+ * index is rebuilt if the version of the graph changes.
+ *
+ * @param <V> The type vertex type.
+ * @param <E> The edge attribute/payload type.
+ * @author Bogdan Zafirov
+ */
+public class CycleIndex<V, E extends Number> {
+
+    private final SimpleGraph<V, E> graph;
+
+    /* Rotated cycles per vertex, and the graph version they were built for. */
+    private Map<V, List<List<V>>> cyclesByVertex;
+    private long graphVersion;
+
+    /**
+     * Creates the cycle index. The cycles are enumerated on first use.
+     *
+     * @param graph The input graph.
+     * @throws IllegalArgumentException Thrown if the graph is null.
+     */
+    public CycleIndex(final SimpleGraph<V, E> graph) {
+        if (graph == null) {
+            throw new IllegalArgumentException("The graph can't be null.");
+        }
+        this.graph = graph;
+    }
+
+    /**
+     * Returns all simple cycles containing the vertex. Every cycle
+     * starts and ends with the vertex. The returned lists are unmodifiable.
+     *
+     * @param vertex The vertex.
+     * @return List of cycles through the vertex, or an empty list if there are none.
+     */
+    public synchronized List<List<V>> getCycles(final V vertex) {
+        if (cyclesByVertex == null || graphVersion != graph.getVersion()) {
+            graphVersion = graph.getVersion();
+            cyclesByVertex = buildIndex();
+        }
+        final List<List<V>> cycles = cyclesByVertex.get(vertex);
+        return (cycles == null) ? Collections.<List<V>>emptyList() : cycles;
+    }
+
+    private Map<V, List<List<V>>> buildIndex() {
+        final Map<V, List<List<V>>> index = new HashMap<>();
+        for (final List<V> cycle : new TarjanSimpleCycles<>(graph).findSimpleCycles()) {
+            for (int start = 0; start < cycle.size(); start++) {
+                List<List<V>> cycles = index.get(cycle.get(start));
+                if (cycles == null) {
+                    cycles = new ArrayList<>();
+                    index.put(cycle.get(start), cycles);
+                }
+                cycles.add(rotate(cycle, start));
+            }
+        }
+        for (final Map.Entry<V, List<List<V>>> entry : index.entrySet()) {
+            entry.setValue(Collections.unmodifiableList(entry.getValue()));
+        }
+        return index;
+    }
+
+    /* Shifts the cycle, such that it starts and ends with the vertex at the start position. */
+    private List<V> rotate(final List<V> cycle, final int start) {
+        final List<V> rotated = new ArrayList<>(cycle.size() + 1);
+        for (int i = 0; i <= cycle.size(); i++) {
+            rotated.add(cycle.get((start + i) % cycle.size()));
+        }
+        return Collections.unmodifiableList(rotated);
+    }
+}
@@ -1,31 +1,36 @@
 package com.adidas.flitetrakr.solver.algo;
 
+import com.adidas.flitetrakr.graph.GraphIndex;
 import com.adidas.flitetrakr.graph.SimpleGraph;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * Implementation of the dijkstra algorithm for minimal distance in a graph.
+ * <p>
+ * The search runs on the int-indexed {@link GraphIndex} of the graph. The
+ * unprocessed vertices are kept in a binary heap. Instead of a decrease-key
+ * operation a new heap entry is added every time a shorter distance is found, and
+ * stale entries are skipped when they are polled (lazy deletion). The search stops
+ * as soon as the target vertex is settled.
+ * <p>
+ * The algorithm object is stateless: the distances, predecessors and the heap
+ * are kept in reusable per-thread {@link SearchScratch} buffers, therefore one
+ * instance can answer concurrent queries without allocating O(V) memory per query.
  *
  * @param <V> The type vertex type.
  * @param <E> The edge attribute type. The type must be a number (e.g. long, int, double).
  * @author Bogdan Zafirov
  */
-public class DijkstraMinimalDistance<V, E extends Number> {
+public class DijkstraMinimalDistance<V, E extends Number> implements ShortestPathEngine<V> {
 
     private final SimpleGraph<V, E> graph;
-    private final Set<V> processedVertices;
-    private final Set<V> unprocessedVertices;
-    private final Map<V, V> predecessors;
-    private final Map<V, E> vertexDistances;
 
     public DijkstraMinimalDistance(final SimpleGraph<V, E> graph) {
+        if (graph == null) {
+            throw new IllegalArgumentException("The graph can't be null.");
+        }
         this.graph = graph;
-        processedVertices = new HashSet<>();
-        unprocessedVertices = new HashSet<>();
-        vertexDistances = new HashMap<>();
-        predecessors = new HashMap<>();
     }
 
     /**
@@ -34,79 +39,131 @@ public class DijkstraMinimalDistance<V, E extends Number> {
      *
      * @param source The source vertex.
      * @param target The target vertex.
-     * @return List of vertices along the path from the source to the target vertex.
+     * @return List of vertices along the path from the source to the target vertex,
+     *         or null if there is no such path.
      */
+    @Override
     public List<V> findPath(final V source, final V target) {
-        /* Clearing the auxiliary data structures. */
-        processedVertices.clear();
-        unprocessedVertices.clear();
-        vertexDistances.clear();
-        predecessors.clear();
-        vertexDistances.clear();
-
-        vertexDistances.put(source, (E) new Long(0));
-        unprocessedVertices.add(source);
-        /* Calculating the shortest distances to all vertices in the graph. */
-        while (unprocessedVertices.size() > 0) {
-            V node = findShortestDistance(unprocessedVertices);
-            processedVertices.add(node);
-            unprocessedVertices.remove(node);
-            calculateDistancesForVertex(node);
+        final GraphIndex<V> index = GraphIndex.of(graph);
+        final int sourceId = index.getVertexId(source);
+        final int targetId = index.getVertexId(target);
+        if (sourceId == -1 || targetId == -1) {
+            return null;
         }
 
-        /* Finally we simply create the shortest path. */
-        return createPath(target);
+        final SearchScratch scratch = SearchScratch.acquire(index.getVertexCount(), 0);
+        try {
+            scratch.setDistance(sourceId, 0L, -1);
+            scratch.getHeap().add(sourceId, 0L);
+            settleVertices(index, scratch, targetId);
+
+            /* Finally we simply create the shortest path. */
+            return createPath(index, scratch, sourceId, targetId);
+        } finally {
+            scratch.release();
+        }
     }
 
-    private void calculateDistancesForVertex(final V vertex) {
-        /* Fetching the neighbors of the current vertex.
-         * Here we also filter the already processed vertices. */
-        final Set<V> neighbors = graph.getNeighbors(vertex).stream().filter(v -> !processedVertices.contains(v)).collect(Collectors.toSet());
+    /**
+     * Finds the cycle with shortest distance, which starts and ends
+     * at the specified vertex.
+     * <p>
+     * The vertex is split into a source, whose edges are relaxed right away,
+     * and a sink, which is the target of the search. The cheapest cycle is
+     * therefore found with a single search, without enumerating cycles.
+     *
+     * @param vertex The start and end vertex of the cycle.
+     * @return List of vertices along the cycle, starting and ending with the
+     *         vertex, or null if the vertex is not part of a cycle.
+     */
+    @Override
+    public List<V> findCycle(final V vertex) {
+        final GraphIndex<V> index = GraphIndex.of(graph);
+        final int vertexId = index.getVertexId(vertex);
+        if (vertexId == -1) {
+            return null;
+        }
 
-        /* Upading the distances map, with the newly calculated distances. */
-        for (final V target : neighbors) {
-            final long vertexDistance = getDistanceTo(vertex);
-            final long targetDistance = getDistanceTo(target);
-            final long edgeDistance = graph.getEdge(vertex, target).longValue();
-            if (targetDistance > (vertexDistance + edgeDistance)) {
-                vertexDistances.put(target, (E) new Long(vertexDistance + edgeDistance));
-                predecessors.put(target, vertex);
-                unprocessedVertices.add(target);
-            }
+        final SearchScratch scratch = SearchScratch.acquire(index.getVertexCount(), 0);
+        try {
+            /* The source has no distance, such that the sink can be reached over the incoming edges. */
+            relaxEdges(index, scratch, vertexId, 0L);
+            settleVertices(index, scratch, vertexId);
+            return createPath(index, scratch, vertexId, vertexId);
+        } finally {
+            scratch.release();
         }
     }
 
-    private V findShortestDistance(final Set<V> vertices) {
-        V minDistVertex = null;
-        for (final V vertex : vertices) {
-            if (minDistVertex == null) {
-                minDistVertex = vertex;
-            } else {
-                minDistVertex = getDistanceTo(vertex) < getDistanceTo(minDistVertex) ? vertex : minDistVertex;
+    /**
+     * Finds the cheapest paths from the source to all targets with a single
+     * search, which settles every vertex reachable from the source.
+     *
+     * @param source The source vertex.
+     * @param targets The target vertices.
+     * @return The paths in the order of the targets, with null entries for the
+     *         targets that can't be reached.
+     */
+    @Override
+    public List<List<V>> findPaths(final V source, final List<V> targets) {
+        final GraphIndex<V> index = GraphIndex.of(graph);
+        final int sourceId = index.getVertexId(source);
+        if (sourceId == -1) {
+            return new ArrayList<>(Collections.<List<V>>nCopies(targets.size(), null));
+        }
+        return ShortestPathTree.compute(index, sourceId).createPaths(index, targets);
+    }
+
+    private void settleVertices(final GraphIndex<V> index, final SearchScratch scratch, final int target) {
+        final VertexHeap heap = scratch.getHeap();
+        /* Settling the vertices in the order of their distance to the source. */
+        while (!heap.isEmpty()) {
+            final int vertex = heap.peekVertex();
+            final long distance = heap.peekKey();
+            heap.remove();
+            /* Skipping stale entries, a shorter distance was already processed. */
+            if (scratch.isSettled(vertex)) {
+                continue;
+            }
+            scratch.settle(vertex);
+            /* The distance of a settled vertex is final, so we can stop at the target. */
+            if (vertex == target) {
+                break;
             }
+            relaxEdges(index, scratch, vertex, distance);
         }
-        return minDistVertex;
     }
 
-    private Long getDistanceTo(final V destination) {
-        final E distance = vertexDistances.get(destination);
-        return (distance == null) ? Long.MAX_VALUE : distance.longValue();
+    private void relaxEdges(final GraphIndex<V> index, final SearchScratch scratch, final int vertex,
+                            final long vertexDistance) {
+        /* Upading the distances, with the newly calculated distances. */
+        for (int edge = index.getEdgeStart(vertex); edge < index.getEdgeEnd(vertex); edge++) {
+            final int target = index.getEdgeTarget(edge);
+            if (scratch.isSettled(target)) {
+                continue;
+            }
+            final long targetDistance = vertexDistance + index.getEdgePrice(edge);
+            if (scratch.getDistance(target) > targetDistance) {
+                scratch.setDistance(target, targetDistance, vertex);
+                scratch.getHeap().add(target, targetDistance);
+            }
+        }
     }
 
-    private List<V> createPath(final V destination) {
-        final LinkedList<V> path = new LinkedList<V>();
-        V currentVertex = destination;
+    private List<V> createPath(final GraphIndex<V> index, final SearchScratch scratch, final int source,
+                               final int destination) {
         /* First we check if a path exists at all. */
-        if (predecessors.get(currentVertex) == null) {
+        if (scratch.getPredecessor(destination) == -1) {
             return null;
         }
-        /* We iterate the predecessors map, by going backwards. */
-        path.addFirst(currentVertex);
-        V predecessor = null;
-        while ((predecessor = predecessors.get(currentVertex)) != null) {
-            currentVertex = predecessor;
-            path.addFirst(currentVertex);
-        }
+        /* We follow the predecessors, by going backwards until we reach the source. */
+        final LinkedList<V> path = new LinkedList<V>();
+        int currentVertex = destination;
+        path.addFirst(index.getVertex(currentVertex));
+        do {
+            currentVertex = scratch.getPredecessor(currentVertex);
+            path.addFirst(index.getVertex(currentVertex));
+        } while (currentVertex != source);
         return path;
     }
 }
@@ -0,0 +1,188 @@
+package com.adidas.flitetrakr.solver.algo;
+
+import com.adidas.flitetrakr.graph.GraphIndex;
+import com.adidas.flitetrakr.graph.SimpleGraph;
+
+import java.util.*;
+
+/**
+ * A* search for cheapest paths and cycles, guided by the lower bounds of
+ * a {@link LandmarkIndex} (ALT).
+ * <p>
+ * The vertices are settled in the order of their price from the source plus
+ * the lower bound of their price to the target. The lower bounds of the
+ * landmarks are consistent, therefore a settled vertex has its final price,
+ * and the search can stop as soon as the target is settled. Compared to the
+ * {@link DijkstraMinimalDistance} the search is directed towards the target
+ * and settles far fewer vertices, and vertices from which the target can't
+ * be reached are skipped right away.
+ * <p>
+ * If the graph changed since the landmark index was built, its bounds may be
+ * wrong and the engine falls back to a plain dijkstra search. Like the other
+ * engines, this one is stateless and can answer concurrent queries.
+ *
+ * @param <V> The type vertex type.
+ * @param <E> The edge attribute type. The type must be a number (e.g. long, int, double).
+ * @author Bogdan Zafirov
+ */
+public class LandmarkAStar<V, E extends Number> implements ShortestPathEngine<V> {
+
+    private final SimpleGraph<V, E> graph;
+    private final LandmarkIndex<V> landmarks;
+
+    /**
+     * Creates the engine and builds a new landmark index for the graph.
+     *
+     * @param graph The input graph.
+     * @param landmarkCount The number of landmarks.
+     * @throws IllegalArgumentException Thrown if the graph is null or the landmark count isn't positive.
+     */
+    public LandmarkAStar(final SimpleGraph<V, E> graph, final int landmarkCount) {
+        this(graph, LandmarkIndex.build(graph, landmarkCount));
+    }
+
+    /**
+     * Creates the engine with an existing landmark index, e.g. one read from a file.
+     *
+     * @param graph The input graph.
+     * @param landmarks The landmark index of the graph.
+     * @throws IllegalArgumentException Thrown if the graph or the landmark index is null.
+     */
+    public LandmarkAStar(final SimpleGraph<V, E> graph, final LandmarkIndex<V> landmarks) {
+        if (graph == null || landmarks == null) {
+            throw new IllegalArgumentException("The graph and the landmark index can't be null.");
+        }
+        this.graph = graph;
+        this.landmarks = landmarks;
+    }
+
+    /**
+     * Returns the landmark index, e.g. for writing it to a file.
+     *
+     * @return The landmark index.
+     */
+    public LandmarkIndex<V> getLandmarks() {
+        return landmarks;
+    }
+
+    @Override
+    public List<V> findPath(final V source, final V target) {
+        final GraphIndex<V> index = GraphIndex.of(graph);
+        final int sourceId = index.getVertexId(source);
+        final int targetId = index.getVertexId(target);
+        if (sourceId == -1 || targetId == -1 || sourceId == targetId) {
+            return null;
+        }
+
+        final Search search = new Search(index, targetId);
+        try {
+            search.reach(sourceId, 0L, -1);
+            search.run();
+            return search.createPath(sourceId);
+        } finally {
+            search.scratch.release();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * As in the {@link DijkstraMinimalDistance}, the vertex is split into a
+     * source, whose edges are relaxed right away, and the target of the search.
+     */
+    @Override
+    public List<V> findCycle(final V vertex) {
+        final GraphIndex<V> index = GraphIndex.of(graph);
+        final int vertexId = index.getVertexId(vertex);
+        if (vertexId == -1) {
+            return null;
+        }
+
+        final Search search = new Search(index, vertexId);
+        try {
+            search.relaxEdges(vertexId, 0L);
+            search.run();
+            return search.createPath(vertexId);
+        } finally {
+            search.scratch.release();
+        }
+    }
+
+    /**
+     * State of a single A* search. The heap is keyed by the price from the
+     * source plus the lower bound, the scratch distances are the prices.
+     */
+    private final class Search {
+        private final GraphIndex<V> index;
+        private final int target;
+        private final SearchScratch scratch;
+        private final boolean useBounds;
+        private final long[] targetPricesFrom;
+        private final long[] targetPricesTo;
+
+        private Search(final GraphIndex<V> index, final int target) {
+            this.index = index;
+            this.target = target;
+            this.scratch = SearchScratch.acquire(index.getVertexCount(), 0);
+            this.useBounds = landmarks.getGraphVersion() == index.getGraphVersion();
+            this.targetPricesFrom = new long[landmarks.getLandmarkCount()];
+            this.targetPricesTo = new long[landmarks.getLandmarkCount()];
+            if (useBounds) {
+                landmarks.getPricesFrom(target, targetPricesFrom);
+                landmarks.getPricesTo(target, targetPricesTo);
+            }
+        }
+
+        private void run() {
+            final VertexHeap heap = scratch.getHeap();
+            while (!heap.isEmpty()) {
+                final int vertex = heap.peekVertex();
+                heap.remove();
+                /* Skipping stale entries, a cheaper price was already processed. */
+                if (scratch.isSettled(vertex)) {
+                    continue;
+                }
+                scratch.settle(vertex);
+                if (vertex == target) {
+                    return;
+                }
+                relaxEdges(vertex, scratch.getDistance(vertex));
+            }
+        }
+
+        private void relaxEdges(final int vertex, final long price) {
+            for (int edge = index.getEdgeStart(vertex); edge < index.getEdgeEnd(vertex); edge++) {
+                final int neighbor = index.getEdgeTarget(edge);
+                final long neighborPrice = price + index.getEdgePrice(edge);
+                if (!scratch.isSettled(neighbor) && neighborPrice < scratch.getDistance(neighbor)) {
+                    reach(neighbor, neighborPrice, vertex);
+                }
+            }
+        }
+
+        private void reach(final int vertex, final long price, final int predecessor) {
+            final long bound = useBounds ? landmarks.getLowerBound(vertex, targetPricesFrom, targetPricesTo) : 0;
+            /* The target can't be reached from this vertex. */
+            if (bound == LandmarkIndex.UNREACHABLE) {
+                return;
+            }
+            scratch.setDistance(vertex, price, predecessor);
+            scratch.getHeap().add(vertex, price + bound);
+        }
+
+        private List<V> createPath(final int source) {
+            /* First we check if a path exists at all. */
+            if (scratch.getPredecessor(target) == -1) {
+                return null;
+            }
+            final LinkedList<V> path = new LinkedList<V>();
+            int vertex = target;
+            path.addFirst(index.getVertex(vertex));
+            do {
+                vertex = scratch.getPredecessor(vertex);
+                path.addFirst(index.getVertex(vertex));
+            } while (vertex != source);
+            return path;
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package com.adidas.flitetrakr.solver.algo;
+
+import com.adidas.flitetrakr.graph.GraphIndex;
+import com.adidas.flitetrakr.graph.SimpleGraph;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Precomputed cheapest prices from and to a few landmark vertices, used as
+ * lower bounds by the {@link LandmarkAStar} engine (ALT: A*, landmarks and
+ * triangle inequality).
+ * <p>
+ * For a landmark {@code L} the triangle inequality gives two lower bounds
+ * for the price from {@code v} to {@code t}: {@code d(L, t) - d(L, v)} and
+ * {@code d(v, L) - d(t, L)}. The landmarks are chosen one after another as
+ * the vertex with the most hops to the already chosen landmarks, so they lie
+ * at the periphery of the graph, where the bounds are tight. The prices are
+ * then calculated in parallel, with one forward and one backward dijkstra
+ * search per landmark, and stored per vertex in primitive arrays.
+ * <p>
+ * The index can be written to a stream and read back for the same graph, such
+ * that the preprocessing is only paid once.
+ *
+ * @param <V> The vertex type.
+ * @author Bogdan Zafirov
+ */
+public final class LandmarkIndex<V> {
+
+    /* Price for unreachable vertices. */
+    static final long UNREACHABLE = Long.MAX_VALUE;
+
+    /* File format marker and version. */
+    private static final int MAGIC = 0x464c544b;
+    private static final int FORMAT_VERSION = 1;
+
+    private final int vertexCount;
+    private final int[] landmarks;
+    /* Prices from and to every landmark, at position vertex * landmarks + landmark. */
+    private final long[] pricesFrom;
+    private final long[] pricesTo;
+    private final long graphFingerprint;
+    private final long graphVersion;
+
+    private LandmarkIndex(final int vertexCount, final int[] landmarks, final long[] pricesFrom, final long[] pricesTo,
+                          final long graphFingerprint, final long graphVersion) {
+        this.vertexCount = vertexCount;
+        this.landmarks = landmarks;
+        this.pricesFrom = pricesFrom;
+        this.pricesTo = pricesTo;
+        this.graphFingerprint = graphFingerprint;
+        this.graphVersion = graphVersion;
+    }
+
+    /**
+     * Selects the landmarks and calculates the prices from and to them.
+     *
+     * @param graph The graph. The edge prices must not be negative.
+     * @param landmarkCount The number of landmarks, at most one per vertex is used.
+     * @param <V> The vertex type.
+     * @param <E> The edge payload type.
+     * @return The landmark index of the current version of the graph.
+     * @throws IllegalArgumentException Thrown if the graph is null or the landmark count isn't positive.
+     */
+    public static <V, E extends Number> LandmarkIndex<V> build(final SimpleGraph<V, E> graph, final int landmarkCount) {
+        if (graph == null) {
+            throw new IllegalArgumentException("The graph can't be null.");
+        }
+        if (landmarkCount < 1) {
+            throw new IllegalArgumentException("The number of landmarks must be positive.");
+        }
+        final GraphIndex<V> index = GraphIndex.of(graph);
+        final int[] landmarks = selectLandmarks(index, Math.min(landmarkCount, index.getVertexCount()));
+
+        final int vertexCount = index.getVertexCount();
+        final long[] pricesFrom = new long[vertexCount * landmarks.length];
+        final long[] pricesTo = new long[vertexCount * landmarks.length];
+        /* The landmarks are independent of each other, every search writes its own column. */
+        IntStream.range(0, landmarks.length).parallel().forEach(i -> {
+            final long[] from = findPrices(index, landmarks[i], false);
+            final long[] to = findPrices(index, landmarks[i], true);
+            for (int v = 0; v < vertexCount; v++) {
+                pricesFrom[v * landmarks.length + i] = from[v];
+                pricesTo[v * landmarks.length + i] = to[v];
+            }
+        });
+        return new LandmarkIndex<>(vertexCount, landmarks, pricesFrom, pricesTo, fingerprint(index), index.getGraphVersion());
+    }
+
+    /**
+     * Reads a landmark index, which was written with {@link #writeTo(OutputStream)}.
+     * The stream is not closed, and should be buffered since the prices are read one by one.
+     *
+     * @param in The input stream.
+     * @param graph The graph the index was built for.
+     * @param <V> The vertex type.
+     * @param <E> The edge payload type.
+     * @return The landmark index.
+     * @throws IOException Thrown if the stream can't be read.
+     * @throws IllegalArgumentException Thrown if the stream doesn't contain a landmark index of the graph.
+     */
+    public static <V, E extends Number> LandmarkIndex<V> readFrom(final InputStream in, final SimpleGraph<V, E> graph)
+            throws IOException {
+        if (in == null || graph == null) {
+            throw new IllegalArgumentException("The stream and the graph can't be null.");
+        }
+        final GraphIndex<V> index = GraphIndex.of(graph);
+        final DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC || data.readInt() != FORMAT_VERSION) {
+            throw new IllegalArgumentException("The stream doesn't contain a landmark index.");
+        }
+        if (data.readInt() != index.getVertexCount() || data.readLong() != fingerprint(index)) {
+            throw new IllegalArgumentException("The landmark index was built for a different graph.");
+        }
+
+        final int[] landmarks = new int[data.readInt()];
+        for (int i = 0; i < landmarks.length; i++) {
+            landmarks[i] = data.readInt();
+            if (landmarks[i] < 0 || landmarks[i] >= index.getVertexCount()) {
+                throw new IllegalArgumentException("The stream doesn't contain a valid landmark index.");
+            }
+        }
+        final long[] pricesFrom = new long[index.getVertexCount() * landmarks.length];
+        final long[] pricesTo = new long[pricesFrom.length];
+        for (int i = 0; i < pricesFrom.length; i++) {
+            pricesFrom[i] = data.readLong();
+            pricesTo[i] = data.readLong();
+        }
+        return new LandmarkIndex<>(index.getVertexCount(), landmarks, pricesFrom, pricesTo, fingerprint(index),
+                index.getGraphVersion());
+    }
+
+    /**
+     * Writes the landmark index to the stream. The stream is flushed, but not closed.
+     *
+     * @param out The output stream.
+     * @throws IOException Thrown if the stream can't be written.
+     */
+    public void writeTo(final OutputStream out) throws IOException {
+        final DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        data.writeInt(FORMAT_VERSION);
+        data.writeInt(vertexCount);
+        data.writeLong(graphFingerprint);
+        data.writeInt(landmarks.length);
+        for (final int landmark : landmarks) {
+            data.writeInt(landmark);
+        }
+        for (int i = 0; i < pricesFrom.length; i++) {
+            data.writeLong(pricesFrom[i]);
+            data.writeLong(pricesTo[i]);
+        }
+        data.flush();
+    }
+
+    /**
+     * Returns the number of landmarks.
+     *
+     * @return The number of landmarks.
+     */
+    public int getLandmarkCount() {
+        return landmarks.length;
+    }
+
+    /**
+     * Returns the version of the graph this index was built for.
+     *
+     * @return The graph version.
+     */
+    public long getGraphVersion() {
+        return graphVersion;
+    }
+
+    /**
+     * Returns the prices from the landmarks to the vertex.
+     *
+     * @param vertex The vertex id.
+     * @param prices The array receiving one price per landmark, {@link #UNREACHABLE} if there is no path.
+     */
+    void getPricesFrom(final int vertex, final long[] prices) {
+        System.arraycopy(pricesFrom, vertex * landmarks.length, prices, 0, landmarks.length);
+    }
+
+    /**
+     * Returns the prices from the vertex to the landmarks.
+     *
+     * @param vertex The vertex id.
+     * @param prices The array receiving one price per landmark, {@link #UNREACHABLE} if there is no path.
+     */
+    void getPricesTo(final int vertex, final long[] prices) {
+        System.arraycopy(pricesTo, vertex * landmarks.length, prices, 0, landmarks.length);
+    }
+
+    /**
+     * Calculates a lower bound for the price from the vertex to the target.
+     *
+     * @param vertex The vertex id.
+     * @param targetPricesFrom The prices from the landmarks to the target.
+     * @param targetPricesTo The prices from the target to the landmarks.
+     * @return The lower bound, or {@link #UNREACHABLE} if the target can't be reached from the vertex.
+     */
+    long getLowerBound(final int vertex, final long[] targetPricesFrom, final long[] targetPricesTo) {
+        final int offset = vertex * landmarks.length;
+        long bound = 0;
+        for (int i = 0; i < landmarks.length; i++) {
+            final long fromLandmark = pricesFrom[offset + i];
+            final long toLandmark = pricesTo[offset + i];
+            if (fromLandmark != UNREACHABLE) {
+                /* A path from the vertex to the target would extend the path from the landmark. */
+                if (targetPricesFrom[i] == UNREACHABLE) {
+                    return UNREACHABLE;
+                }
+                bound = Math.max(bound, targetPricesFrom[i] - fromLandmark);
+            }
+            if (targetPricesTo[i] != UNREACHABLE) {
+                /* A path from the vertex to the target would extend to the landmark. */
+                if (toLandmark == UNREACHABLE) {
+                    return UNREACHABLE;
+                }
+                bound = Math.max(bound, toLandmark - targetPricesTo[i]);
+            }
+        }
+        return bound;
+    }
+
+    /* Farthest-first selection by the number of hops, ignoring the edge directions. */
+    private static int[] selectLandmarks(final GraphIndex<?> index, final int landmarkCount) {
+        final int vertexCount = index.getVertexCount();
+        final int[] hops = new int[vertexCount];
+        final int[] queue = new int[vertexCount];
+        final int[] landmarks = new int[landmarkCount];
+        if (landmarkCount == 0) {
+            return landmarks;
+        }
+
+        int next = farthestVertex(index, new int[]{0}, 1, hops, queue);
+        for (int i = 0; i < landmarkCount; i++) {
+            landmarks[i] = next;
+            next = farthestVertex(index, landmarks, i + 1, hops, queue);
+        }
+        return landmarks;
+    }
+
+    /* Breadth-first search from all the sources, returning the vertex with the most hops to them. */
+    private static int farthestVertex(final GraphIndex<?> index, final int[] sources, final int sourceCount,
+                                      final int[] hops, final int[] queue) {
+        Arrays.fill(hops, Integer.MAX_VALUE);
+        int head = 0, tail = 0;
+        for (int i = 0; i < sourceCount; i++) {
+            hops[sources[i]] = 0;
+            queue[tail++] = sources[i];
+        }
+        while (head < tail) {
+            final int vertex = queue[head++];
+            for (int edge = index.getEdgeStart(vertex); edge < index.getEdgeEnd(vertex); edge++) {
+                final int neighbor = index.getEdgeTarget(edge);
+                if (hops[neighbor] == Integer.MAX_VALUE) {
+                    hops[neighbor] = hops[vertex] + 1;
+                    queue[tail++] = neighbor;
+                }
+            }
+            for (int edge = index.getInEdgeStart(vertex); edge < index.getInEdgeEnd(vertex); edge++) {
+                final int neighbor = index.getInEdgeSource(edge);
+                if (hops[neighbor] == Integer.MAX_VALUE) {
+                    hops[neighbor] = hops[vertex] + 1;
+                    queue[tail++] = neighbor;
+                }
+            }
+        }
+
+        /* Unreached vertices come first, such that every component gets a landmark. */
+        int farthest = 0;
+        for (int v = 1; v < hops.length; v++) {
+            if (hops[v] > hops[farthest]) {
+                farthest = v;
+            }
+        }
+        return farthest;
+    }
+
+    /* Complete dijkstra search from (or, over the incoming edges, to) the landmark. */
+    private static long[] findPrices(final GraphIndex<?> index, final int landmark, final boolean reverse) {
+        final long[] prices = new long[index.getVertexCount()];
+        Arrays.fill(prices, UNREACHABLE);
+        prices[landmark] = 0;
+
+        final VertexHeap heap = new VertexHeap();
+        heap.add(landmark, 0);
+        while (!heap.isEmpty()) {
+            final int vertex = heap.peekVertex();
+            final long price = heap.peekKey();
+            heap.remove();
+            if (price > prices[vertex]) {
+                continue;
+            }
+            final int start = reverse ? index.getInEdgeStart(vertex) : index.getEdgeStart(vertex);
+            final int end = reverse ? index.getInEdgeEnd(vertex) : index.getEdgeEnd(vertex);
+            for (int edge = start; edge < end; edge++) {
+                final int neighbor = reverse ? index.getInEdgeSource(edge) : index.getEdgeTarget(edge);
+                final long neighborPrice = price + (reverse ? index.getInEdgePrice(edge) : index.getEdgePrice(edge));
+                if (neighborPrice < prices[neighbor]) {
+                    prices[neighbor] = neighborPrice;
+                    heap.add(neighbor, neighborPrice);
+                }
+            }
+        }
+        return prices;
+    }
+
+    /* Hash of the vertex order and the edges, identifying the graph the index belongs to. */
+    private static long fingerprint(final GraphIndex<?> index) {
+        long hash = index.getVertexCount();
+        for (int v = 0; v < index.getVertexCount(); v++) {
+            hash = 31 * hash + index.getVertex(v).hashCode();
+            for (int edge = index.getEdgeStart(v); edge < index.getEdgeEnd(v); edge++) {
+                hash = 31 * (31 * hash + index.getEdgeTarget(edge)) + index.getEdgePrice(edge);
+            }
+        }
+        return hash;
+    }
+}
@@ -1,18 +1,49 @@
 package com.adidas.flitetrakr.solver.algo;
 
+import com.adidas.flitetrakr.graph.GraphIndex;
 import com.adidas.flitetrakr.graph.SimpleGraph;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Finds all paths from one vertex (source) to another (destination),
  * by performing depth-first search.
+ * <p>
+ * The search is iterative and runs on the int-indexed {@link GraphIndex} of
+ * the graph: the current path and the next edge of every path vertex are kept
+ * in the stacks of a {@link SearchScratch}, the vertices on the path are its
+ * settled vertices, and a path is only copied when it reaches the destination.
+ * Before the search, the number of edges from every vertex to the destination
+ * is calculated by a breadth-first search over the incoming edges, and vertices
+ * which can't reach the destination (within the maximal number of edges) are
+ * never entered. Unreachable destinations are detected by the
+ * {@link ComponentIndex} without any search.
+ * <p>
+ * The paths can be streamed lazily: the search advances only as far as the
+ * next path, so a limited or short-circuiting stream stops the search, and
+ * the memory doesn't depend on the number of paths.
+ * <p>
+ * The paths can also be enumerated in parallel on the common fork-join pool.
+ * The search tree is split into tasks at its top levels, one per path prefix,
+ * and idle workers steal the unfinished prefixes. The results of the tasks
+ * are joined in the order of the edges, so the paths are the same and in the
+ * same order as those of the sequential search.
  *
  * @param <V> The type vertex type.
  * @param <P> The edge attribute/payload type.
  * @author Bogdan Zafirov
  */
-public class PathFinder<V, P> {
+public class PathFinder<V, P extends Number> {
+
+    /* Number of vertices of the path prefixes, up to which the parallel search is split into tasks. */
+    private static final int SPLIT_DEPTH = 3;
 
     private final SimpleGraph<V, P> graph;
 
@@ -28,26 +59,296 @@ public class PathFinder<V, P> {
      * @return List of paths between the two vertices.
      */
     public List<List<V>> findAllPaths(final V source, final V destination) {
-        final List<List<V>> paths = new ArrayList<List<V>>();
-        final List<V> visited = new ArrayList<V>();
-        visited.add(source);
-        findAllPaths0(visited, paths, source, destination);
-        return paths;
-    }
-
-    private void findAllPaths0(final List<V> visited, final List<List<V>> paths, final V currentVertex, final V destination) {
-        if (currentVertex.equals(destination)) {
-            paths.add(new ArrayList(visited));
-            return;
-        } else {
-            for (final V neighbor : graph.getNeighbors(currentVertex)) {
-                if (visited.contains(neighbor)) {
+        final GraphIndex<V> index = GraphIndex.of(graph);
+        try (Stream<int[]> paths = streamPaths(source, destination, Integer.MAX_VALUE)) {
+            return paths.map(path -> toVertices(index, path)).collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Lazily streams the paths between the source and destination vertex in depth-first order.
+     * A path is an array of vertex ids of the current {@link GraphIndex} of the graph, which
+     * belongs to the caller. The number of paths can be limited with {@link Stream#limit(long)},
+     * which stops the search. The stream is sequential and should be closed if it isn't
+     * consumed completely, which hands its working memory back.
+     *
+     * @param source      The source vertex.
+     * @param destination The target vertex.
+     * @param maxEdges    The maximal number of edges of a path.
+     * @return The stream of paths between the two vertices.
+     * @throws IllegalArgumentException Thrown if the maximal number of edges is negative.
+     */
+    public Stream<int[]> streamPaths(final V source, final V destination, final int maxEdges) {
+        if (maxEdges < 0) {
+            throw new IllegalArgumentException("The maximal number of edges can't be negative.");
+        }
+        final ComponentIndex<V> components = ComponentIndex.of(graph);
+        final GraphIndex<V> index = components.getGraphIndex();
+        final int sourceId = index.getVertexId(source);
+        final int destinationId = index.getVertexId(destination);
+        if (sourceId == -1 || destinationId == -1) {
+            return Stream.empty();
+        }
+        if (sourceId == destinationId) {
+            return Stream.of(new int[]{sourceId});
+        }
+        if (maxEdges == 0 || !components.hasConnection(source, destination)) {
+            return Stream.empty();
+        }
+        final PathSpliterator spliterator = new PathSpliterator(index, new int[]{sourceId}, destinationId, maxEdges, null);
+        return StreamSupport.stream(spliterator, false).onClose(spliterator::release);
+    }
+
+    /**
+     * Finds the paths between the source and destination vertex in parallel on the common
+     * fork-join pool. The paths are the same and in the same order as those of
+     * {@link #streamPaths(Object, Object, int)}.
+     *
+     * @param source      The source vertex.
+     * @param destination The target vertex.
+     * @param maxEdges    The maximal number of edges of a path.
+     * @return List of paths between the two vertices.
+     * @throws IllegalArgumentException Thrown if the maximal number of edges is negative.
+     */
+    public List<List<V>> findAllPathsParallel(final V source, final V destination, final int maxEdges) {
+        if (maxEdges < 0) {
+            throw new IllegalArgumentException("The maximal number of edges can't be negative.");
+        }
+        final ComponentIndex<V> components = ComponentIndex.of(graph);
+        final GraphIndex<V> index = components.getGraphIndex();
+        final int sourceId = index.getVertexId(source);
+        final int destinationId = index.getVertexId(destination);
+        if (sourceId == -1 || destinationId == -1 || sourceId == destinationId
+                || maxEdges == 0 || !components.hasConnection(source, destination)) {
+            try (Stream<int[]> paths = streamPaths(source, destination, maxEdges)) {
+                return paths.map(path -> toVertices(index, path)).collect(Collectors.toList());
+            }
+        }
+
+        /* The workers only read the numbers of edges to the destination. */
+        final SearchScratch hops = SearchScratch.acquire(index.getVertexCount(), 0);
+        try {
+            findHopsTo(index, hops, destinationId, maxEdges);
+            final List<int[]> paths = ForkJoinPool.commonPool().invoke(
+                    new PathTask(index, hops, new int[]{sourceId}, destinationId, maxEdges));
+            final List<List<V>> result = new ArrayList<List<V>>(paths.size());
+            for (final int[] path : paths) {
+                result.add(toVertices(index, path));
+            }
+            return result;
+        } finally {
+            hops.release();
+        }
+    }
+
+    /**
+     * Converts a path of vertex ids into a list of vertices.
+     *
+     * @param index The graph index of the vertex ids.
+     * @param path  The vertex ids.
+     * @return The list of vertices.
+     */
+    public static <V> List<V> toVertices(final GraphIndex<V> index, final int[] path) {
+        final List<V> vertices = new ArrayList<V>(path.length);
+        for (final int vertex : path) {
+            vertices.add(index.getVertex(vertex));
+        }
+        return vertices;
+    }
+
+    /* Breadth-first search over the incoming edges, calculating the number of edges from every vertex to the destination. */
+    private static void findHopsTo(final GraphIndex<?> index, final SearchScratch hops, final int destination,
+                                   final int maxEdges) {
+        final int[] queue = hops.getStack();
+        int head = 0, tail = 0;
+        queue[tail++] = destination;
+        hops.setDistance(destination, 0, -1);
+        while (head < tail) {
+            final int vertex = queue[head++];
+            final long distance = hops.getDistance(vertex) + 1;
+            if (distance >= maxEdges) {
+                break;
+            }
+            for (int edge = index.getInEdgeStart(vertex); edge < index.getInEdgeEnd(vertex); edge++) {
+                final int edgeSource = index.getInEdgeSource(edge);
+                if (hops.getDistance(edgeSource) == Long.MAX_VALUE) {
+                    hops.setDistance(edgeSource, distance, vertex);
+                    queue[tail++] = edgeSource;
+                }
+            }
+        }
+    }
+
+    /* Checks if a path with the prefix can be extended by the vertex and still reach the destination. */
+    private static boolean canEnter(final SearchScratch hops, final int maxEdges, final int prefixLength, final int vertex) {
+        final long remaining = hops.getDistance(vertex);
+        return remaining != Long.MAX_VALUE && prefixLength + remaining <= maxEdges;
+    }
+
+    /**
+     * The depth-first search below a path prefix, which is suspended after every found path.
+     * The scratches are taken on the first advance and handed back at the end; the numbers of
+     * edges to the destination are calculated then, unless they are passed in.
+     */
+    private static final class PathSpliterator extends Spliterators.AbstractSpliterator<int[]> {
+        private final GraphIndex<?> index;
+        private final int[] prefix;
+        private final int destination;
+        private final int maxEdges;
+        /* The number of edges to the destination, and the path with its next edges. */
+        private SearchScratch hops;
+        private final boolean ownsHops;
+        private SearchScratch scratch;
+        private int[] path;
+        private int[] nextEdges;
+        private int depth;
+        private boolean done;
+
+        private PathSpliterator(final GraphIndex<?> index, final int[] prefix, final int destination, final int maxEdges,
+                                final SearchScratch hops) {
+            super(Long.MAX_VALUE, ORDERED | NONNULL);
+            this.index = index;
+            this.prefix = prefix;
+            this.destination = destination;
+            this.maxEdges = maxEdges;
+            this.hops = hops;
+            this.ownsHops = hops == null;
+        }
+
+        @Override
+        public boolean tryAdvance(final Consumer<? super int[]> action) {
+            if (done) {
+                return false;
+            }
+            if (scratch == null) {
+                start();
+            }
+            /* The vertices of the prefix, except its last one, are fixed. */
+            while (depth >= prefix.length - 1) {
+                final int vertex = path[depth];
+                if (nextEdges[depth] == index.getEdgeEnd(vertex)) {
+                    scratch.unsettle(vertex);
+                    depth--;
                     continue;
                 }
-                final List<V> temp = new ArrayList<V>(visited);
-                temp.add(neighbor);
-                findAllPaths0(temp, paths, neighbor, destination);
+                final int target = index.getEdgeTarget(nextEdges[depth]++);
+                if (target == destination) {
+                    final int[] result = Arrays.copyOf(path, depth + 2);
+                    result[depth + 1] = destination;
+                    action.accept(result);
+                    return true;
+                }
+                /* Entering the vertex, if the destination can be reached from it without exceeding the edges. */
+                if (canEnter(hops, maxEdges, depth + 1, target) && !scratch.isSettled(target)) {
+                    depth++;
+                    path[depth] = target;
+                    nextEdges[depth] = index.getEdgeStart(target);
+                    scratch.settle(target);
+                }
+            }
+            release();
+            return false;
+        }
+
+        private void start() {
+            if (ownsHops) {
+                hops = SearchScratch.acquire(index.getVertexCount(), 0);
+                findHopsTo(index, hops, destination, maxEdges);
+            }
+            scratch = SearchScratch.acquire(index.getVertexCount(), 0);
+            path = scratch.getStack();
+            nextEdges = scratch.getSecondStack();
+            for (depth = 0; depth < prefix.length; depth++) {
+                path[depth] = prefix[depth];
+                scratch.settle(prefix[depth]);
+            }
+            depth = prefix.length - 1;
+            nextEdges[depth] = index.getEdgeStart(path[depth]);
+        }
+
+        private void release() {
+            if (!done) {
+                done = true;
+                if (scratch != null) {
+                    scratch.release();
+                    if (ownsHops) {
+                        hops.release();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Parallel search below a path prefix. Up to the split depth, every extension of the
+     * prefix becomes a subtask, below it the prefix is searched sequentially.
+     */
+    private static final class PathTask extends RecursiveTask<List<int[]>> {
+        private static final long serialVersionUID = 1L;
+
+        private final GraphIndex<?> index;
+        private final SearchScratch hops;
+        private final int[] prefix;
+        private final int destination;
+        private final int maxEdges;
+
+        private PathTask(final GraphIndex<?> index, final SearchScratch hops, final int[] prefix, final int destination,
+                         final int maxEdges) {
+            this.index = index;
+            this.hops = hops;
+            this.prefix = prefix;
+            this.destination = destination;
+            this.maxEdges = maxEdges;
+        }
+
+        @Override
+        protected List<int[]> compute() {
+            final List<int[]> paths = new ArrayList<>();
+            if (prefix.length >= SPLIT_DEPTH) {
+                final PathSpliterator spliterator = new PathSpliterator(index, prefix, destination, maxEdges, hops);
+                spliterator.forEachRemaining(paths::add);
+                return paths;
+            }
+
+            /* One entry per edge: a path ending at the destination, a subtask, or nothing. */
+            final int vertex = prefix[prefix.length - 1];
+            final int edgeStart = index.getEdgeStart(vertex);
+            final Object[] parts = new Object[index.getEdgeEnd(vertex) - edgeStart];
+            final List<PathTask> tasks = new ArrayList<>();
+            for (int edge = edgeStart; edge < index.getEdgeEnd(vertex); edge++) {
+                final int target = index.getEdgeTarget(edge);
+                if (target == destination) {
+                    parts[edge - edgeStart] = extend(target);
+                } else if (canEnter(hops, maxEdges, prefix.length, target) && !contains(target)) {
+                    final PathTask task = new PathTask(index, hops, extend(target), destination, maxEdges);
+                    parts[edge - edgeStart] = task;
+                    tasks.add(task);
+                }
+            }
+            ForkJoinTask.invokeAll(tasks);
+            for (final Object part : parts) {
+                if (part instanceof int[]) {
+                    paths.add((int[]) part);
+                } else if (part != null) {
+                    paths.addAll(((PathTask) part).join());
+                }
+            }
+            return paths;
+        }
+
+        private int[] extend(final int vertex) {
+            final int[] extended = Arrays.copyOf(prefix, prefix.length + 1);
+            extended[prefix.length] = vertex;
+            return extended;
+        }
+
+        private boolean contains(final int vertex) {
+            for (final int prefixVertex : prefix) {
+                if (prefixVertex == vertex) {
+                    return true;
+                }
             }
+            return false;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,154 @@
+package com.adidas.flitetrakr.solver.algo;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ * Reusable working memory of the int-indexed graph searches.
+ * <p>
+ * Every thread has a small pool of scratch instances, which grow to the size
+ * of the largest graph searched and are then reused, so a search doesn't
+ * allocate O(V) memory. Instead of clearing the arrays, a search increments
+ * the generation of the scratch: an entry is only valid if its stamp equals
+ * the current generation. A search takes an instance with {@link #acquire}
+ * and hands it back with {@link #release()}; nested searches in the same
+ * thread get different instances.
+ *
+ * @author Bogdan Zafirov
+ */
+final class SearchScratch {
+
+    private static final ThreadLocal<ArrayDeque<SearchScratch>> POOL = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private int generation;
+
+    /* Tentative distances and predecessors, valid if the vertex stamp is the current generation. */
+    private int[] vertexStamps = new int[0];
+    private long[] distances = new long[0];
+    private int[] predecessors = new int[0];
+    /* Settled (or marked) vertices and flagged edges. */
+    private int[] settledStamps = new int[0];
+    private int[] edgeStamps = new int[0];
+    private int[] stack = new int[0];
+    private int[] secondStack = new int[0];
+
+    private final VertexHeap heap = new VertexHeap();
+
+    private SearchScratch() {
+    }
+
+    /**
+     * Takes a scratch instance of the current thread, which is cleared
+     * and large enough for the specified graph size.
+     *
+     * @param vertexCount The number of vertices of the graph.
+     * @param edgeCount The number of edges of the graph.
+     * @return The cleared scratch instance.
+     */
+    static SearchScratch acquire(final int vertexCount, final int edgeCount) {
+        final SearchScratch scratch = POOL.get().poll();
+        return ((scratch == null) ? new SearchScratch() : scratch).reset(vertexCount, edgeCount);
+    }
+
+    /**
+     * Hands the scratch instance back to the pool of the current thread.
+     */
+    void release() {
+        POOL.get().push(this);
+    }
+
+    private SearchScratch reset(final int vertexCount, final int edgeCount) {
+        if (vertexStamps.length < vertexCount) {
+            final int capacity = Math.max(vertexCount, vertexStamps.length * 2);
+            vertexStamps = new int[capacity];
+            distances = new long[capacity];
+            predecessors = new int[capacity];
+            settledStamps = new int[capacity];
+            stack = new int[capacity];
+            secondStack = new int[capacity];
+            generation = 0;
+        }
+        if (edgeStamps.length < edgeCount) {
+            edgeStamps = new int[Math.max(edgeCount, edgeStamps.length * 2)];
+            generation = 0;
+        }
+        /* The stamps of all earlier generations become invalid at once. */
+        if (generation == Integer.MAX_VALUE || generation == 0) {
+            Arrays.fill(vertexStamps, 0);
+            Arrays.fill(settledStamps, 0);
+            Arrays.fill(edgeStamps, 0);
+            generation = 0;
+        }
+        generation++;
+        heap.clear();
+        return this;
+    }
+
+    /**
+     * Returns the tentative distance of the vertex.
+     *
+     * @param vertex The vertex id.
+     * @return The distance, or {@link Long#MAX_VALUE} if the vertex wasn't reached.
+     */
+    long getDistance(final int vertex) {
+        return (vertexStamps[vertex] == generation) ? distances[vertex] : Long.MAX_VALUE;
+    }
+
+    /**
+     * Returns the predecessor of the vertex on the path with the tentative distance.
+     *
+     * @param vertex The vertex id.
+     * @return The predecessor, or -1 if the vertex wasn't reached or has no predecessor.
+     */
+    int getPredecessor(final int vertex) {
+        return (vertexStamps[vertex] == generation) ? predecessors[vertex] : -1;
+    }
+
+    void setDistance(final int vertex, final long distance, final int predecessor) {
+        vertexStamps[vertex] = generation;
+        distances[vertex] = distance;
+        predecessors[vertex] = predecessor;
+    }
+
+    boolean isSettled(final int vertex) {
+        return settledStamps[vertex] == generation;
+    }
+
+    void settle(final int vertex) {
+        settledStamps[vertex] = generation;
+    }
+
+    void unsettle(final int vertex) {
+        settledStamps[vertex] = 0;
+    }
+
+    boolean isEdgeFlagged(final int edge) {
+        return edgeStamps[edge] == generation;
+    }
+
+    void flagEdge(final int edge) {
+        edgeStamps[edge] = generation;
+    }
+
+    /**
+     * Returns an int array with at least one entry per vertex, with undefined content.
+     *
+     * @return The array.
+     */
+    int[] getStack() {
+        return stack;
+    }
+
+    /**
+     * Returns a second int array with at least one entry per vertex, with undefined content.
+     *
+     * @return The array.
+     */
+    int[] getSecondStack() {
+        return secondStack;
+    }
+
+    VertexHeap getHeap() {
+        return heap;
+    }
+}
@@ -0,0 +1,55 @@
+package com.adidas.flitetrakr.solver.algo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Search engine for cheapest paths and cycles in a graph.
+ * <p>
+ * Implementations must be thread-safe, such that one engine per
+ * graph can answer concurrent queries.
+ *
+ * @param <V> The vertex type.
+ * @author Bogdan Zafirov
+ */
+public interface ShortestPathEngine<V> {
+
+    /**
+     * Finds the cheapest path from the source to the target vertex.
+     *
+     * @param source The source vertex.
+     * @param target The target vertex.
+     * @return List of vertices along the path from the source to the target vertex,
+     *         or null if there is no such path or the vertices are the same.
+     */
+    List<V> findPath(V source, V target);
+
+    /**
+     * Finds the cheapest cycle, which starts and ends at the specified vertex.
+     *
+     * @param vertex The start and end vertex of the cycle.
+     * @return List of vertices along the cycle, starting and ending with the
+     *         vertex, or null if the vertex is not part of a cycle.
+     */
+    List<V> findCycle(V vertex);
+
+    /**
+     * Finds the cheapest paths from the source to each of the targets. A target
+     * equal to the source gets the cheapest cycle through it.
+     * <p>
+     * By default every path is searched on its own. Engines with a one-to-many
+     * search answer all targets with a single search from the source.
+     *
+     * @param source The source vertex.
+     * @param targets The target vertices.
+     * @return The paths in the order of the targets, with null entries for the
+     *         targets that can't be reached.
+     */
+    default List<List<V>> findPaths(final V source, final List<V> targets) {
+        final List<List<V>> paths = new ArrayList<>(targets.size());
+        for (final V target : targets) {
+            paths.add(source.equals(target) ? findCycle(source) : findPath(source, target));
+        }
+        return paths;
+    }
+}
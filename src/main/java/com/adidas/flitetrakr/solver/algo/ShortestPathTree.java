@@ -0,0 +1,142 @@
+package com.adidas.flitetrakr.solver.algo;
+
+import com.adidas.flitetrakr.graph.GraphIndex;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Cheapest prices and predecessors of all vertices reachable from a source
+ * vertex, in compact arrays indexed by the vertex ids of a {@link GraphIndex}.
+ * <p>
+ * As in the cycle search of the {@link DijkstraMinimalDistance}, the edges of
+ * the source are relaxed right away, so the source itself gets the price of
+ * its cheapest cycle, and the tree answers cycle queries as well.
+ *
+ * @author Bogdan Zafirov
+ */
+final class ShortestPathTree {
+
+    private final int source;
+    private final long[] prices;
+    private final int[] predecessors;
+
+    private ShortestPathTree(final int source, final long[] prices, final int[] predecessors) {
+        this.source = source;
+        this.prices = prices;
+        this.predecessors = predecessors;
+    }
+
+    /**
+     * Runs a full dijkstra search from the source.
+     *
+     * @param index The graph index.
+     * @param source The source vertex id.
+     * @return The shortest path tree.
+     */
+    static ShortestPathTree compute(final GraphIndex<?> index, final int source) {
+        final int vertexCount = index.getVertexCount();
+        final long[] prices = new long[vertexCount];
+        final int[] predecessors = new int[vertexCount];
+
+        final SearchScratch scratch = SearchScratch.acquire(vertexCount, 0);
+        try {
+            final VertexHeap heap = scratch.getHeap();
+            relaxEdges(index, scratch, source, 0L);
+            while (!heap.isEmpty()) {
+                final int vertex = heap.peekVertex();
+                final long price = heap.peekKey();
+                heap.remove();
+                if (scratch.isSettled(vertex)) {
+                    continue;
+                }
+                scratch.settle(vertex);
+                relaxEdges(index, scratch, vertex, price);
+            }
+            for (int vertex = 0; vertex < vertexCount; vertex++) {
+                prices[vertex] = scratch.getDistance(vertex);
+                predecessors[vertex] = scratch.getPredecessor(vertex);
+            }
+        } finally {
+            scratch.release();
+        }
+        return new ShortestPathTree(source, prices, predecessors);
+    }
+
+    private static void relaxEdges(final GraphIndex<?> index, final SearchScratch scratch, final int vertex,
+                                   final long price) {
+        for (int edge = index.getEdgeStart(vertex); edge < index.getEdgeEnd(vertex); edge++) {
+            final int target = index.getEdgeTarget(edge);
+            final long targetPrice = price + index.getEdgePrice(edge);
+            if (!scratch.isSettled(target) && targetPrice < scratch.getDistance(target)) {
+                scratch.setDistance(target, targetPrice, vertex);
+                scratch.getHeap().add(target, targetPrice);
+            }
+        }
+    }
+
+    /**
+     * Estimates the memory of a tree for the given number of vertices.
+     *
+     * @param vertexCount The number of vertices.
+     * @return The estimated memory in bytes.
+     */
+    static long estimateMemory(final int vertexCount) {
+        /* Object header and fields, plus two arrays with a header of 16 bytes each. */
+        return 24 + 2 * 16 + (long) vertexCount * (Long.BYTES + Integer.BYTES);
+    }
+
+    int getSource() {
+        return source;
+    }
+
+    /**
+     * Returns the price of the cheapest path to the target.
+     *
+     * @param target The target vertex id; the source for the cheapest cycle.
+     * @return The price, or Long.MAX_VALUE if the target can't be reached.
+     */
+    long getPrice(final int target) {
+        return prices[target];
+    }
+
+    /**
+     * Creates the cheapest path from the source to the target.
+     *
+     * @param index The graph index of the tree.
+     * @param target The target vertex id; the source for the cheapest cycle.
+     * @param <V> The vertex type.
+     * @return The vertices along the path, or null if the target can't be reached.
+     */
+    <V> List<V> createPath(final GraphIndex<V> index, final int target) {
+        if (predecessors[target] == -1) {
+            return null;
+        }
+        final LinkedList<V> path = new LinkedList<V>();
+        int vertex = target;
+        path.addFirst(index.getVertex(vertex));
+        do {
+            vertex = predecessors[vertex];
+            path.addFirst(index.getVertex(vertex));
+        } while (vertex != source);
+        return path;
+    }
+
+    /**
+     * Creates the cheapest paths from the source to the targets.
+     *
+     * @param index The graph index of the tree.
+     * @param targets The target vertices; the source for the cheapest cycle.
+     * @param <V> The vertex type.
+     * @return The paths in the order of the targets, null for the targets which can't be reached.
+     */
+    <V> List<List<V>> createPaths(final GraphIndex<V> index, final List<V> targets) {
+        final List<List<V>> paths = new ArrayList<>(targets.size());
+        for (final V target : targets) {
+            final int targetId = index.getVertexId(target);
+            paths.add((targetId == -1) ? null : createPath(index, targetId));
+        }
+        return paths;
+    }
+}
@@ -0,0 +1,185 @@
+package com.adidas.flitetrakr.solver.algo;
+
+import com.adidas.flitetrakr.graph.GraphIndex;
+import com.adidas.flitetrakr.graph.SimpleGraph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Search engine keeping the shortest path trees of recently used source
+ * vertices.
+ * <p>
+ * Questions are usually skewed towards a few hub origins. Instead of a
+ * search which stops at the target, a miss computes the full
+ * {@link ShortestPathTree} of the source, and all later paths and cycles
+ * from the same source, as well as all paths of a {@link #findPaths(Object, List)}
+ * query, are read from the tree. The trees are kept in least
+ * recently used order and evicted once their estimated memory exceeds the
+ * budget. All trees are dropped as soon as the graph changes.
+ * <p>
+ * The engine can answer concurrent queries: the cache is synchronized, while
+ * the trees are computed and read outside the lock. Two threads missing the
+ * same source at once may both compute its tree.
+ *
+ * @param <V> The type vertex type.
+ * @param <E> The edge attribute type. The type must be a number (e.g. long, int, double).
+ * @author Bogdan Zafirov
+ */
+public class ShortestPathTreeCache<V, E extends Number> implements ShortestPathEngine<V> {
+
+    /**
+     * Default memory budget of the trees, 64 MiB.
+     */
+    public static final long DEFAULT_MEMORY_BUDGET = 64L << 20;
+
+    private final SimpleGraph<V, E> graph;
+    private final long memoryBudget;
+
+    /* Guarded by this. The index the trees belong to, and the trees in access order. */
+    private GraphIndex<V> index;
+    private final LinkedHashMap<Integer, ShortestPathTree> trees = new LinkedHashMap<>(16, 0.75f, true);
+    private long usedMemory;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    /**
+     * Creates the engine with the default memory budget.
+     *
+     * @param graph The input graph.
+     * @throws IllegalArgumentException Thrown if the graph is null.
+     */
+    public ShortestPathTreeCache(final SimpleGraph<V, E> graph) {
+        this(graph, DEFAULT_MEMORY_BUDGET);
+    }
+
+    /**
+     * Creates the engine.
+     *
+     * @param graph The input graph.
+     * @param memoryBudget The estimated memory in bytes the trees may use. At
+     *                     least the most recently used tree is always kept.
+     * @throws IllegalArgumentException Thrown if the graph is null or the budget is negative.
+     */
+    public ShortestPathTreeCache(final SimpleGraph<V, E> graph, final long memoryBudget) {
+        if (graph == null) {
+            throw new IllegalArgumentException("The graph can't be null.");
+        }
+        if (memoryBudget < 0) {
+            throw new IllegalArgumentException("The memory budget can't be negative.");
+        }
+        this.graph = graph;
+        this.memoryBudget = memoryBudget;
+    }
+
+    @Override
+    public List<V> findPath(final V source, final V target) {
+        final GraphIndex<V> current = GraphIndex.of(graph);
+        final int sourceId = current.getVertexId(source);
+        final int targetId = current.getVertexId(target);
+        if (sourceId == -1 || targetId == -1 || sourceId == targetId) {
+            return null;
+        }
+        return getTree(current, sourceId).createPath(current, targetId);
+    }
+
+    @Override
+    public List<V> findCycle(final V vertex) {
+        final GraphIndex<V> current = GraphIndex.of(graph);
+        final int vertexId = current.getVertexId(vertex);
+        if (vertexId == -1) {
+            return null;
+        }
+        return getTree(current, vertexId).createPath(current, vertexId);
+    }
+
+    @Override
+    public List<List<V>> findPaths(final V source, final List<V> targets) {
+        final GraphIndex<V> current = GraphIndex.of(graph);
+        final int sourceId = current.getVertexId(source);
+        if (sourceId == -1) {
+            return new ArrayList<>(Collections.<List<V>>nCopies(targets.size(), null));
+        }
+        return getTree(current, sourceId).createPaths(current, targets);
+    }
+
+    /**
+     * Returns the number of queries answered from a cached tree.
+     *
+     * @return The number of hits.
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Returns the number of queries which computed a new tree.
+     *
+     * @return The number of misses.
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Returns the number of trees evicted because of the memory budget.
+     *
+     * @return The number of evictions.
+     */
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Returns the number of cached trees.
+     *
+     * @return The number of trees.
+     */
+    public synchronized int size() {
+        return trees.size();
+    }
+
+    private ShortestPathTree getTree(final GraphIndex<V> current, final int source) {
+        synchronized (this) {
+            /* The trees of an older version of the graph are outdated. */
+            if (index != current) {
+                index = current;
+                trees.clear();
+                usedMemory = 0;
+            }
+            final ShortestPathTree tree = trees.get(source);
+            if (tree != null) {
+                hitCount++;
+                return tree;
+            }
+            missCount++;
+        }
+
+        final ShortestPathTree tree = ShortestPathTree.compute(current, source);
+        synchronized (this) {
+            if (index == current && !trees.containsKey(source)) {
+                trees.put(source, tree);
+                usedMemory += ShortestPathTree.estimateMemory(current.getVertexCount());
+                evict();
+            }
+        }
+        return tree;
+    }
+
+    /* Evicts the least recently used trees, keeping at least the newest one. */
+    private void evict() {
+        final long treeMemory = ShortestPathTree.estimateMemory(index.getVertexCount());
+        final Iterator<Map.Entry<Integer, ShortestPathTree>> iterator = trees.entrySet().iterator();
+        while (usedMemory > memoryBudget && trees.size() > 1) {
+            iterator.next();
+            iterator.remove();
+            usedMemory -= treeMemory;
+            evictionCount++;
+        }
+    }
+}
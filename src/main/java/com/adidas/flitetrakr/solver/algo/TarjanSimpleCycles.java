@@ -1,8 +1,12 @@
 package com.adidas.flitetrakr.solver.algo;
 
+import com.adidas.flitetrakr.graph.GraphIndex;
 import com.adidas.flitetrakr.graph.SimpleGraph;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * Implementation of the Tarjan's strongly connected components algorithm.
@@ -11,24 +15,36 @@ import java.util.*;
  * 1 implies a cycle, we can use this algorithm to find simple cycles in a graph.
  * Self loops in this case will not be found (this is not a requirement of
  * com.adidas.flitetrakr.main.FliteTrakr).
+ * <p>
+ * The search runs on the int-indexed {@link GraphIndex} of the graph and keeps
+ * its marks and stacks in reusable per-thread {@link SearchScratch} buffers, so
+ * one instance can be used by several threads at once.
+ * <p>
+ * The cycles can be streamed to a {@link CycleConsumer} as they are found,
+ * which can stop the enumeration early, and the enumeration can be restricted
+ * to the cycles through one vertex. Since every cycle lies within a strongly
+ * connected component of the {@link ComponentIndex}, the searches never leave
+ * the component of their start vertex and skip acyclic components entirely.
+ * <p>
+ * All cycles can also be found in parallel on the common fork-join pool. The
+ * start vertices are split into tasks, and so are the paths of a start vertex
+ * up to the split depth, so idle workers can steal the branches of a start
+ * vertex with many cycles. The results of the tasks are joined in the order
+ * of the start vertices and edges, so the cycles are the same and in the same
+ * order as those of the sequential enumeration.
  *
  * @param <V> The type vertex type.
  * @param <E> The edge attribute/payload type.
  * @author Bogdan Zafirov
  */
-public class TarjanSimpleCycles<V, E> {
+public class TarjanSimpleCycles<V, E extends Number> {
+
+    /* Number of vertices of the path prefixes, up to which the parallel search is split into tasks. */
+    private static final int SPLIT_DEPTH = 2;
 
     /* The graph. */
     private final SimpleGraph<V, E> graph;
 
-    /* Data structures used for the tarjan simple cycle */
-    private List<List<V>> cycles;
-    private Set<V> marked;
-    private ArrayDeque<V> markedVertices;
-    private ArrayDeque<V> pointVertices;
-    private Map<V, Integer> vertexIndexMap;
-    private Map<V, Set<V>> removedVertices;
-
     /**
      * Constructs the tarjan SCC algorithm.
      *
@@ -48,81 +64,281 @@ public class TarjanSimpleCycles<V, E> {
      * @return List of cycles in the graph.
      */
     public List<List<V>> findSimpleCycles() {
-        cycles = new ArrayList<List<V>>();
-        marked = new HashSet<V>();
-        markedVertices = new ArrayDeque<V>();
-        pointVertices = new ArrayDeque<V>();
-        vertexIndexMap = new HashMap<V, Integer>();
-        removedVertices = new HashMap<V, Set<V>>();
-
-        int index = 0;
-        for (final V v : graph.getAllVertices()) {
-            vertexIndexMap.put(v, index++);
-        }
-
-        for (final V currentVertex : graph.getAllVertices()) {
-            backtrack(currentVertex, currentVertex);
-            while (!markedVertices.isEmpty()) {
-                marked.remove(markedVertices.pop());
+        final List<List<V>> cycles = new ArrayList<>();
+        findSimpleCycles(cycles::add);
+        return cycles;
+    }
+
+    /**
+     * Finds all simple cycles in the graph and passes them to the consumer as they are found.
+     * Every cycle starts with its vertex with the smallest index.
+     *
+     * @param consumer The consumer of the cycles.
+     * @return True if all cycles were found, false if the consumer stopped the enumeration.
+     * @throws IllegalArgumentException Thrown if the consumer is null.
+     */
+    public boolean findSimpleCycles(final CycleConsumer<V> consumer) {
+        if (consumer == null) {
+            throw new IllegalArgumentException("The consumer can't be null.");
+        }
+        final ComponentIndex<V> components = ComponentIndex.of(graph);
+        final GraphIndex<V> index = components.getGraphIndex();
+        final SearchScratch scratch = SearchScratch.acquire(index.getVertexCount(), index.getEdgeCount());
+        try {
+            final Search search = new Search(index, scratch, components, false, consumer);
+            for (int start = 0; start < index.getVertexCount() && !search.stopped; start++) {
+                if (!components.isCyclic(components.getVertexComponent(start))) {
+                    continue;
+                }
+                search.backtrack(start, start);
+                while (search.markedSize > 0) {
+                    scratch.unsettle(search.markedVertices[--search.markedSize]);
+                }
             }
+            return !search.stopped;
+        } finally {
+            scratch.release();
+        }
+    }
+
+    /**
+     * Finds all simple cycles in the graph in parallel on the common fork-join pool.
+     * The cycles are the same and in the same order as those of {@link #findSimpleCycles()}.
+     *
+     * @return List of cycles in the graph.
+     */
+    public List<List<V>> findSimpleCyclesParallel() {
+        final ComponentIndex<V> components = ComponentIndex.of(graph);
+        if (components.getGraphIndex().getVertexCount() == 0) {
+            return new ArrayList<>();
+        }
+        return ForkJoinPool.commonPool().invoke(new StartTask(components, 0, components.getGraphIndex().getVertexCount()));
+    }
+
+    /**
+     * Finds the simple cycles through the vertex and passes them to the consumer as they are found.
+     * Every cycle starts with the vertex.
+     *
+     * @param vertex The vertex.
+     * @param consumer The consumer of the cycles.
+     * @return True if all cycles were found, false if the consumer stopped the enumeration.
+     * @throws IllegalArgumentException Thrown if the consumer is null.
+     */
+    public boolean findSimpleCycles(final V vertex, final CycleConsumer<V> consumer) {
+        if (consumer == null) {
+            throw new IllegalArgumentException("The consumer can't be null.");
+        }
+        final ComponentIndex<V> components = ComponentIndex.of(graph);
+        final GraphIndex<V> index = components.getGraphIndex();
+        final int start = index.getVertexId(vertex);
+        if (start == -1 || !components.isCyclic(components.getVertexComponent(start))) {
+            return true;
+        }
+        final SearchScratch scratch = SearchScratch.acquire(index.getVertexCount(), index.getEdgeCount());
+        try {
+            final Search search = new Search(index, scratch, components, true, consumer);
+            search.backtrack(start, start);
+            return !search.stopped;
+        } finally {
+            scratch.release();
         }
-        return cycles;
     }
 
-    private boolean backtrack(final V start, final V vertex) {
-        boolean foundCycle = false;
-        pointVertices.push(vertex);
-        marked.add(vertex);
-        markedVertices.push(vertex);
+    /**
+     * State of a single enumeration. The marked vertices are the settled vertices
+     * of the scratch, and the edges to excluded vertices are removed by flagging
+     * them: the vertices outside of the component of the start vertex and, unless
+     * only the cycles through the start vertex are searched, the vertices with a
+     * smaller id than the start vertex.
+     */
+    private final class Search {
+        private final GraphIndex<V> index;
+        private final SearchScratch scratch;
+        private final ComponentIndex<V> components;
+        private final boolean throughStart;
+        private final CycleConsumer<V> consumer;
+        private final int[] pointVertices;
+        private final int[] markedVertices;
+        private int pointSize;
+        private int markedSize;
+        private boolean stopped;
 
-        for (final V currentVertex : graph.getNeighbors(vertex)) {
-            if (getRemoved(vertex).contains(currentVertex)) {
-                continue;
+        private Search(final GraphIndex<V> index, final SearchScratch scratch, final ComponentIndex<V> components,
+                       final boolean throughStart, final CycleConsumer<V> consumer) {
+            this.index = index;
+            this.scratch = scratch;
+            this.components = components;
+            this.throughStart = throughStart;
+            this.consumer = consumer;
+            this.pointVertices = scratch.getStack();
+            this.markedVertices = scratch.getSecondStack();
+        }
+
+        /* Continues the search of the start vertex below the path prefix, which starts with it. */
+        private void backtrack(final int[] prefix) {
+            for (int i = 0; i < prefix.length - 1; i++) {
+                pointVertices[pointSize++] = prefix[i];
+                scratch.settle(prefix[i]);
+                markedVertices[markedSize++] = prefix[i];
             }
-            final int comparison = vertexIndexMap.get(currentVertex).compareTo(vertexIndexMap.get(start));
-            if (comparison < 0) {
-                getRemoved(vertex).add(currentVertex);
-            } else if (comparison == 0) {
-                foundCycle = true;
-                final List<V> cycle = new ArrayList<V>();
-                final Iterator<V> iterator = pointVertices.descendingIterator();
-
-                V v = null;
-                while (iterator.hasNext()) {
-                    v = iterator.next();
-                    if (start.equals(v)) {
-                        break;
-                    }
+            backtrack(prefix[0], prefix[prefix.length - 1]);
+        }
+
+        private boolean backtrack(final int start, final int vertex) {
+            boolean foundCycle = false;
+            pointVertices[pointSize++] = vertex;
+            scratch.settle(vertex);
+            markedVertices[markedSize++] = vertex;
+
+            for (int edge = index.getEdgeStart(vertex); edge < index.getEdgeEnd(vertex) && !stopped; edge++) {
+                if (visitNeighbor(start, edge)) {
+                    foundCycle = true;
                 }
+            }
 
-                cycle.add(start);
-                while (iterator.hasNext()) {
-                    cycle.add(iterator.next());
+            if (foundCycle) {
+                while (markedVertices[markedSize - 1] != vertex) {
+                    scratch.unsettle(markedVertices[--markedSize]);
                 }
-                cycles.add(cycle);
-            } else if (!marked.contains(currentVertex)) {
-                final boolean gotCycle = backtrack(start, currentVertex);
-                foundCycle = foundCycle || gotCycle;
+                scratch.unsettle(markedVertices[--markedSize]);
             }
+
+            pointSize--;
+            return foundCycle;
         }
 
-        if (foundCycle) {
-            while (!markedVertices.peek().equals(vertex)) {
-                marked.remove(markedVertices.pop());
+        private boolean visitNeighbor(final int start, final int edge) {
+            if (scratch.isEdgeFlagged(edge)) {
+                return false;
             }
-            marked.remove(markedVertices.pop());
+            final int currentVertex = index.getEdgeTarget(edge);
+            if (isExcluded(start, currentVertex)) {
+                scratch.flagEdge(edge);
+            } else if (currentVertex == start) {
+                /* The point stack holds the path from the start vertex. */
+                final List<V> cycle = new ArrayList<V>(pointSize);
+                for (int i = 0; i < pointSize; i++) {
+                    cycle.add(index.getVertex(pointVertices[i]));
+                }
+                stopped = !consumer.accept(cycle);
+                return true;
+            } else if (!scratch.isSettled(currentVertex)) {
+                return backtrack(start, currentVertex);
+            }
+            return false;
+        }
+
+        private boolean isExcluded(final int start, final int vertex) {
+            return (!throughStart && vertex < start)
+                    || components.getVertexComponent(vertex) != components.getVertexComponent(start);
+        }
+    }
+
+    /**
+     * Parallel enumeration of the cycles of a range of start vertices, split into halves.
+     */
+    private final class StartTask extends RecursiveTask<List<List<V>>> {
+        private static final long serialVersionUID = 1L;
+
+        private final ComponentIndex<V> components;
+        private final int from;
+        private final int to;
+
+        private StartTask(final ComponentIndex<V> components, final int from, final int to) {
+            this.components = components;
+            this.from = from;
+            this.to = to;
         }
 
-        pointVertices.pop();
-        return foundCycle;
+        @Override
+        protected List<List<V>> compute() {
+            if (to - from > 1) {
+                final int middle = (from + to) >>> 1;
+                final StartTask first = new StartTask(components, from, middle);
+                first.fork();
+                final List<List<V>> second = new StartTask(components, middle, to).compute();
+                final List<List<V>> cycles = first.join();
+                cycles.addAll(second);
+                return cycles;
+            }
+            if (!components.isCyclic(components.getVertexComponent(from))) {
+                return new ArrayList<>();
+            }
+            return new PrefixTask(components, new int[]{from}).compute();
+        }
     }
 
-    private Set<V> getRemoved(final V v) {
-        Set<V> result = removedVertices.get(v);
-        if (result == null) {
-            result = new HashSet<V>();
-            removedVertices.put(v, result);
+    /**
+     * Parallel enumeration of the cycles of a start vertex below a path prefix. Up to the split
+     * depth, every extension of the prefix becomes a subtask, below it the prefix is searched
+     * sequentially.
+     */
+    private final class PrefixTask extends RecursiveTask<List<List<V>>> {
+        private static final long serialVersionUID = 1L;
+
+        private final ComponentIndex<V> components;
+        private final int[] prefix;
+
+        private PrefixTask(final ComponentIndex<V> components, final int[] prefix) {
+            this.components = components;
+            this.prefix = prefix;
+        }
+
+        @Override
+        protected List<List<V>> compute() {
+            final GraphIndex<V> index = components.getGraphIndex();
+            final List<List<V>> cycles = new ArrayList<>();
+            if (prefix.length >= SPLIT_DEPTH) {
+                final SearchScratch scratch = SearchScratch.acquire(index.getVertexCount(), index.getEdgeCount());
+                try {
+                    new Search(index, scratch, components, false, cycles::add).backtrack(prefix);
+                } finally {
+                    scratch.release();
+                }
+                return cycles;
+            }
+
+            /* One entry per edge in edge order: null for a cycle closed by the edge, or a subtask. */
+            final int start = prefix[0];
+            final int vertex = prefix[prefix.length - 1];
+            final int edgeStart = index.getEdgeStart(vertex);
+            final List<PrefixTask> parts = new ArrayList<>();
+            final List<PrefixTask> tasks = new ArrayList<>();
+            for (int edge = edgeStart; edge < index.getEdgeEnd(vertex); edge++) {
+                final int target = index.getEdgeTarget(edge);
+                if (target == start) {
+                    parts.add(null);
+                } else if (target > start && components.getVertexComponent(target) == components.getVertexComponent(start)
+                        && !contains(target)) {
+                    final int[] extended = Arrays.copyOf(prefix, prefix.length + 1);
+                    extended[prefix.length] = target;
+                    final PrefixTask task = new PrefixTask(components, extended);
+                    parts.add(task);
+                    tasks.add(task);
+                }
+            }
+            ForkJoinTask.invokeAll(tasks);
+            for (final PrefixTask part : parts) {
+                if (part == null) {
+                    final List<V> cycle = new ArrayList<V>(prefix.length);
+                    for (final int prefixVertex : prefix) {
+                        cycle.add(index.getVertex(prefixVertex));
+                    }
+                    cycles.add(cycle);
+                } else {
+                    cycles.addAll(part.join());
+                }
+            }
+            return cycles;
+        }
+
+        private boolean contains(final int vertex) {
+            for (final int prefixVertex : prefix) {
+                if (prefixVertex == vertex) {
+                    return true;
+                }
+            }
+            return false;
         }
-        return result;
     }
 }
@@ -0,0 +1,101 @@
+package com.adidas.flitetrakr.solver.algo;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap of vertex ids, keyed by long distances.
+ * <p>
+ * The heap doesn't support a decrease-key operation. A vertex is added
+ * again when its distance decreases, and the outdated entries are skipped
+ * by the caller (lazy deletion). The arrays grow as needed and are reused
+ * after {@link #clear()}, so a heap doesn't allocate once it has reached
+ * its working size.
+ *
+ * @author Bogdan Zafirov
+ */
+class VertexHeap {
+
+    private long[] keys = new long[16];
+    private int[] vertices = new int[16];
+    private int size;
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Adds the vertex with the specified key to the heap.
+     *
+     * @param vertex The vertex id.
+     * @param key The key (distance) of the vertex.
+     */
+    public void add(final int vertex, final long key) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            vertices = Arrays.copyOf(vertices, size * 2);
+        }
+        int position = size++;
+        /* Sifting the new entry up. */
+        while (position > 0) {
+            final int parent = (position - 1) >>> 1;
+            if (keys[parent] <= key) {
+                break;
+            }
+            keys[position] = keys[parent];
+            vertices[position] = vertices[parent];
+            position = parent;
+        }
+        keys[position] = key;
+        vertices[position] = vertex;
+    }
+
+    /**
+     * Returns the key of the minimal entry.
+     *
+     * @return The minimal key.
+     */
+    public long peekKey() {
+        return keys[0];
+    }
+
+    /**
+     * Returns the vertex of the minimal entry.
+     *
+     * @return The vertex with the minimal key.
+     */
+    public int peekVertex() {
+        return vertices[0];
+    }
+
+    /**
+     * Removes the minimal entry from the heap.
+     */
+    public void remove() {
+        size--;
+        final long key = keys[size];
+        final int vertex = vertices[size];
+        int position = 0;
+        /* Sifting the last entry down from the root. */
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && keys[child + 1] < keys[child]) {
+                child++;
+            }
+            if (key <= keys[child]) {
+                break;
+            }
+            keys[position] = keys[child];
+            vertices[position] = vertices[child];
+            position = child;
+        }
+        keys[position] = key;
+        vertices[position] = vertex;
+    }
+}
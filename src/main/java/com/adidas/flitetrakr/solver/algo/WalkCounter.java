@@ -0,0 +1,250 @@
+package com.adidas.flitetrakr.solver.algo;
+
+import com.adidas.flitetrakr.exception.CountOverflowException;
+import com.adidas.flitetrakr.graph.GraphIndex;
+import com.adidas.flitetrakr.graph.SimpleGraph;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Counts the walks between two vertices with a bounded number of edges.
+ * <p>
+ * Unlike paths, walks may visit vertices and edges more than once. The
+ * walks are never materialized: for every length {@code l} the number of
+ * walks of length {@code l} from the source to every vertex is calculated
+ * from the counts for length {@code l - 1}, by pushing them over the
+ * outgoing edges. Counting the walks up to length {@code k} takes
+ * O(k * (V + E)) time and O(V) memory.
+ * <p>
+ * Walks of a single, very large length are counted by raising the adjacency
+ * count matrix to that power (exponentiation by squaring), which takes
+ * O(V^3 * log k) time and O(V^2) memory. This mode is selected automatically
+ * if it is cheaper than the dynamic programming.
+ * <p>
+ * The counts are calculated with saturating arithmetic, which is exact as long
+ * as the result is smaller than {@link Long#MAX_VALUE}. Larger results are
+ * reported with a {@link CountOverflowException}.
+ *
+ * @param <V> The type vertex type.
+ * @param <E> The edge attribute type. The type must be a number (e.g. long, int, double).
+ * @author Bogdan Zafirov
+ */
+public class WalkCounter<V, E extends Number> {
+
+    /* Minimal walk length, from which the matrix exponentiation is considered. */
+    private static final int MATRIX_POWER_THRESHOLD = 4096;
+    /* Matrix size, from which the matrix multiplication runs in parallel. */
+    private static final int PARALLEL_MATRIX_SIZE = 128;
+    /* Number of rows/columns in a block of the matrix multiplication. */
+    private static final int BLOCK_SIZE = 64;
+
+    private final SimpleGraph<V, E> graph;
+
+    public WalkCounter(final SimpleGraph<V, E> graph) {
+        if (graph == null) {
+            throw new IllegalArgumentException("The graph can't be null.");
+        }
+        this.graph = graph;
+    }
+
+    /**
+     * Counts the walks from the source to the destination vertex, which have
+     * at least {@code minLength} and at most {@code maxLength} edges.
+     *
+     * @param source      The source vertex.
+     * @param destination The destination vertex.
+     * @param minLength   The minimal number of edges.
+     * @param maxLength   The maximal number of edges.
+     * @return The number of walks.
+     * @throws IllegalArgumentException Thrown if the lengths are negative.
+     * @throws CountOverflowException Thrown if the number of walks doesn't fit into a long.
+     */
+    public long countWalks(final V source, final V destination, final int minLength, final int maxLength) {
+        if (minLength < 0 || maxLength < 0) {
+            throw new IllegalArgumentException("The walk length can't be negative.");
+        }
+        final GraphIndex<V> index = GraphIndex.of(graph);
+        final int sourceId = index.getVertexId(source);
+        final int destinationId = index.getVertexId(destination);
+        if (sourceId == -1 || destinationId == -1) {
+            return 0;
+        }
+
+        final long count;
+        if (minLength == maxLength && isMatrixPowerCheaper(index, maxLength)) {
+            count = countWalksByMatrixPower(index, sourceId, destinationId, maxLength);
+        } else {
+            count = countWalksByLength(index, sourceId, destinationId, minLength, maxLength);
+        }
+        if (count == Long.MAX_VALUE) {
+            throw new CountOverflowException("The number of walks exceeds " + (Long.MAX_VALUE - 1) + ".");
+        }
+        return count;
+    }
+
+    /**
+     * Counts the walks with exactly {@code length} edges from the source to the
+     * destination vertex, by exponentiation of the adjacency count matrix.
+     *
+     * @param source      The source vertex.
+     * @param destination The destination vertex.
+     * @param length      The number of edges.
+     * @return The number of walks.
+     * @throws IllegalArgumentException Thrown if the length is negative.
+     * @throws CountOverflowException Thrown if the number of walks doesn't fit into a long.
+     */
+    public long countWalksByMatrixPower(final V source, final V destination, final int length) {
+        if (length < 0) {
+            throw new IllegalArgumentException("The walk length can't be negative.");
+        }
+        final GraphIndex<V> index = GraphIndex.of(graph);
+        final int sourceId = index.getVertexId(source);
+        final int destinationId = index.getVertexId(destination);
+        if (sourceId == -1 || destinationId == -1) {
+            return 0;
+        }
+
+        final long count = countWalksByMatrixPower(index, sourceId, destinationId, length);
+        if (count == Long.MAX_VALUE) {
+            throw new CountOverflowException("The number of walks exceeds " + (Long.MAX_VALUE - 1) + ".");
+        }
+        return count;
+    }
+
+    private boolean isMatrixPowerCheaper(final GraphIndex<V> index, final int length) {
+        if (length < MATRIX_POWER_THRESHOLD) {
+            return false;
+        }
+        final double vertices = index.getVertexCount();
+        final double squarings = 32 - Integer.numberOfLeadingZeros(length);
+        final double matrixCost = vertices * vertices * vertices * squarings;
+        final double lengthCost = (double) length * (index.getVertexCount() + index.getEdgeCount());
+        return matrixCost < lengthCost;
+    }
+
+    private long countWalksByLength(final GraphIndex<V> index, final int sourceId, final int destinationId,
+                                    final int minLength, final int maxLength) {
+        /* Number of walks of the current length from the source to every vertex. */
+        long[] current = new long[index.getVertexCount()];
+        long[] next = new long[index.getVertexCount()];
+        current[sourceId] = 1;
+
+        long count = (minLength == 0 && sourceId == destinationId) ? 1 : 0;
+        for (int length = 1; length <= maxLength; length++) {
+            Arrays.fill(next, 0);
+            boolean reachable = false;
+            for (int v = 0; v < current.length; v++) {
+                if (current[v] == 0) {
+                    continue;
+                }
+                for (int edge = index.getEdgeStart(v); edge < index.getEdgeEnd(v); edge++) {
+                    final int target = index.getEdgeTarget(edge);
+                    next[target] = add(next[target], current[v]);
+                    reachable = true;
+                }
+            }
+            /* No walk of this length exists, therefore no longer walk exists either. */
+            if (!reachable) {
+                break;
+            }
+
+            final long[] swap = current;
+            current = next;
+            next = swap;
+            if (length >= minLength) {
+                count = add(count, current[destinationId]);
+            }
+        }
+        return count;
+    }
+
+    private long countWalksByMatrixPower(final GraphIndex<V> index, final int sourceId, final int destinationId,
+                                         final int length) {
+        final int size = index.getVertexCount();
+
+        /* The adjacency count matrix, raised to the powers of two. */
+        long[][] power = new long[size][size];
+        for (int v = 0; v < size; v++) {
+            for (int edge = index.getEdgeStart(v); edge < index.getEdgeEnd(v); edge++) {
+                power[v][index.getEdgeTarget(edge)]++;
+            }
+        }
+
+        /* Only the row of the source vertex of the result is needed. */
+        long[] walks = new long[size];
+        walks[sourceId] = 1;
+        for (int remaining = length; remaining > 0; remaining >>>= 1) {
+            if ((remaining & 1) == 1) {
+                walks = multiply(walks, power);
+            }
+            if (remaining > 1) {
+                power = multiply(power, power);
+            }
+        }
+        return walks[destinationId];
+    }
+
+    private static long[] multiply(final long[] vector, final long[][] matrix) {
+        final long[] result = new long[vector.length];
+        for (int k = 0; k < vector.length; k++) {
+            if (vector[k] == 0) {
+                continue;
+            }
+            final long[] row = matrix[k];
+            for (int j = 0; j < result.length; j++) {
+                result[j] = add(result[j], multiply(vector[k], row[j]));
+            }
+        }
+        return result;
+    }
+
+    private static long[][] multiply(final long[][] a, final long[][] b) {
+        final int size = a.length;
+        final long[][] result = new long[size][size];
+        final int blocks = (size + BLOCK_SIZE - 1) / BLOCK_SIZE;
+
+        /* The row blocks of the result are independent and are calculated in parallel for big matrices. */
+        IntStream rowBlocks = IntStream.range(0, blocks);
+        if (size >= PARALLEL_MATRIX_SIZE) {
+            rowBlocks = rowBlocks.parallel();
+        }
+        rowBlocks.forEach(block -> {
+            final int rowEnd = Math.min(size, (block + 1) * BLOCK_SIZE);
+            for (int kStart = 0; kStart < size; kStart += BLOCK_SIZE) {
+                final int kEnd = Math.min(size, kStart + BLOCK_SIZE);
+                for (int i = block * BLOCK_SIZE; i < rowEnd; i++) {
+                    final long[] resultRow = result[i];
+                    for (int k = kStart; k < kEnd; k++) {
+                        final long factor = a[i][k];
+                        if (factor == 0) {
+                            continue;
+                        }
+                        final long[] row = b[k];
+                        for (int j = 0; j < size; j++) {
+                            resultRow[j] = add(resultRow[j], multiply(factor, row[j]));
+                        }
+                    }
+                }
+            }
+        });
+        return result;
+    }
+
+    /* Saturating addition of non-negative numbers. */
+    private static long add(final long a, final long b) {
+        final long sum = a + b;
+        return (sum < 0) ? Long.MAX_VALUE : sum;
+    }
+
+    /* Saturating multiplication of non-negative numbers. */
+    private static long multiply(final long a, final long b) {
+        if (((a | b) >>> 31) == 0) {
+            return a * b;
+        }
+        if (a == 0 || b == 0) {
+            return 0;
+        }
+        return (a > Long.MAX_VALUE / b) ? Long.MAX_VALUE : a * b;
+    }
+}
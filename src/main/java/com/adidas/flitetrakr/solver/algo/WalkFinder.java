@@ -0,0 +1,146 @@
+package com.adidas.flitetrakr.solver.algo;
+
+import com.adidas.flitetrakr.exception.CountOverflowException;
+import com.adidas.flitetrakr.graph.GraphIndex;
+import com.adidas.flitetrakr.graph.SimpleGraph;
+import com.adidas.flitetrakr.util.Pair;
+
+import java.util.*;
+
+/**
+ * Finds all walks from one vertex (source) to another (destination), whose
+ * total price is below a limit, by performing a branch-and-bound depth-first
+ * search.
+ * <p>
+ * Unlike paths, walks may visit vertices and edges more than once. Before
+ * the search, the cheapest price from every vertex to the destination is
+ * calculated with a dijkstra search over the incoming edges. A branch is cut
+ * as soon as its price plus the cheapest price to the destination reaches the
+ * limit, therefore every explored walk prefix can be completed to a result and
+ * the cost of the search scales with the number of results.
+ * <p>
+ * Edge prices must not be negative. A cycle of zero-priced edges can be repeated
+ * without raising the price, so if one lies on a walk below the limit, there are
+ * infinitely many walks. The search detects this as soon as it returns to a vertex
+ * of the current walk without a higher price.
+ *
+ * @param <V> The type vertex type.
+ * @param <E> The edge attribute type. The type must be a number (e.g. long, int, double).
+ * @author Bogdan Zafirov
+ */
+public class WalkFinder<V, E extends Number> {
+
+    private final SimpleGraph<V, E> graph;
+
+    public WalkFinder(final SimpleGraph<V, E> graph) {
+        if (graph == null) {
+            throw new IllegalArgumentException("The graph can't be null.");
+        }
+        this.graph = graph;
+    }
+
+    /**
+     * Finds all walks with at least one edge from the source to the destination
+     * vertex, which are cheaper than the price limit. The walks are returned in
+     * depth-first order.
+     *
+     * @param source      The source vertex.
+     * @param destination The destination vertex.
+     * @param priceLimit  The (exclusive) price limit.
+     * @return List of pairs of walks and their prices.
+     * @throws IllegalArgumentException Thrown if an edge with a negative price is reached.
+     * @throws CountOverflowException Thrown if there are infinitely many walks below the price limit.
+     */
+    public List<Pair<List<V>, Long>> findWalksBelow(final V source, final V destination, final long priceLimit) {
+        final List<Pair<List<V>, Long>> walks = new ArrayList<>();
+        final GraphIndex<V> index = GraphIndex.of(graph);
+        final int sourceId = index.getVertexId(source);
+        final int destinationId = index.getVertexId(destination);
+        if (sourceId == -1 || destinationId == -1) {
+            return walks;
+        }
+
+        final SearchScratch scratch = SearchScratch.acquire(index.getVertexCount(), 0);
+        try {
+            findDistancesTo(index, scratch, destinationId);
+
+            /* The current walk, with the next edge to explore and the price for every vertex on it. */
+            int[] walk = new int[16];
+            int[] nextEdges = new int[16];
+            long[] prices = new long[16];
+            int depth = 0;
+            walk[0] = sourceId;
+            nextEdges[0] = index.getEdgeStart(sourceId);
+
+            while (depth >= 0) {
+                final int vertex = walk[depth];
+                if (nextEdges[depth] == index.getEdgeEnd(vertex)) {
+                    depth--;
+                    continue;
+                }
+                final int edge = nextEdges[depth]++;
+                if (index.getEdgePrice(edge) < 0) {
+                    throw new IllegalArgumentException("The edge prices can't be negative.");
+                }
+                final int target = index.getEdgeTarget(edge);
+                final long price = prices[depth] + index.getEdgePrice(edge);
+                /* Cutting the branch, if the destination can't be reached below the price limit. */
+                final long lowerBound = scratch.getDistance(target);
+                if (lowerBound == Long.MAX_VALUE || lowerBound >= priceLimit - price) {
+                    continue;
+                }
+                /* Returning to a vertex of the walk at the same price closes a zero-priced cycle. */
+                for (int i = depth; i >= 0 && prices[i] == price; i--) {
+                    if (walk[i] == target) {
+                        throw new CountOverflowException("Infinitely many walks are below the price limit.");
+                    }
+                }
+
+                depth++;
+                if (depth == walk.length) {
+                    walk = Arrays.copyOf(walk, depth * 2);
+                    nextEdges = Arrays.copyOf(nextEdges, depth * 2);
+                    prices = Arrays.copyOf(prices, depth * 2);
+                }
+                walk[depth] = target;
+                nextEdges[depth] = index.getEdgeStart(target);
+                prices[depth] = price;
+
+                if (target == destinationId) {
+                    final List<V> result = new ArrayList<>(depth + 1);
+                    for (int i = 0; i <= depth; i++) {
+                        result.add(index.getVertex(walk[i]));
+                    }
+                    walks.add(new Pair<>(result, price));
+                }
+            }
+        } finally {
+            scratch.release();
+        }
+        return walks;
+    }
+
+    /* Dijkstra search over the incoming edges, calculating the cheapest price from every vertex to the destination. */
+    private void findDistancesTo(final GraphIndex<V> index, final SearchScratch scratch, final int destination) {
+        scratch.setDistance(destination, 0, -1);
+
+        final VertexHeap heap = scratch.getHeap();
+        heap.add(destination, 0);
+        while (!heap.isEmpty()) {
+            final int vertex = heap.peekVertex();
+            final long distance = heap.peekKey();
+            heap.remove();
+            if (distance > scratch.getDistance(vertex)) {
+                continue;
+            }
+            for (int edge = index.getInEdgeStart(vertex); edge < index.getInEdgeEnd(vertex); edge++) {
+                final int source = index.getInEdgeSource(edge);
+                final long sourceDistance = distance + index.getInEdgePrice(edge);
+                if (sourceDistance < scratch.getDistance(source)) {
+                    scratch.setDistance(source, sourceDistance, vertex);
+                    heap.add(source, sourceDistance);
+                }
+            }
+        }
+    }
+}
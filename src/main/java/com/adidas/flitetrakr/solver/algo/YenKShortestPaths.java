@@ -0,0 +1,333 @@
+package com.adidas.flitetrakr.solver.algo;
+
+import com.adidas.flitetrakr.graph.GraphIndex;
+import com.adidas.flitetrakr.graph.SimpleGraph;
+import com.adidas.flitetrakr.util.Pair;
+
+import java.util.*;
+
+/**
+ * Implementation of Yen's algorithm for the k cheapest paths between two vertices.
+ * <p>
+ * The paths are simple, they don't pass a vertex twice; for the same source
+ * and destination vertex they are simple cycles. Every found path is split
+ * into a root path and a spur vertex, from which a spur search looks for the
+ * cheapest deviation: the vertices of the root path are blocked, as well as
+ * the edges leaving the spur vertex, which were taken by earlier paths with
+ * the same root. The deviations are the candidates for the next path.
+ * <p>
+ * The spur searches are A* searches, guided by the cheapest price from the
+ * vertices to the destination in the unrestricted graph. These prices are
+ * calculated once per query by a dijkstra search over the incoming edges,
+ * which stops as soon as the price of the first path is known; the vertices
+ * beyond get the price of the last settled vertex as their lower bound. The
+ * bounds are exact as long as the deviation doesn't touch a blocked vertex,
+ * so a spur search mostly settles the vertices along its result. Only the
+ * candidates, which can still be among the k paths, are kept, and a spur
+ * search stops as soon as it can't beat them. The work therefore depends on k and the length of
+ * the paths rather than the size of the graph.
+ *
+ * @param <V> The type vertex type.
+ * @param <E> The edge attribute type. The type must be a number (e.g. long, int, double).
+ * @author Bogdan Zafirov
+ */
+public class YenKShortestPaths<V, E extends Number> {
+
+    private final SimpleGraph<V, E> graph;
+
+    public YenKShortestPaths(final SimpleGraph<V, E> graph) {
+        if (graph == null) {
+            throw new IllegalArgumentException("The graph can't be null.");
+        }
+        this.graph = graph;
+    }
+
+    /**
+     * Finds the cheapest simple paths from the source to the destination vertex.
+     * If both vertices are the same, the cheapest simple cycles through it are found.
+     *
+     * @param source      The source vertex.
+     * @param destination The destination vertex.
+     * @param count       The maximal number of paths.
+     * @return List of pairs of paths and their prices, from the cheapest to the most expensive one.
+     * @throws IllegalArgumentException Thrown if the count isn't positive.
+     */
+    public List<Pair<List<V>, Long>> findPaths(final V source, final V destination, final int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("The number of paths must be positive.");
+        }
+        final List<Pair<List<V>, Long>> result = new ArrayList<>();
+        final GraphIndex<V> index = GraphIndex.of(graph);
+        final int sourceId = index.getVertexId(source);
+        final int destinationId = index.getVertexId(destination);
+        if (sourceId == -1 || destinationId == -1) {
+            return result;
+        }
+
+        final SearchScratch bounds = SearchScratch.acquire(index.getVertexCount(), 0);
+        try {
+            final long radius = findDistancesTo(index, bounds, sourceId, destinationId);
+            for (final Path path : new Search(index, bounds, radius, sourceId, destinationId).run(count)) {
+                final List<V> vertices = new ArrayList<>(path.vertices.length);
+                for (final int vertex : path.vertices) {
+                    vertices.add(index.getVertex(vertex));
+                }
+                result.add(new Pair<>(vertices, path.getPrice()));
+            }
+        } finally {
+            bounds.release();
+        }
+        return result;
+    }
+
+    /*
+     * Dijkstra search over the incoming edges, calculating the cheapest price from the vertices to the destination.
+     * The search stops as soon as the cheapest price from the source is known, which is the first path (or cycle).
+     * Returns the price up to which all vertices are settled, a lower bound of the price of the unsettled vertices.
+     */
+    private long findDistancesTo(final GraphIndex<V> index, final SearchScratch scratch, final int source,
+                                 final int destination) {
+        scratch.setDistance(destination, 0, -1);
+        long firstPrice = Long.MAX_VALUE;
+
+        final VertexHeap heap = scratch.getHeap();
+        heap.add(destination, 0);
+        while (!heap.isEmpty()) {
+            final int vertex = heap.peekVertex();
+            final long distance = heap.peekKey();
+            if (distance >= firstPrice) {
+                return distance;
+            }
+            heap.remove();
+            if (scratch.isSettled(vertex)) {
+                continue;
+            }
+            scratch.settle(vertex);
+            for (int edge = index.getInEdgeStart(vertex); edge < index.getInEdgeEnd(vertex); edge++) {
+                if (index.getInEdgePrice(edge) < 0) {
+                    throw new IllegalArgumentException("The edge prices can't be negative.");
+                }
+                final int edgeSource = index.getInEdgeSource(edge);
+                final long sourceDistance = distance + index.getInEdgePrice(edge);
+                /* An edge leaving the source, for a cycle the source itself is already settled. */
+                if (edgeSource == source) {
+                    firstPrice = Math.min(firstPrice, sourceDistance);
+                }
+                if (!scratch.isSettled(edgeSource) && sourceDistance < scratch.getDistance(edgeSource)) {
+                    scratch.setDistance(edgeSource, sourceDistance, vertex);
+                    heap.add(edgeSource, sourceDistance);
+                }
+            }
+        }
+        /* All vertices, from which the destination can be reached, are settled. */
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * A path with the prices from its first vertex to each of its vertices.
+     * Paths are ordered by their price, and by their vertex ids for equal prices.
+     */
+    private static final class Path implements Comparable<Path> {
+        private final int[] vertices;
+        private final long[] prices;
+
+        private Path(final int[] vertices, final long[] prices) {
+            this.vertices = vertices;
+            this.prices = prices;
+        }
+
+        private long getPrice() {
+            return prices[prices.length - 1];
+        }
+
+        private boolean startsWith(final Path other, final int length) {
+            if (vertices.length <= length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (vertices[i] != other.vertices[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int compareTo(final Path other) {
+            final int byPrice = Long.compare(getPrice(), other.getPrice());
+            if (byPrice != 0) {
+                return byPrice;
+            }
+            for (int i = 0; i < Math.min(vertices.length, other.vertices.length); i++) {
+                if (vertices[i] != other.vertices[i]) {
+                    return Integer.compare(vertices[i], other.vertices[i]);
+                }
+            }
+            return Integer.compare(vertices.length, other.vertices.length);
+        }
+    }
+
+    /**
+     * State of a single query.
+     */
+    private final class Search {
+        private final GraphIndex<V> index;
+        /* The cheapest prices to the destination of the settled vertices, and the lower bound of all others. */
+        private final SearchScratch bounds;
+        private final long radius;
+        private final int source;
+        private final int destination;
+        /* The edges to these vertices can't leave the current spur vertex. */
+        private int[] blockedNext = new int[4];
+        private int blockedNextCount;
+
+        private Search(final GraphIndex<V> index, final SearchScratch bounds, final long radius, final int source,
+                       final int destination) {
+            this.index = index;
+            this.bounds = bounds;
+            this.radius = radius;
+            this.source = source;
+            this.destination = destination;
+        }
+
+        private List<Path> run(final int count) {
+            final List<Path> paths = new ArrayList<>();
+            final Path first = findSpurPath(null, 0, Long.MAX_VALUE);
+            if (first == null) {
+                return paths;
+            }
+            paths.add(first);
+
+            /* Only the candidates, which can still be among the paths, are kept. */
+            final TreeSet<Path> candidates = new TreeSet<>();
+            while (paths.size() < count) {
+                final Path last = paths.get(paths.size() - 1);
+                final int needed = count - paths.size();
+                for (int spur = 0; spur < last.vertices.length - 1; spur++) {
+                    blockedNextCount = 0;
+                    for (final Path path : paths) {
+                        if (path.startsWith(last, spur + 1)) {
+                            blockNext(path.vertices[spur + 1]);
+                        }
+                    }
+                    final long priceLimit = (candidates.size() < needed) ? Long.MAX_VALUE : candidates.last().getPrice();
+                    final Path candidate = findSpurPath(last, spur, priceLimit);
+                    if (candidate != null && candidates.add(candidate) && candidates.size() > needed) {
+                        candidates.pollLast();
+                    }
+                }
+                if (candidates.isEmpty()) {
+                    break;
+                }
+                paths.add(candidates.pollFirst());
+            }
+            return paths;
+        }
+
+        private void blockNext(final int vertex) {
+            if (blockedNextCount == blockedNext.length) {
+                blockedNext = Arrays.copyOf(blockedNext, blockedNextCount * 2);
+            }
+            blockedNext[blockedNextCount++] = vertex;
+        }
+
+        private boolean isBlockedNext(final int vertex) {
+            for (int i = 0; i < blockedNextCount; i++) {
+                if (blockedNext[i] == vertex) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /*
+         * A* search from the spur vertex of the path (or the source, if there is no path yet) to
+         * the destination, avoiding the root path. Returns the root path joined with the found
+         * spur path, or null if there is none with a price up to the limit.
+         */
+        private Path findSpurPath(final Path path, final int spur, final long priceLimit) {
+            final int spurVertex = (path == null) ? source : path.vertices[spur];
+            final long rootPrice = (path == null) ? 0L : path.prices[spur];
+            final SearchScratch scratch = SearchScratch.acquire(index.getVertexCount(), 0);
+            try {
+                /* The root path is blocked, except the destination at the start of a cycle. */
+                for (int i = 0; i < spur; i++) {
+                    if (path.vertices[i] != destination) {
+                        scratch.settle(path.vertices[i]);
+                    }
+                }
+                final VertexHeap heap = scratch.getHeap();
+                if (spurVertex == destination) {
+                    /* The cycle starts with the edges of the destination, which is reached again at the end. */
+                    relaxEdges(scratch, spurVertex, spurVertex, 0L);
+                } else {
+                    scratch.setDistance(spurVertex, 0L, -1);
+                    heap.add(spurVertex, getBound(spurVertex));
+                }
+
+                while (!heap.isEmpty()) {
+                    final int vertex = heap.peekVertex();
+                    final long key = heap.peekKey();
+                    heap.remove();
+                    if (scratch.isSettled(vertex)) {
+                        continue;
+                    }
+                    if (rootPrice + key > priceLimit) {
+                        return null;
+                    }
+                    scratch.settle(vertex);
+                    if (vertex == destination) {
+                        return createPath(scratch, path, spur, spurVertex);
+                    }
+                    relaxEdges(scratch, spurVertex, vertex, scratch.getDistance(vertex));
+                }
+                return null;
+            } finally {
+                scratch.release();
+            }
+        }
+
+        private long getBound(final int vertex) {
+            return bounds.isSettled(vertex) ? bounds.getDistance(vertex) : radius;
+        }
+
+        private void relaxEdges(final SearchScratch scratch, final int spurVertex, final int vertex, final long price) {
+            for (int edge = index.getEdgeStart(vertex); edge < index.getEdgeEnd(vertex); edge++) {
+                final int target = index.getEdgeTarget(edge);
+                final long bound = getBound(target);
+                /* Skipping blocked and settled vertices, and vertices the destination can't be reached from. */
+                if (scratch.isSettled(target) || bound == Long.MAX_VALUE || (vertex == spurVertex && isBlockedNext(target))) {
+                    continue;
+                }
+                final long targetPrice = price + index.getEdgePrice(edge);
+                if (targetPrice < scratch.getDistance(target)) {
+                    scratch.setDistance(target, targetPrice, vertex);
+                    scratch.getHeap().add(target, targetPrice + bound);
+                }
+            }
+        }
+
+        private Path createPath(final SearchScratch scratch, final Path root, final int spur, final int spurVertex) {
+            /* Collecting the spur path backwards, up to the spur vertex. */
+            int length = 1;
+            for (int vertex = scratch.getPredecessor(destination); vertex != spurVertex; vertex = scratch.getPredecessor(vertex)) {
+                length++;
+            }
+            final int[] vertices = new int[spur + 1 + length];
+            final long[] prices = new long[vertices.length];
+            if (root != null) {
+                System.arraycopy(root.vertices, 0, vertices, 0, spur + 1);
+                System.arraycopy(root.prices, 0, prices, 0, spur + 1);
+            } else {
+                vertices[0] = spurVertex;
+            }
+            int vertex = destination;
+            for (int i = vertices.length - 1; i > spur; i--) {
+                vertices[i] = vertex;
+                prices[i] = prices[spur] + scratch.getDistance(vertex);
+                vertex = scratch.getPredecessor(vertex);
+            }
+            return new Path(vertices, prices);
+        }
+    }
+}
@@ -2,6 +2,8 @@ package com.adidas.flitetrakr.solver.factory;
 
 import com.adidas.flitetrakr.graph.SimpleGraph;
 import com.adidas.flitetrakr.solver.*;
+import com.adidas.flitetrakr.solver.algo.DijkstraMinimalDistance;
+import com.adidas.flitetrakr.solver.algo.ShortestPathEngine;
 
 /**
  * Solver factory.
@@ -17,27 +19,85 @@ public class SolverFactory {
      * 2. What is the cheapest connection form A to B?
      * 3: How many different connections with (minimum|maximum|exactly) X stops exists between A and B?
      * 4: Find all connections from A to B below X Euros!
+     * 5: What are the N cheapest connections from A to B?
      *
      * @param graph The input graph.
      * @return The created chain of solvers.
      * @throws IllegalArgumentException Thrown if the input graph is null.
      */
-    public Solver createSolverChain(final SimpleGraph<String, Long> graph) {
+    public Solver<String, Long> createSolverChain(final SimpleGraph<String, Long> graph) {
+        if(graph == null) {
+            throw new IllegalArgumentException("The input graph must not be null.");
+        }
+        return createSolverChain(graph, new DijkstraMinimalDistance<>(graph));
+    }
+
+    /**
+     * Creates the chain of graph solvers, where the cheapest connections are
+     * searched by the given engine, e.g. a {@link com.adidas.flitetrakr.solver.algo.ContractionHierarchyEngine}
+     * with a precomputed hierarchy.
+     *
+     * @param graph The input graph.
+     * @param engine The engine searching the cheapest connections in the input graph.
+     * @return The created chain of solvers.
+     * @throws IllegalArgumentException Thrown if the input graph or the engine is null.
+     */
+    public Solver<String, Long> createSolverChain(final SimpleGraph<String, Long> graph, final ShortestPathEngine<String> engine) {
         if(graph == null) {
             throw new IllegalArgumentException("The input graph must not be null.");
         }
 
         /* Creating the solvers. */
-        final ConnectionPriceSolver priceSolver = new ConnectionPriceSolver(graph);
-        final CheapestConnectionSolver cheapestConnectionSolver = new CheapestConnectionSolver(graph);
-        final AllConnectionsSolver allConnectionsSolver = new AllConnectionsSolver(graph);
-        final DifferentConnectionsSolver differentConnectionsSolver = new DifferentConnectionsSolver(graph);
+        final ConnectionPriceSolver<String, Long> priceSolver = new ConnectionPriceSolver<>(graph);
+        final CheapestConnectionSolver<String, Long> cheapestConnectionSolver = new CheapestConnectionSolver<>(graph, engine);
+        final CheapestConnectionsSolver<String, Long> cheapestConnectionsSolver = new CheapestConnectionsSolver<>(graph);
+        final AllConnectionsSolver<String, Long> allConnectionsSolver = new AllConnectionsSolver<>(graph);
+        final DifferentConnectionsSolver<String, Long> differentConnectionsSolver = new DifferentConnectionsSolver<>(graph);
 
         /* Chaining the solvers. */
         priceSolver.setSuccessor(cheapestConnectionSolver);
-        cheapestConnectionSolver.setSuccessor(allConnectionsSolver);
+        cheapestConnectionSolver.setSuccessor(cheapestConnectionsSolver);
+        cheapestConnectionsSolver.setSuccessor(allConnectionsSolver);
         allConnectionsSolver.setSuccessor(differentConnectionsSolver);
 
         return priceSolver;
     }
+
+    /**
+     * Creates a dispatcher, which answers the same questions as the chain of solvers,
+     * but parses every question once and routes it directly to its solver.
+     *
+     * @param graph The input graph.
+     * @return The created dispatcher.
+     * @throws IllegalArgumentException Thrown if the input graph is null.
+     */
+    public QueryDispatcher createQueryDispatcher(final SimpleGraph<String, Long> graph) {
+        if(graph == null) {
+            throw new IllegalArgumentException("The input graph must not be null.");
+        }
+        return createQueryDispatcher(graph, new DijkstraMinimalDistance<>(graph));
+    }
+
+    /**
+     * Creates the dispatcher, where the cheapest connections are searched by the given engine.
+     *
+     * @param graph The input graph.
+     * @param engine The engine searching the cheapest connections in the input graph.
+     * @return The created dispatcher.
+     * @throws IllegalArgumentException Thrown if the input graph or the engine is null.
+     */
+    public QueryDispatcher createQueryDispatcher(final SimpleGraph<String, Long> graph, final ShortestPathEngine<String> engine) {
+        if(graph == null) {
+            throw new IllegalArgumentException("The input graph must not be null.");
+        }
+
+        /* Creating the solvers. */
+        return new QueryDispatcher(graph,
+                new ConnectionPriceSolver<>(graph),
+                new CheapestConnectionSolver<>(graph, engine),
+                new CheapestConnectionsSolver<>(graph),
+                new AllConnectionsSolver<>(graph),
+                new DifferentConnectionsSolver<>(graph),
+                QueryDispatcher.DEFAULT_CACHE_SIZE);
+    }
 }
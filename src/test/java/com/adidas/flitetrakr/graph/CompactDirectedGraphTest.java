@@ -0,0 +1,162 @@
+package com.adidas.flitetrakr.graph;
+
+import com.adidas.flitetrakr.solver.CheapestConnectionSolver;
+import com.adidas.flitetrakr.util.Pair;
+import com.adidas.flitetrakr.util.Triple;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class CompactDirectedGraphTest {
+
+    @Test
+    public void graphCreation() {
+        CompactDirectedGraph graph = new CompactDirectedGraph.Builder()
+                .addEdge("A", "B", 5L)
+                .addEdge("C", "D", 5L)
+                .build();
+
+        assertEquals("Wrong number of vertices", 4, graph.getAllVertices().size());
+        assertEquals("Wrong number of edges", 2, graph.getEdgeCount());
+        assertTrue("Vertex is not part of graph", graph.containsVertex("A"));
+        assertFalse("Vertex shouldn't be part of graph", graph.containsVertex("E"));
+        assertTrue("An edge between A and B doesn't exist", graph.existsEdge("A", "B"));
+        assertTrue("An edge between C and D doesn't exist", graph.existsEdge("C", "D"));
+        assertFalse("An edge between B and A shouldn't exist", graph.existsEdge("B", "A"));
+        assertFalse("An edge between A and E shouldn't exist", graph.existsEdge("A", "E"));
+    }
+
+    @Test
+    public void vertexIds() {
+        CompactDirectedGraph graph = new CompactDirectedGraph.Builder()
+                .addEdge("NUE", "FRA", 43L)
+                .addEdge("FRA", "AMS", 17L)
+                .build();
+
+        assertEquals("Wrong vertex id", 0, graph.getVertexId("NUE"));
+        assertEquals("Wrong vertex id", 1, graph.getVertexId("FRA"));
+        assertEquals("Wrong vertex id", 2, graph.getVertexId("AMS"));
+        assertEquals("Wrong vertex id", -1, graph.getVertexId("LHR"));
+        assertEquals("Wrong vertex", "AMS", graph.getVertex(2));
+        assertArrayEquals("Wrong vertex order", new String[]{"NUE", "FRA", "AMS"}, graph.getAllVertices().toArray());
+    }
+
+    @Test
+    public void duplicateEdges() {
+        CompactDirectedGraph graph = new CompactDirectedGraph.Builder()
+                .addEdge("A", "B", 5L)
+                .addEdge("A", "C", 7L)
+                .addEdge("A", "B", 3L)
+                .build();
+
+        assertEquals("Wrong number of edges", 2, graph.getEdgeCount());
+        assertEquals("Wrong edge payload/attribute", new Long(3L), graph.getEdge("A", "B"));
+        assertEquals("Wrong edge payload/attribute", new Long(7L), graph.getEdge("A", "C"));
+    }
+
+    @Test
+    public void outgoingEdgesAndNeighbors() {
+        CompactDirectedGraph graph = new CompactDirectedGraph.Builder()
+                .addEdge("A", "D", 3L)
+                .addEdge("A", "B", 5L)
+                .addEdge("A", "C", 4L)
+                .addEdge("B", "A", 4L)
+                .build();
+
+        Set<Pair<String, Long>> outEdges = graph.getOutEdges("A");
+        assertEquals("Wrong number of outgoing edges", 3, outEdges.size());
+        assertTrue("Wrong output edges for vertex A", outEdges.contains(new Pair<String, Long>("B", 5L)));
+        assertTrue("Wrong output edges for vertex A", outEdges.contains(new Pair<String, Long>("C", 4L)));
+        assertTrue("Wrong output edges for vertex A", outEdges.contains(new Pair<String, Long>("D", 3L)));
+
+        Set<String> neighbors = graph.getNeighbors("A");
+        assertEquals("Wrong number of neighbors", 3, neighbors.size());
+        assertTrue("Vertex A doesn't have this neighbor", neighbors.contains("B"));
+        assertTrue("Vertex A doesn't have this neighbor", neighbors.contains("C"));
+        assertTrue("Vertex A doesn't have this neighbor", neighbors.contains("D"));
+        assertFalse("Vertex A shouldn't have this neighbor", neighbors.contains("A"));
+        assertTrue("Vertex C shouldn't have neighbors", graph.getNeighbors("C").isEmpty());
+    }
+
+    @Test
+    public void outgoingEdgeVisitor() {
+        CompactDirectedGraph graph = new CompactDirectedGraph.Builder()
+                .addEdge("A", "C", 4L)
+                .addEdge("A", "B", 5L)
+                .build();
+
+        List<String> targets = new ArrayList<>();
+        long[] totalPrice = new long[1];
+        graph.forEachOutEdgeAsLong("A", (dest, price) -> {
+            targets.add(dest);
+            totalPrice[0] += price;
+        });
+        assertArrayEquals("Wrong outgoing edges", new String[]{"C", "B"}, targets.toArray());
+        assertEquals("Wrong total edge payload", 9L, totalPrice[0]);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void immutableGraph() {
+        CompactDirectedGraph graph = new CompactDirectedGraph.Builder().addEdge("A", "B", 5L).build();
+        graph.addVertex("C");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void neighbors_IllegalVertex() {
+        CompactDirectedGraph graph = new CompactDirectedGraph.Builder().addEdge("A", "B", 5L).build();
+        graph.getNeighbors("C");
+    }
+
+    @Test
+    public void solverOnCompactGraph() {
+        List<Triple<String, String, Long>> connections = new ArrayList<>();
+        connections.add(new Triple<>("A", "B", 5L));
+        connections.add(new Triple<>("B", "C", 100L));
+        connections.add(new Triple<>("C", "A", 20L));
+        connections.add(new Triple<>("B", "D", 4L));
+        connections.add(new Triple<>("D", "C", 2L));
+        connections.add(new Triple<>("D", "E", 8L));
+        connections.add(new Triple<>("E", "F", 6L));
+        connections.add(new Triple<>("F", "C", 3L));
+        connections.add(new Triple<>("F", "A", 100L));
+
+        CheapestConnectionSolver<String, Long> solver = new CheapestConnectionSolver<>(CompactDirectedGraph.fromConnections(connections));
+
+        assertEquals("Wrong answer", "A-B-D-E-F-23", solver.solveQuestion("What is the cheapest connection from A to F?"));
+        assertEquals("Wrong answer", "A-B-D-C-A-31", solver.solveQuestion("What is the cheapest connection from A to A?"));
+    }
+
+    @Test
+    public void incomingEdges() {
+        CompactDirectedGraph graph = new CompactDirectedGraph.Builder()
+                .addEdge("C", "A", 3L)
+                .addEdge("B", "A", 2L)
+                .addEdge("A", "B", 1L)
+                .addEdge("B", "A", 4L)
+                .build();
+
+        assertEquals("Wrong number of predecessors", 2, graph.getPredecessors("A").size());
+        assertTrue("Vertex B should be a predecessor", graph.getPredecessors("A").contains("B"));
+        assertFalse("Vertex A shouldn't be a predecessor", graph.getPredecessors("A").contains("A"));
+        assertTrue("Vertex C shouldn't have predecessors", graph.getPredecessors("C").isEmpty());
+
+        List<String> sources = new ArrayList<>();
+        List<Long> prices = new ArrayList<>();
+        graph.forEachInEdge("A", (source, price) -> {
+            sources.add(source);
+            prices.add(price);
+        });
+        assertArrayEquals("Wrong incoming edges", new String[]{"C", "B"}, sources.toArray());
+        assertArrayEquals("Wrong edge payloads/attributes", new Long[]{3L, 4L}, prices.toArray());
+
+        /* The index shares the incoming edges of the graph. */
+        GraphIndex<String> index = GraphIndex.of(graph);
+        int a = index.getVertexId("A");
+        assertEquals("Wrong number of incoming edges", 2, index.getInEdgeEnd(a) - index.getInEdgeStart(a));
+        assertEquals("Wrong edge payload", 4L, index.getInEdgePrice(index.getInEdgeStart(a) + 1));
+    }
+}
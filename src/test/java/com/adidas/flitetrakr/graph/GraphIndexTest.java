@@ -0,0 +1,116 @@
+package com.adidas.flitetrakr.graph;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class GraphIndexTest {
+
+    @Test
+    public void indexOfSimpleGraph() {
+        SimpleGraph<String, Long> graph = new SimpleDirectedGraph<>();
+        graph.addVertex("A");
+        graph.addVertex("B");
+        graph.addVertex("C");
+        graph.addEdge("A", "B", 5L);
+        graph.addEdge("A", "C", 4L);
+        graph.addEdge("C", "A", 3L);
+
+        GraphIndex<String> index = GraphIndex.of(graph);
+        assertEquals("Wrong number of vertices", 3, index.getVertexCount());
+        assertEquals("Wrong number of edges", 3, index.getEdgeCount());
+        assertEquals("Wrong vertex id", -1, index.getVertexId("D"));
+
+        int a = index.getVertexId("A");
+        assertEquals("Wrong vertex", "A", index.getVertex(a));
+        assertEquals("Wrong number of outgoing edges", 2, index.getEdgeEnd(a) - index.getEdgeStart(a));
+        for (int edge = index.getEdgeStart(a); edge < index.getEdgeEnd(a); edge++) {
+            String target = index.getVertex(index.getEdgeTarget(edge));
+            assertEquals("Wrong edge payload", graph.getEdge("A", target).longValue(), index.getEdgePrice(edge));
+        }
+
+        int b = index.getVertexId("B");
+        assertEquals("Vertex B shouldn't have outgoing edges", index.getEdgeStart(b), index.getEdgeEnd(b));
+    }
+
+    @Test
+    public void cachedPerGraphVersion() {
+        SimpleGraph<String, Long> graph = new SimpleDirectedGraph<>();
+        graph.addVertex("A");
+        graph.addVertex("B");
+        graph.addEdge("A", "B", 5L);
+
+        GraphIndex<String> index = GraphIndex.of(graph);
+        assertSame("The snapshot should be cached", index, GraphIndex.of(graph));
+
+        graph.addEdge("B", "A", 5L);
+        GraphIndex<String> updated = GraphIndex.of(graph);
+        assertNotSame("The snapshot should be rebuilt", index, updated);
+        assertEquals("Wrong number of edges", 2, updated.getEdgeCount());
+        assertEquals("The old snapshot shouldn't change", 1, index.getEdgeCount());
+    }
+
+    @Test
+    public void cachedForSeveralGraphs() {
+        SimpleGraph<String, Long> first = new SimpleDirectedGraph<>();
+        first.addVertex("A");
+        SimpleGraph<String, Long> second = new SimpleDirectedGraph<>();
+        second.addVertex("A");
+        second.addVertex("B");
+
+        /* Alternating between the graphs returns the snapshot of each graph, not the latest one. */
+        GraphIndex<String> firstIndex = GraphIndex.of(first);
+        GraphIndex<String> secondIndex = GraphIndex.of(second);
+        assertEquals("Wrong number of vertices", 1, firstIndex.getVertexCount());
+        assertEquals("Wrong number of vertices", 2, secondIndex.getVertexCount());
+        assertSame("The snapshot should be cached", firstIndex, GraphIndex.of(first));
+        assertSame("The snapshot should be cached", secondIndex, GraphIndex.of(second));
+
+        /* Equal versions of different graphs aren't confused. */
+        first.addVertex("B");
+        first.addVertex("C");
+        GraphIndex<String> updated = GraphIndex.of(first);
+        assertEquals("Wrong number of vertices", 3, updated.getVertexCount());
+        assertSame("The snapshot should be cached", secondIndex, GraphIndex.of(second));
+        assertSame("The snapshot should be cached", updated, GraphIndex.of(first));
+    }
+
+    @Test
+    public void indexOfCompactGraph() {
+        CompactDirectedGraph graph = new CompactDirectedGraph.Builder()
+                .addEdge("NUE", "FRA", 43L)
+                .addEdge("FRA", "AMS", 17L)
+                .build();
+
+        GraphIndex<String> index = GraphIndex.of(graph);
+        assertEquals("Wrong number of vertices", 3, index.getVertexCount());
+        assertEquals("The vertex ids should match", graph.getVertexId("FRA"), index.getVertexId("FRA"));
+
+        int fra = index.getVertexId("FRA");
+        assertEquals("Wrong edge target", "AMS", index.getVertex(index.getEdgeTarget(index.getEdgeStart(fra))));
+        assertEquals("Wrong edge payload", 17L, index.getEdgePrice(index.getEdgeStart(fra)));
+    }
+
+    @Test
+    public void incomingEdges() {
+        CompactDirectedGraph graph = new CompactDirectedGraph.Builder()
+                .addEdge("A", "C", 1L)
+                .addEdge("B", "C", 2L)
+                .addEdge("C", "A", 3L)
+                .build();
+
+        GraphIndex<String> index = GraphIndex.of(graph);
+        int c = index.getVertexId("C");
+        assertEquals("Wrong number of incoming edges", 2, index.getInEdgeEnd(c) - index.getInEdgeStart(c));
+        long totalPrice = 0;
+        for (int edge = index.getInEdgeStart(c); edge < index.getInEdgeEnd(c); edge++) {
+            String source = index.getVertex(index.getInEdgeSource(edge));
+            assertEquals("Wrong edge payload", graph.getEdge(source, "C").longValue(), index.getInEdgePrice(edge));
+            totalPrice += index.getInEdgePrice(edge);
+        }
+        assertEquals("Wrong incoming edges", 3L, totalPrice);
+
+        int b = index.getVertexId("B");
+        assertEquals("Vertex B shouldn't have incoming edges", index.getInEdgeStart(b), index.getInEdgeEnd(b));
+    }
+}
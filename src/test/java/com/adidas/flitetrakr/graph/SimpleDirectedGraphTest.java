@@ -5,6 +5,8 @@ import static org.junit.Assert.*;
 import com.adidas.flitetrakr.util.Pair;
 import org.junit.Test;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
 
 public class SimpleDirectedGraphTest {
@@ -135,4 +137,70 @@ public class SimpleDirectedGraphTest {
         assertTrue("Vertex A doesn't have this neighbor", neighbors.contains("B"));
         assertTrue("Vertex A doesn't have this neighbor", neighbors.contains("C"));
     }
+
+    @Test
+    public void outgoingEdgeVisitor() {
+        SimpleGraph<String, Long> graph = new SimpleDirectedGraph<>();
+
+        graph.addVertex("A");
+        graph.addVertex("B");
+        graph.addVertex("C");
+        graph.addEdge("A", "B", 5L);
+        graph.addEdge("A", "C", 4L);
+
+        Map<String, Long> edges = new HashMap<>();
+        graph.forEachOutEdge("A", edges::put);
+        assertEquals("Wrong number of outgoing edges", 2, edges.size());
+        assertEquals("Wrong edge payload/attribute", new Long(5L), edges.get("B"));
+        assertEquals("Wrong edge payload/attribute", new Long(4L), edges.get("C"));
+
+        long[] totalPrice = new long[1];
+        graph.forEachOutEdgeAsLong("A", (dest, price) -> totalPrice[0] += price);
+        assertEquals("Wrong total edge payload", 9L, totalPrice[0]);
+    }
+
+    @Test
+    public void graphVersion() {
+        SimpleGraph<String, Long> graph = new SimpleDirectedGraph<>();
+        long version = graph.getVersion();
+
+        graph.addVertex("A");
+        assertNotEquals("Version didn't change after adding a vertex", version, graph.getVersion());
+
+        version = graph.getVersion();
+        graph.addVertex("A");
+        assertEquals("Version changed without a modification", version, graph.getVersion());
+
+        graph.addVertex("B");
+        version = graph.getVersion();
+        graph.addEdge("A", "B", 5L);
+        assertNotEquals("Version didn't change after adding an edge", version, graph.getVersion());
+    }
+
+    @Test
+    public void incomingEdges() {
+        SimpleGraph<String, Long> graph = new SimpleDirectedGraph<>();
+        graph.addVertex("A");
+        graph.addVertex("B");
+        graph.addVertex("C");
+        graph.addEdge("A", "C", 5L);
+        graph.addEdge("B", "C", 4L);
+        graph.addEdge("C", "A", 3L);
+
+        assertEquals("Wrong number of predecessors", 2, graph.getPredecessors("C").size());
+        assertTrue("Vertex A should be a predecessor", graph.getPredecessors("C").contains("A"));
+        assertTrue("Vertex B shouldn't have predecessors", graph.getPredecessors("B").isEmpty());
+
+        /* Overriding an edge updates its incoming edge as well. */
+        graph.addEdge("B", "C", 1L);
+        Map<String, Long> edges = new HashMap<>();
+        graph.forEachInEdge("C", edges::put);
+        assertEquals("Wrong number of incoming edges", 2, edges.size());
+        assertEquals("Wrong edge payload/attribute", new Long(5L), edges.get("A"));
+        assertEquals("Wrong edge payload/attribute", new Long(1L), edges.get("B"));
+
+        long[] totalPrice = new long[1];
+        graph.forEachInEdgeAsLong("C", (source, price) -> totalPrice[0] += price);
+        assertEquals("Wrong total edge payload", 6L, totalPrice[0]);
+    }
 }
@@ -0,0 +1,129 @@
+package com.adidas.flitetrakr.main;
+
+import com.adidas.flitetrakr.exception.UnsupportedQuestionException;
+import com.adidas.flitetrakr.graph.CompactDirectedGraph;
+import com.adidas.flitetrakr.solver.QueryDispatcher;
+import com.adidas.flitetrakr.solver.Solver;
+import com.adidas.flitetrakr.solver.factory.SolverFactory;
+import org.junit.Test;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class QuestionRunnerTest {
+
+    private static final String[] QUESTIONS = {
+            "#1: What is the price of the connection NUE-FRA-LHR?",
+            "#2: What is the price of the connection NUE-AMS-LHR?",
+            "#3: What is the cheapest connection from NUE to AMS?",
+            "#4: What is the cheapest connection from LHR to LHR?",
+            "#5: How many different connections with maximum 3 stops exists between NUE and FRA?",
+            "#6: Find all connections from NUE to LHR below 170 Euros!"
+    };
+
+    private static final String[] ANSWERS = {
+            "#1: 70",
+            "#2: No such connection found!",
+            "#3: NUE-FRA-AMS-60",
+            "#4: LHR-NUE-FRA-LHR-93",
+            "#5: 2",
+            "#6: NUE-FRA-LHR-70, NUE-FRA-LHR-NUE-FRA-LHR-163"
+    };
+
+    private final CompactDirectedGraph graph = new CompactDirectedGraph.Builder()
+            .addEdge("NUE", "FRA", 43L)
+            .addEdge("NUE", "AMS", 67L)
+            .addEdge("FRA", "AMS", 17L)
+            .addEdge("FRA", "LHR", 27L)
+            .addEdge("LHR", "NUE", 23L)
+            .build();
+
+    private final Solver<String, Long> solver = new SolverFactory().createSolverChain(graph);
+
+    @Test
+    public void sequentialAnswers() {
+        assertEquals("Wrong answers", expectedOutput(1), run(1, repeat(1)));
+    }
+
+    @Test
+    public void concurrentAnswersInQuestionOrder() {
+        /* More questions than may be in flight at once. */
+        assertEquals("Wrong answers", expectedOutput(500), run(4, repeat(500)));
+    }
+
+    @Test
+    public void unsupportedQuestion() {
+        final List<String> questions = repeat(10);
+        questions.add(5 * QUESTIONS.length, "#X What is the price of the connection NUE-FRA?");
+
+        final StringWriter output = new StringWriter();
+        try {
+            new QuestionRunner(solver, 4).run(questions.stream(), new PrintWriter(output));
+            fail("The question without a number should be rejected");
+        } catch (UnsupportedQuestionException e) {
+            /* Only the answers before the invalid question are written. */
+            assertEquals("Wrong answers", expectedOutput(5), output.toString());
+        }
+    }
+
+    @Test
+    public void batchAnswersInQuestionOrder() {
+        final QueryDispatcher dispatcher = new SolverFactory().createQueryDispatcher(graph);
+        assertEquals("Wrong answers", expectedOutput(1), run(new QuestionRunner(dispatcher, 1, true), repeat(1)));
+        assertEquals("Wrong answers", expectedOutput(500), run(new QuestionRunner(dispatcher, 4, true), repeat(500)));
+    }
+
+    @Test
+    public void unsupportedQuestionInBatch() {
+        final List<String> questions = repeat(10);
+        questions.add(5 * QUESTIONS.length, "#X What is the price of the connection NUE-FRA?");
+
+        final StringWriter output = new StringWriter();
+        try {
+            new QuestionRunner(new SolverFactory().createQueryDispatcher(graph), 4, true).run(questions.stream(), new PrintWriter(output));
+            fail("The question without a number should be rejected");
+        } catch (UnsupportedQuestionException e) {
+            /* Only the answers before the invalid question are written. */
+            assertEquals("Wrong answers", expectedOutput(5), output.toString());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidThreadCount() {
+        new QuestionRunner(solver, 0);
+    }
+
+    private String run(final int threads, final List<String> questions) {
+        return run(new QuestionRunner(solver, threads), questions);
+    }
+
+    private static String run(final QuestionRunner runner, final List<String> questions) {
+        final StringWriter output = new StringWriter();
+        runner.run(questions.stream(), new PrintWriter(output));
+        return output.toString();
+    }
+
+    private static List<String> repeat(final int times) {
+        final List<String> questions = new ArrayList<>();
+        for (int i = 0; i < times; i++) {
+            Stream.of(QUESTIONS).forEach(questions::add);
+        }
+        return questions;
+    }
+
+    private static String expectedOutput(final int times) {
+        final StringWriter expected = new StringWriter();
+        final PrintWriter out = new PrintWriter(expected);
+        for (int i = 0; i < times; i++) {
+            Stream.of(ANSWERS).forEach(out::println);
+        }
+        out.flush();
+        return expected.toString();
+    }
+}
@@ -0,0 +1,140 @@
+package com.adidas.flitetrakr.parse;
+
+import com.adidas.flitetrakr.graph.CompactDirectedGraph;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class MappedFileParserTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void parseConnectionsAndQuestions() throws IOException {
+        File file = write("Connections: NUE-FRA-43, NUE-AMS-67, FRA-AMS-17\n"
+                + "#1: What is the price of the connection NUE-FRA-AMS?\r\n"
+                + "#2: What is the cheapest connection from NUE to AMS?\n");
+
+        MappedFileParser parser = new MappedFileParser(file.getPath());
+        CompactDirectedGraph graph = parser.getGraph();
+        assertEquals("Wrong number of vertices", 3, graph.getVertexCount());
+        assertEquals("Wrong number of edges", 3, graph.getEdgeCount());
+        assertEquals("Wrong edge payload/attribute", new Long(43L), graph.getEdge("NUE", "FRA"));
+        assertEquals("Wrong edge payload/attribute", new Long(17L), graph.getEdge("FRA", "AMS"));
+        assertArrayEquals("Wrong vertex order", new String[]{"NUE", "FRA", "AMS"}, graph.getAllVertices().toArray());
+
+        List<String> questions = parser.getQuestions().collect(Collectors.toList());
+        assertEquals("Wrong number of questions", 2, questions.size());
+        assertEquals("Wrong question", "#1: What is the price of the connection NUE-FRA-AMS?", questions.get(0));
+        assertEquals("Wrong question", "#2: What is the cheapest connection from NUE to AMS?", questions.get(1));
+    }
+
+    @Test
+    public void sameResultAsFileReader() throws IOException {
+        File file = write("Connections:NUE -FRA- 43 ,  FRA-LHR-27,LHR-NUE-23\n\n#1: question\n");
+
+        CompactDirectedGraph expected = CompactDirectedGraph.fromConnections(new FileReader(file.getPath()).getConnections());
+        CompactDirectedGraph graph = new MappedFileParser(file.getPath()).getGraph();
+        assertArrayEquals("Wrong vertices", expected.getAllVertices().toArray(), graph.getAllVertices().toArray());
+        for (String source : expected.getAllVertices()) {
+            assertEquals("Wrong edges", expected.getOutEdges(source), graph.getOutEdges(source));
+        }
+
+        List<String> questions = new MappedFileParser(file.getPath()).getQuestions().collect(Collectors.toList());
+        try (Stream<String> expectedQuestions = new FileReader(file.getPath()).getQuestions()) {
+            assertEquals("Wrong questions", expectedQuestions.collect(Collectors.toList()), questions);
+        }
+    }
+
+    @Test
+    public void trailingComma() throws IOException {
+        File file = write("Connections: NUE-FRA-43, FRA-AMS-17,\n#1: question\n");
+
+        MappedFileParser parser = new MappedFileParser(file.getPath());
+        CompactDirectedGraph graph = parser.getGraph();
+        assertEquals("Wrong number of edges", new FileReader(file.getPath()).getConnections().size(), graph.getEdgeCount());
+        assertEquals("Wrong edge payload/attribute", new Long(17L), graph.getEdge("FRA", "AMS"));
+        assertEquals("Wrong questions", 1, parser.getQuestions().count());
+    }
+
+    @Test
+    public void tokensAcrossMappedRegions() throws IOException {
+        File file = write("Connections: M\u00fcnchen-Z\u00fcrich-120, Z\u00fcrich-M\u00fcnchen-95, Z\u00fcrich-AMS-80\n#1: \u00d6ffnungszeiten?");
+
+        /* Regions of 8 bytes, such that names, prices and lines span several regions. */
+        MappedFileParser parser = new MappedFileParser(file.getPath(), 3);
+        CompactDirectedGraph graph = parser.getGraph();
+        assertEquals("Wrong number of vertices", 3, graph.getVertexCount());
+        assertEquals("Wrong edge payload/attribute", new Long(120L), graph.getEdge("M\u00fcnchen", "Z\u00fcrich"));
+        assertEquals("Wrong edge payload/attribute", new Long(95L), graph.getEdge("Z\u00fcrich", "M\u00fcnchen"));
+        assertEquals("Wrong edge payload/attribute", new Long(80L), graph.getEdge("Z\u00fcrich", "AMS"));
+
+        List<String> questions = parser.getQuestions().collect(Collectors.toList());
+        assertEquals("Wrong questions", 1, questions.size());
+        assertEquals("Wrong question", "#1: \u00d6ffnungszeiten?", questions.get(0));
+    }
+
+    @Test
+    public void manyVertices() throws IOException {
+        StringBuilder header = new StringBuilder("Connections: ");
+        for (int i = 0; i < 1000; i++) {
+            header.append(i == 0 ? "" : ", ").append("V").append(i).append("-V").append((i + 1) % 1000).append("-").append(i + 1);
+        }
+        File file = write(header.toString());
+
+        MappedFileParser parser = new MappedFileParser(file.getPath());
+        CompactDirectedGraph graph = parser.getGraph();
+        assertEquals("Wrong number of vertices", 1000, graph.getVertexCount());
+        assertEquals("Wrong number of edges", 1000, graph.getEdgeCount());
+        assertEquals("Wrong edge payload/attribute", new Long(1000L), graph.getEdge("V999", "V0"));
+        assertEquals("Wrong number of questions", 0, parser.getQuestions().count());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void missingConnectionPrefix() throws IOException {
+        new MappedFileParser(write("NUE-FRA-43\n").getPath()).getGraph();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void missingPrice() throws IOException {
+        new MappedFileParser(write("Connections: NUE-FRA-43, FRA-AMS\n").getPath()).getGraph();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tooManyParts() throws IOException {
+        new MappedFileParser(write("Connections: NUE-FRA-AMS-43\n").getPath()).getGraph();
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void invalidPrice() throws IOException {
+        new MappedFileParser(write("Connections: NUE-FRA-4x3\n").getPath()).getGraph();
+    }
+
+    @Test
+    public void zeroPrice() throws IOException {
+        CompactDirectedGraph graph = new MappedFileParser(write("Connections: NUE-FRA-43, FRA-AMS-0\n").getPath()).getGraph();
+        assertEquals("Wrong edge payload/attribute", new Long(0L), graph.getEdge("FRA", "AMS"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void missingFile() {
+        new MappedFileParser(new File(folder.getRoot(), "missing.txt").getPath()).getGraph();
+    }
+
+    private File write(final String content) throws IOException {
+        File file = folder.newFile();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
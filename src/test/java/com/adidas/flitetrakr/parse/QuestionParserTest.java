@@ -0,0 +1,99 @@
+package com.adidas.flitetrakr.parse;
+
+import com.adidas.flitetrakr.exception.UnsupportedQuestionException;
+import com.adidas.flitetrakr.query.*;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class QuestionParserTest {
+
+    private final QuestionParser parser = new QuestionParser();
+
+    @Test
+    public void parseQuestions() {
+        ConnectionPriceQuery price = (ConnectionPriceQuery) parser.parse("What is the price of the connection NUE-FRA - LHR?");
+        assertEquals("Wrong type", Query.Type.CONNECTION_PRICE, price.getType());
+        assertEquals("Wrong route", Arrays.asList("NUE", "FRA", "LHR"), price.getRoute());
+
+        CheapestConnectionQuery cheapest = (CheapestConnectionQuery) parser.parse("What is the cheapest connection from NUE to AMS?");
+        assertEquals("Wrong source", "NUE", cheapest.getSource());
+        assertEquals("Wrong destination", "AMS", cheapest.getDestination());
+
+        CheapestConnectionsQuery cheapestN = (CheapestConnectionsQuery) parser.parse("What are the 3 cheapest connections from NUE to LHR?");
+        assertEquals("Wrong count", 3, cheapestN.getCount());
+        assertEquals("Wrong destination", "LHR", cheapestN.getDestination());
+
+        AllConnectionsQuery all = (AllConnectionsQuery) parser.parse("Find all connections from NUE to LHR below 170 Euros!");
+        assertEquals("Wrong source", "NUE", all.getSource());
+        assertEquals("Wrong price", 170L, all.getPriceLimit());
+
+        DifferentConnectionsQuery different = (DifferentConnectionsQuery) parser.parse(
+                "How many different connections with exactly 2 stops exists between NUE and FRA?");
+        assertEquals("Wrong comparison", DifferentConnectionsQuery.Comparison.EXACTLY, different.getComparison());
+        assertEquals("Wrong stops", 2, different.getStops());
+        assertEquals("Wrong destination", "FRA", different.getDestination());
+    }
+
+    @Test
+    public void airportsLikeQuestionWords() {
+        CheapestConnectionQuery cheapest = (CheapestConnectionQuery) parser.parse("What is the cheapest connection from Toronto to STO");
+        assertEquals("Wrong source", "Toronto", cheapest.getSource());
+        assertEquals("Wrong destination", "STO", cheapest.getDestination());
+
+        AllConnectionsQuery all = (AllConnectionsQuery) parser.parse("Find all connections from to to below below 10 Euro");
+        assertEquals("Wrong source", "to", all.getSource());
+        assertEquals("Wrong destination", "below", all.getDestination());
+
+        DifferentConnectionsQuery different = (DifferentConnectionsQuery) parser.parse(
+                "How many different connections with minimum 1 stop exist between and and Rand?");
+        assertEquals("Wrong source", "and", different.getSource());
+        assertEquals("Wrong destination", "Rand", different.getDestination());
+    }
+
+    @Test
+    public void multiWordAirports() {
+        CheapestConnectionQuery cheapest = (CheapestConnectionQuery) parser.parse("What is the cheapest connection from New York to Rio de Janeiro?");
+        assertEquals("Wrong source", "New York", cheapest.getSource());
+        assertEquals("Wrong destination", "Rio de Janeiro", cheapest.getDestination());
+
+        CheapestConnectionsQuery cheapestN = (CheapestConnectionsQuery) parser.parse("What are the 2 cheapest connections from Los  Angeles to San Jose?");
+        assertEquals("Wrong source", "Los  Angeles", cheapestN.getSource());
+        assertEquals("Wrong destination", "San Jose", cheapestN.getDestination());
+
+        AllConnectionsQuery all = (AllConnectionsQuery) parser.parse("Find all connections from Buenos Aires to Sao Paulo below 500 Euros!");
+        assertEquals("Wrong source", "Buenos Aires", all.getSource());
+        assertEquals("Wrong destination", "Sao Paulo", all.getDestination());
+        assertEquals("Wrong price", 500L, all.getPriceLimit());
+
+        DifferentConnectionsQuery different = (DifferentConnectionsQuery) parser.parse(
+                "How many different connections with maximum 3 stops exists between Hong Kong and Kuala Lumpur?");
+        assertEquals("Wrong source", "Hong Kong", different.getSource());
+        assertEquals("Wrong destination", "Kuala Lumpur", different.getDestination());
+    }
+
+    @Test
+    public void malformedQuestions() {
+        for (String question : new String[]{
+                "What is the cheapest connection from NUE?",
+                "What is the cheapest connection from NUE to?",
+                "What is the cheapest connection from NUE AMS?",
+                "What is the price of the connection NUE--FRA?",
+                "What are the -2 cheapest connections from NUE to LHR?",
+                "What are the 0 cheapest connections from NUE to LHR?",
+                "Find all connections from NUE to LHR below many Euros!",
+                "Find all connections from NUE to LHR below 99999999999999999999 Euros!",
+                "How many different connections with at most 3 stops exists between NUE and FRA?",
+                "What is the distance from NUE to FRA?",
+                ""}) {
+            try {
+                parser.parse(question);
+                fail("The question should be rejected: " + question);
+            } catch (UnsupportedQuestionException e) {
+                assertTrue("Wrong message", e.getMessage().contains(question));
+            }
+        }
+    }
+}
@@ -37,6 +37,25 @@ public class AllConnectionsSolverTest {
         assertEquals("Wrong answer", "A-B-D-A-93, A-B-D-A-B-D-A-186, A-B-D-A-B-D-A-B-D-A-279", answer3);
     }
 
+    @Test
+    public void findAllConnectionsMixingCycles() {
+        SimpleDirectedGraph<String, Long> graph = new SimpleDirectedGraph<String, Long>();
+
+        graph.addVertex("A");
+        graph.addVertex("B");
+        graph.addVertex("C");
+
+        graph.addEdge("A", "B", 10L);
+        graph.addEdge("B", "A", 10L);
+        graph.addEdge("B", "C", 1L);
+        graph.addEdge("C", "B", 1L);
+
+        AllConnectionsSolver<String, Long> solver = new AllConnectionsSolver<>(graph);
+
+        String answer = solver.solveQuestion("Find all connections from A to A below 25 Euros!");
+        assertEquals("Wrong answer", "A-B-A-20, A-B-C-B-A-22, A-B-C-B-C-B-A-24", answer);
+    }
+
     @Test
     public void noConnectionFound() {
         SimpleDirectedGraph<String, Long> graph = new SimpleDirectedGraph<String, Long>();
@@ -63,6 +82,27 @@ public class AllConnectionsSolverTest {
         assertEquals("Wrong answer", "No such connection found!", answer2);
     }
 
+    @Test
+    public void findAllConnectionsThroughFreeCycle() {
+        SimpleDirectedGraph<String, Long> graph = new SimpleDirectedGraph<String, Long>();
+
+        graph.addVertex("A");
+        graph.addVertex("B");
+        graph.addVertex("C");
+
+        graph.addEdge("A", "B", 10L);
+        graph.addEdge("B", "C", 0L);
+        graph.addEdge("C", "B", 0L);
+
+        AllConnectionsSolver<String, Long> solver = new AllConnectionsSolver<>(graph);
+
+        String answer1 = solver.solveQuestion("Find all connections from A to C below 20 Euros!");
+        assertEquals("Wrong answer", "Infinitely many connections exist!", answer1);
+
+        String answer2 = solver.solveQuestion("Find all connections from A to C below 10 Euros!");
+        assertEquals("Wrong answer", "No such connection found!", answer2);
+    }
+
     @Test(expected = UnsupportedQuestionException.class)
     public void unsupportedQuestion() {
         SimpleDirectedGraph<String, Long> graph = new SimpleDirectedGraph<String, Long>();
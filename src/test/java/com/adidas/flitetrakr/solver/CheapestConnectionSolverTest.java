@@ -2,8 +2,16 @@ package com.adidas.flitetrakr.solver;
 
 import com.adidas.flitetrakr.exception.UnsupportedQuestionException;
 import com.adidas.flitetrakr.graph.SimpleDirectedGraph;
+import com.adidas.flitetrakr.query.CheapestConnectionQuery;
+import com.adidas.flitetrakr.solver.algo.AllPairsShortestPaths;
+import com.adidas.flitetrakr.solver.algo.BidirectionalDijkstra;
+import com.adidas.flitetrakr.solver.algo.ContractionHierarchyEngine;
+import com.adidas.flitetrakr.solver.algo.ShortestPathTreeCache;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.Assert.assertEquals;
 
 public class CheapestConnectionSolverTest {
@@ -38,6 +46,18 @@ public class CheapestConnectionSolverTest {
 
         String answer2 = solver.solveQuestion("What is the cheapest connection from A to A?");
         assertEquals("Wrong answer", "A-B-D-C-A-31", answer2);
+
+        CheapestConnectionSolver<String, Long> bidirectionalSolver = new CheapestConnectionSolver<>(graph, new BidirectionalDijkstra<>(graph));
+        assertEquals("Wrong answer", answer1, bidirectionalSolver.solveQuestion("What is the cheapest connection from A to F?"));
+        assertEquals("Wrong answer", answer2, bidirectionalSolver.solveQuestion("What is the cheapest connection from A to A?"));
+
+        CheapestConnectionSolver<String, Long> hierarchySolver = new CheapestConnectionSolver<>(graph, new ContractionHierarchyEngine<>(graph));
+        assertEquals("Wrong answer", answer1, hierarchySolver.solveQuestion("What is the cheapest connection from A to F?"));
+        assertEquals("Wrong answer", answer2, hierarchySolver.solveQuestion("What is the cheapest connection from A to A?"));
+
+        CheapestConnectionSolver<String, Long> matrixSolver = new CheapestConnectionSolver<>(graph, AllPairsShortestPaths.build(graph));
+        assertEquals("Wrong answer", answer1, matrixSolver.solveQuestion("What is the cheapest connection from A to F?"));
+        assertEquals("Wrong answer", answer2, matrixSolver.solveQuestion("What is the cheapest connection from A to A?"));
     }
 
     @Test
@@ -72,6 +92,57 @@ public class CheapestConnectionSolverTest {
         assertEquals("Wrong answer", "No such connection found!", answer2);
     }
 
+    @Test
+    public void batchAnswers() {
+        SimpleDirectedGraph<String, Long> graph = new SimpleDirectedGraph<String, Long>();
+
+        graph.addVertex("A");
+        graph.addVertex("B");
+        graph.addVertex("C");
+        graph.addVertex("D");
+        graph.addVertex("E");
+        graph.addVertex("F");
+        graph.addVertex("G");
+
+        graph.addEdge("A", "B", 5L);
+        graph.addEdge("B", "C", 100L);
+        graph.addEdge("C", "A", 20L);
+        graph.addEdge("B", "D", 4L);
+        graph.addEdge("D", "C", 2L);
+        graph.addEdge("D", "E", 8L);
+        graph.addEdge("E", "F", 6L);
+        graph.addEdge("F", "C", 3L);
+        graph.addEdge("F", "A", 100L);
+        graph.addEdge("D", "G", 100L);
+
+        List<CheapestConnectionQuery> queries = new ArrayList<>();
+        queries.add(new CheapestConnectionQuery("A", "F"));
+        queries.add(new CheapestConnectionQuery("D", "A"));
+        queries.add(new CheapestConnectionQuery("G", "A"));
+        queries.add(new CheapestConnectionQuery("A", "A"));
+        queries.add(new CheapestConnectionQuery("X", "A"));
+        queries.add(new CheapestConnectionQuery("D", "G"));
+        queries.add(new CheapestConnectionQuery("A", "G"));
+
+        CheapestConnectionSolver<String, Long> solver = new CheapestConnectionSolver<>(graph);
+        List<String> expected = new ArrayList<>();
+        for (CheapestConnectionQuery query : queries) {
+            expected.add(solver.answer(query));
+        }
+        assertEquals("Wrong answer", "A-B-D-E-F-23", expected.get(0));
+        assertEquals("Wrong answer", "No such connection found!", expected.get(2));
+        assertEquals("Wrong answers", expected, solver.answerAll(queries));
+
+        CheapestConnectionSolver<String, Long> bidirectionalSolver = new CheapestConnectionSolver<>(graph, new BidirectionalDijkstra<>(graph));
+        assertEquals("Wrong answers", expected, bidirectionalSolver.answerAll(queries));
+
+        /* Without memory for more than one tree, the origins are still searched once each. */
+        ShortestPathTreeCache<String, Long> cache = new ShortestPathTreeCache<>(graph, 0L);
+        CheapestConnectionSolver<String, Long> cacheSolver = new CheapestConnectionSolver<>(graph, cache);
+        assertEquals("Wrong answers", expected, cacheSolver.answerAll(queries));
+        assertEquals("Wrong number of searches", 2, cache.getMissCount());
+    }
+
     @Test(expected = UnsupportedQuestionException.class)
     public void unsupportedQuestion() {
         SimpleDirectedGraph<String, Long> graph = new SimpleDirectedGraph<String, Long>();
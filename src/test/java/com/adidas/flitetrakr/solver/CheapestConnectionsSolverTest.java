@@ -0,0 +1,71 @@
+package com.adidas.flitetrakr.solver;
+
+import com.adidas.flitetrakr.exception.UnsupportedQuestionException;
+import com.adidas.flitetrakr.graph.SimpleDirectedGraph;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class CheapestConnectionsSolverTest {
+
+    @Test
+    public void cheapestConnections() {
+        SimpleDirectedGraph<String, Long> graph = new SimpleDirectedGraph<String, Long>();
+
+        graph.addVertex("NUE");
+        graph.addVertex("FRA");
+        graph.addVertex("AMS");
+        graph.addVertex("LHR");
+
+        graph.addEdge("NUE", "FRA", 43L);
+        graph.addEdge("NUE", "AMS", 67L);
+        graph.addEdge("FRA", "AMS", 17L);
+        graph.addEdge("FRA", "LHR", 27L);
+        graph.addEdge("LHR", "NUE", 23L);
+        graph.addEdge("AMS", "LHR", 30L);
+
+        CheapestConnectionsSolver<String, Long> solver = new CheapestConnectionsSolver<>(graph);
+
+        String answer1 = solver.solveQuestion("What are the 2 cheapest connections from NUE to LHR?");
+        assertEquals("Wrong answer", "NUE-FRA-LHR-70, NUE-FRA-AMS-LHR-90", answer1);
+
+        String answer2 = solver.solveQuestion("What are the 10 cheapest connections from NUE to LHR?");
+        assertEquals("Wrong answer", "NUE-FRA-LHR-70, NUE-FRA-AMS-LHR-90, NUE-AMS-LHR-97", answer2);
+
+        String answer3 = solver.solveQuestion("What are the 2 cheapest connections from LHR to LHR?");
+        assertEquals("Wrong answer", "LHR-NUE-FRA-LHR-93, LHR-NUE-FRA-AMS-LHR-113", answer3);
+
+        String answer4 = solver.solveQuestion("What are the 3 cheapest connections from AMS to AMS?");
+        assertEquals("Wrong answer", "AMS-LHR-NUE-FRA-AMS-113, AMS-LHR-NUE-AMS-120", answer4);
+    }
+
+    @Test
+    public void noConnectionFound() {
+        SimpleDirectedGraph<String, Long> graph = new SimpleDirectedGraph<String, Long>();
+
+        graph.addVertex("A");
+        graph.addVertex("B");
+        graph.addVertex("C");
+        graph.addEdge("A", "B", 5L);
+
+        CheapestConnectionsSolver<String, Long> solver = new CheapestConnectionsSolver<>(graph);
+        assertEquals("Wrong answer", "No such connection found!", solver.solveQuestion("What are the 3 cheapest connections from B to A?"));
+        assertEquals("Wrong answer", "No such connection found!", solver.solveQuestion("What are the 3 cheapest connections from A to A?"));
+    }
+
+    @Test(expected = UnsupportedQuestionException.class)
+    public void invalidCount() {
+        SimpleDirectedGraph<String, Long> graph = new SimpleDirectedGraph<String, Long>();
+        graph.addVertex("A");
+
+        new CheapestConnectionsSolver<>(graph).solveQuestion("What are the many cheapest connections from A to A?");
+    }
+
+    @Test(expected = UnsupportedQuestionException.class)
+    public void unsupportedQuestion() {
+        SimpleDirectedGraph<String, Long> graph = new SimpleDirectedGraph<String, Long>();
+        graph.addVertex("A");
+
+        new CheapestConnectionsSolver<>(graph).solveQuestion("What is the cheapest connection from A to A?");
+    }
+}
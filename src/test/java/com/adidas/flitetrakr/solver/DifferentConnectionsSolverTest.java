@@ -55,11 +55,85 @@ public class DifferentConnectionsSolverTest {
 
         DifferentConnectionsSolver<String, Long> solver = new DifferentConnectionsSolver<>(graph);
 
+        /* The cycle A-B-D-A lies on the connections from A to C. */
         String answer1 = solver.solveQuestion("How many different connections with minimum 1 stops exists between A and C?");
-        assertEquals("Wrong answer", "1", answer1);
+        assertEquals("Wrong answer", "Infinitely many connections exist!", answer1);
 
-        String answer2 = solver.solveQuestion("How many different connections with minimum 2 stops exists between A and C?");
-        assertEquals("Wrong answer", "0", answer2);
+        String answer2 = solver.solveQuestion("How many different connections with minimum 2 stops exists between B and B?");
+        assertEquals("Wrong answer", "Infinitely many connections exist!", answer2);
+
+        /* C has no outgoing edges, there are no connections from it. */
+        String answer3 = solver.solveQuestion("How many different connections with minimum 0 stops exists between C and A?");
+        assertEquals("Wrong answer", "0", answer3);
+    }
+
+    @Test
+    public void findDifferentPathsMinimumNumberOfStopsWithoutCycles() {
+        SimpleDirectedGraph<String, Long> graph = new SimpleDirectedGraph<String, Long>();
+
+        graph.addVertex("A");
+        graph.addVertex("B");
+        graph.addVertex("C");
+        graph.addVertex("D");
+        graph.addVertex("E");
+
+        /* The cycle D-E-D can't be reached from A. */
+        graph.addEdge("A", "B", 1L);
+        graph.addEdge("A", "C", 1L);
+        graph.addEdge("B", "C", 1L);
+        graph.addEdge("E", "D", 1L);
+        graph.addEdge("D", "E", 1L);
+        graph.addEdge("D", "A", 1L);
+
+        DifferentConnectionsSolver<String, Long> solver = new DifferentConnectionsSolver<>(graph);
+
+        String answer1 = solver.solveQuestion("How many different connections with minimum 0 stops exists between A and C?");
+        assertEquals("Wrong answer", "2", answer1);
+
+        String answer2 = solver.solveQuestion("How many different connections with minimum 1 stops exists between A and C?");
+        assertEquals("Wrong answer", "1", answer2);
+
+        String answer3 = solver.solveQuestion("How many different connections with minimum 2 stops exists between A and C?");
+        assertEquals("Wrong answer", "0", answer3);
+
+        String answer4 = solver.solveQuestion("How many different connections with minimum 0 stops exists between A and A?");
+        assertEquals("Wrong answer", "0", answer4);
+    }
+
+    @Test
+    public void minimumAndMaximumNumberOfStopsAgree() {
+        SimpleDirectedGraph<String, Long> graph = new SimpleDirectedGraph<String, Long>();
+
+        graph.addVertex("NUE");
+        graph.addVertex("FRA");
+        graph.addVertex("AMS");
+        graph.addVertex("LHR");
+
+        graph.addEdge("NUE", "FRA", 43L);
+        graph.addEdge("NUE", "AMS", 67L);
+        graph.addEdge("FRA", "AMS", 17L);
+        graph.addEdge("FRA", "LHR", 27L);
+        graph.addEdge("LHR", "NUE", 23L);
+
+        DifferentConnectionsSolver<String, Long> solver = new DifferentConnectionsSolver<>(graph);
+
+        /* Every connection with at most N stops has at least 0 stops, and the counts grow with N. */
+        long previous = 0;
+        for (int stops = 0; stops <= 8; stops++) {
+            long maximum = Long.parseLong(solver.solveQuestion(
+                    "How many different connections with maximum " + stops + " stops exists between NUE and AMS?"));
+            long exactly = Long.parseLong(solver.solveQuestion(
+                    "How many different connections with exactly " + stops + " stops exists between NUE and AMS?"));
+            assertEquals("Wrong answer", previous + exactly, maximum);
+            previous = maximum;
+        }
+        assertEquals("Wrong answer", 6L, previous);
+
+        /* The cycle NUE-FRA-LHR-NUE makes the number of connections with a minimum of stops infinite. */
+        assertEquals("Wrong answer", "Infinitely many connections exist!",
+                solver.solveQuestion("How many different connections with minimum 0 stops exists between NUE and AMS?"));
+        assertEquals("Wrong answer", "Infinitely many connections exist!",
+                solver.solveQuestion("How many different connections with minimum 2 stops exists between NUE and FRA?"));
     }
 
     @Test
@@ -96,6 +170,54 @@ public class DifferentConnectionsSolverTest {
         assertEquals("Wrong answer", "2", answer2);
     }
 
+    @Test
+    public void findDifferentPathsThroughIntermediateCycles() {
+        SimpleDirectedGraph<String, Long> graph = new SimpleDirectedGraph<String, Long>();
+
+        graph.addVertex("A");
+        graph.addVertex("B");
+        graph.addVertex("C");
+        graph.addVertex("D");
+
+        /* The cycle B-C-B doesn't contain the destination D. */
+        graph.addEdge("A", "B", 1L);
+        graph.addEdge("B", "C", 1L);
+        graph.addEdge("C", "B", 1L);
+        graph.addEdge("B", "D", 1L);
+
+        DifferentConnectionsSolver<String, Long> solver = new DifferentConnectionsSolver<>(graph);
+
+        String answer1 = solver.solveQuestion("How many different connections with maximum 5 stops exists between A and D?");
+        assertEquals("Wrong answer", "3", answer1);
+
+        String answer2 = solver.solveQuestion("How many different connections with exactly 3 stops exists between A and D?");
+        assertEquals("Wrong answer", "1", answer2);
+
+        String answer3 = solver.solveQuestion("How many different connections with maximum 20 stops exists between A and D?");
+        assertEquals("Wrong answer", "10", answer3);
+    }
+
+    @Test
+    public void findDifferentPathsCountOverflow() {
+        SimpleDirectedGraph<String, Long> graph = new SimpleDirectedGraph<String, Long>();
+
+        graph.addVertex("A");
+        graph.addVertex("B");
+
+        graph.addEdge("A", "A", 1L);
+        graph.addEdge("A", "B", 1L);
+        graph.addEdge("B", "A", 1L);
+        graph.addEdge("B", "B", 1L);
+
+        DifferentConnectionsSolver<String, Long> solver = new DifferentConnectionsSolver<>(graph);
+
+        String answer1 = solver.solveQuestion("How many different connections with exactly 62 stops exists between A and B?");
+        assertEquals("Wrong answer", Long.toString(1L << 62), answer1);
+
+        String answer2 = solver.solveQuestion("How many different connections with exactly 100000 stops exists between A and B?");
+        assertEquals("Wrong answer", "More than 9223372036854775806 connections exist!", answer2);
+    }
+
     @Test(expected = UnsupportedQuestionException.class)
     public void unsupportedQuestion() {
         SimpleDirectedGraph<String, Long> graph = new SimpleDirectedGraph<String, Long>();
@@ -0,0 +1,74 @@
+package com.adidas.flitetrakr.solver;
+
+import com.adidas.flitetrakr.exception.UnsupportedQuestionException;
+import com.adidas.flitetrakr.graph.CompactDirectedGraph;
+import com.adidas.flitetrakr.query.Query;
+import com.adidas.flitetrakr.solver.factory.SolverFactory;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class QueryDispatcherTest {
+
+    private static final String[] QUESTIONS = {
+            "What is the price of the connection NUE-FRA-LHR?",
+            "What is the price of the connection NUE-AMS-LHR?",
+            "What is the cheapest connection from NUE to AMS?",
+            "What is the cheapest connection from LHR to LHR?",
+            "What are the 2 cheapest connections from NUE to LHR?",
+            "How many different connections with maximum 3 stops exists between NUE and FRA?",
+            "How many different connections with exactly 2 stops exists between NUE and LHR?",
+            "Find all connections from NUE to LHR below 170 Euros!",
+            "Find all connections from LHR to BER below 170 Euros!"
+    };
+
+    private final CompactDirectedGraph graph = createGraph();
+
+    @Test
+    public void sameAnswersAsSolverChain() {
+        Solver<String, Long> chain = new SolverFactory().createSolverChain(graph);
+        QueryDispatcher dispatcher = new SolverFactory().createQueryDispatcher(graph);
+        for (String question : QUESTIONS) {
+            assertEquals("Wrong answer", chain.solveQuestion(question), dispatcher.solveQuestion(question));
+        }
+        assertEquals("Wrong answer", "NUE-FRA-AMS-60", dispatcher.solveQuestion("What is the cheapest connection from NUE to AMS?"));
+        assertEquals("Wrong answer", "No such connection found!", dispatcher.solveQuestion(QUESTIONS[8]));
+    }
+
+    @Test
+    public void cachedQueries() {
+        QueryDispatcher dispatcher = new SolverFactory().createQueryDispatcher(graph);
+        assertSame("The query should be cached", dispatcher.parse(QUESTIONS[2]), dispatcher.parse(QUESTIONS[2]));
+
+        QueryDispatcher withoutCache = new QueryDispatcher(graph, new ConnectionPriceSolver<>(graph),
+                new CheapestConnectionSolver<>(graph), new CheapestConnectionsSolver<>(graph),
+                new AllConnectionsSolver<>(graph), new DifferentConnectionsSolver<>(graph), 0);
+        assertNotSame("The query shouldn't be cached", withoutCache.parse(QUESTIONS[2]), withoutCache.parse(QUESTIONS[2]));
+        assertEquals("Wrong answer", "70", withoutCache.solveQuestion(QUESTIONS[0]));
+
+        /* The third question clears the full cache. */
+        QueryDispatcher smallCache = new QueryDispatcher(graph, new ConnectionPriceSolver<>(graph),
+                new CheapestConnectionSolver<>(graph), new CheapestConnectionsSolver<>(graph),
+                new AllConnectionsSolver<>(graph), new DifferentConnectionsSolver<>(graph), 2);
+        Query first = smallCache.parse(QUESTIONS[0]);
+        assertSame("The query should be cached", smallCache.parse(QUESTIONS[1]), smallCache.parse(QUESTIONS[1]));
+        smallCache.parse(QUESTIONS[2]);
+        assertNotSame("The query should be evicted", first, smallCache.parse(QUESTIONS[0]));
+    }
+
+    @Test(expected = UnsupportedQuestionException.class)
+    public void unsupportedQuestion() {
+        new SolverFactory().createQueryDispatcher(graph).solveQuestion("What is the distance from NUE to FRA?");
+    }
+
+    private static CompactDirectedGraph createGraph() {
+        final CompactDirectedGraph.Builder builder = new CompactDirectedGraph.Builder()
+                .addEdge("NUE", "FRA", 43L)
+                .addEdge("NUE", "AMS", 67L)
+                .addEdge("FRA", "AMS", 17L)
+                .addEdge("FRA", "LHR", 27L)
+                .addEdge("LHR", "NUE", 23L);
+        builder.addVertex("BER");
+        return builder.build();
+    }
+}
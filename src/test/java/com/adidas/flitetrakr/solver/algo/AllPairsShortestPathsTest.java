@@ -0,0 +1,114 @@
+package com.adidas.flitetrakr.solver.algo;
+
+import com.adidas.flitetrakr.graph.CompactDirectedGraph;
+import com.adidas.flitetrakr.graph.SimpleDirectedGraph;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static com.adidas.flitetrakr.solver.algo.ShortestPathFixtures.*;
+import static org.junit.Assert.*;
+
+public class AllPairsShortestPathsTest {
+
+    @Test
+    public void sameDistancesAsDijkstra() {
+        for (AllPairsShortestPaths.Algorithm algorithm : AllPairsShortestPaths.Algorithm.values()) {
+            assertSameDistancesAsDijkstra(graph -> AllPairsShortestPaths.build(graph, algorithm));
+        }
+    }
+
+    @Test
+    public void pricesOfPaths() {
+        CompactDirectedGraph graph = randomGraph(new Random(7), 150, 600);
+
+        for (AllPairsShortestPaths.Algorithm algorithm : AllPairsShortestPaths.Algorithm.values()) {
+            AllPairsShortestPaths<String> engine = AllPairsShortestPaths.build(graph, algorithm);
+            assertEquals("Wrong algorithm", algorithm, engine.getAlgorithm());
+            for (int source = 0; source < 150; source++) {
+                for (int target = 0; target < 150; target++) {
+                    String s = "V" + source, t = "V" + target;
+                    List<String> path = (source == target) ? engine.findCycle(s) : engine.findPath(s, t);
+                    assertEquals("Wrong price", (path == null) ? AllPairsShortestPaths.UNREACHABLE : price(graph, path),
+                            engine.getPrice(s, t));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void chooseAlgorithm() {
+        assertEquals("Wrong algorithm", AllPairsShortestPaths.Algorithm.DIJKSTRA, AllPairsShortestPaths.chooseAlgorithm(1000, 5000));
+        assertEquals("Wrong algorithm", AllPairsShortestPaths.Algorithm.FLOYD_WARSHALL, AllPairsShortestPaths.chooseAlgorithm(100, 5000));
+
+        /* The threshold is one in eight of all possible edges. */
+        assertEquals("Wrong algorithm", AllPairsShortestPaths.Algorithm.FLOYD_WARSHALL, AllPairsShortestPaths.chooseAlgorithm(80, 800));
+        assertEquals("Wrong algorithm", AllPairsShortestPaths.Algorithm.DIJKSTRA, AllPairsShortestPaths.chooseAlgorithm(80, 799));
+        assertEquals("Wrong algorithm", AllPairsShortestPaths.Algorithm.DIJKSTRA, AllPairsShortestPaths.chooseAlgorithm(1, 0));
+
+        CompactDirectedGraph denseGraph = randomGraph(new Random(3), 20, 200);
+        assertEquals("Wrong algorithm", AllPairsShortestPaths.Algorithm.FLOYD_WARSHALL, AllPairsShortestPaths.build(denseGraph).getAlgorithm());
+        CompactDirectedGraph sparseGraph = randomGraph(new Random(3), 200, 400);
+        assertEquals("Wrong algorithm", AllPairsShortestPaths.Algorithm.DIJKSTRA, AllPairsShortestPaths.build(sparseGraph).getAlgorithm());
+    }
+
+    @Test
+    public void estimateMemory() {
+        assertEquals("Wrong memory estimate", 0L, AllPairsShortestPaths.estimateMemory(0));
+        assertTrue("Wrong memory estimate", AllPairsShortestPaths.estimateMemory(10000) > 10000L * 10000L * 12L);
+    }
+
+    @Test
+    public void disconnectedGraph() {
+        SimpleDirectedGraph<String, Long> graph = new SimpleDirectedGraph<String, Long>();
+        graph.addVertex("A");
+        graph.addVertex("B");
+        graph.addVertex("C");
+        graph.addVertex("D");
+        graph.addEdge("A", "B", 2L);
+        graph.addEdge("B", "A", 3L);
+        graph.addEdge("C", "D", 1L);
+        graph.addEdge("D", "D", 4L);
+
+        for (AllPairsShortestPaths.Algorithm algorithm : AllPairsShortestPaths.Algorithm.values()) {
+            AllPairsShortestPaths<String> engine = AllPairsShortestPaths.build(graph, algorithm);
+            assertArrayEquals("Wrong shortest path", new String[]{"A", "B"}, engine.findPath("A", "B").toArray());
+            assertArrayEquals("Wrong shortest cycle", new String[]{"B", "A", "B"}, engine.findCycle("B").toArray());
+            assertArrayEquals("Wrong shortest cycle", new String[]{"D", "D"}, engine.findCycle("D").toArray());
+            assertEquals("Wrong price", 5L, engine.getPrice("A", "A"));
+            assertNull("The path shouldn't exist", engine.findPath("A", "D"));
+            assertNull("The cycle shouldn't exist", engine.findCycle("C"));
+            assertNull("The path shouldn't exist", engine.findPath("A", "X"));
+            assertEquals("Wrong price", AllPairsShortestPaths.UNREACHABLE, engine.getPrice("D", "C"));
+        }
+    }
+
+    @Test
+    public void changedGraph() {
+        SimpleDirectedGraph<String, Long> graph = new SimpleDirectedGraph<String, Long>();
+        graph.addVertex("A");
+        graph.addVertex("B");
+        graph.addVertex("C");
+        graph.addEdge("A", "B", 10L);
+        graph.addEdge("B", "C", 10L);
+
+        AllPairsShortestPaths<String> engine = AllPairsShortestPaths.build(graph);
+        long version = engine.getGraphVersion();
+        assertArrayEquals("Wrong shortest path", new String[]{"A", "B", "C"}, engine.findPath("A", "C").toArray());
+
+        /* The outdated matrices aren't used anymore, the paths are searched by the dijkstra fallback. */
+        graph.addVertex("D");
+        graph.addEdge("A", "C", 1L);
+        graph.addEdge("C", "A", 1L);
+        graph.addEdge("C", "D", 1L);
+        assertArrayEquals("Wrong shortest path", new String[]{"A", "C"}, engine.findPath("A", "C").toArray());
+        assertArrayEquals("Wrong shortest cycle", new String[]{"C", "A", "C"}, engine.findCycle("C").toArray());
+        assertArrayEquals("Wrong shortest path", new String[]{"A", "C", "D"}, engine.findPath("A", "D").toArray());
+
+        /* The matrices still describe the version they were computed for. */
+        assertEquals("Wrong graph version", version, engine.getGraphVersion());
+        assertEquals("Wrong price", 20L, engine.getPrice("A", "C"));
+        assertEquals("Wrong price", AllPairsShortestPaths.UNREACHABLE, engine.getPrice("A", "D"));
+    }
+}
@@ -0,0 +1,92 @@
+package com.adidas.flitetrakr.solver.algo;
+
+import com.adidas.flitetrakr.graph.SimpleDirectedGraph;
+import org.junit.Test;
+
+import static com.adidas.flitetrakr.solver.algo.ShortestPathFixtures.assertSameDistancesAsDijkstra;
+import static org.junit.Assert.*;
+
+public class BidirectionalDijkstraTest {
+
+    @Test
+    public void shortestPath() {
+        SimpleDirectedGraph<String, Long> graph = new SimpleDirectedGraph<String, Long>();
+
+        graph.addVertex("A");
+        graph.addVertex("B");
+        graph.addVertex("C");
+        graph.addVertex("D");
+        graph.addVertex("E");
+        graph.addVertex("F");
+
+        graph.addEdge("A", "B", 5L);
+        graph.addEdge("A", "E", 10L);
+        graph.addEdge("B", "C", 2L);
+        graph.addEdge("E", "D", 2L);
+        graph.addEdge("C", "D", 4L);
+        graph.addEdge("C", "F", 100L);
+        graph.addEdge("D", "F", 9L);
+
+        BidirectionalDijkstra<String, Long> engine = new BidirectionalDijkstra<>(graph);
+        assertArrayEquals("Wrong shortest path", new String[]{"A", "B", "C", "D", "F"}, engine.findPath("A", "F").toArray());
+        assertArrayEquals("Wrong shortest path", new String[]{"A", "B"}, engine.findPath("A", "B").toArray());
+        assertNull("The path shouldn't exist", engine.findPath("F", "A"));
+        assertNull("The path shouldn't exist", engine.findPath("A", "A"));
+        assertNull("The path shouldn't exist", engine.findPath("A", "X"));
+    }
+
+    @Test
+    public void shortestCycle() {
+        SimpleDirectedGraph<String, Long> graph = new SimpleDirectedGraph<String, Long>();
+
+        graph.addVertex("A");
+        graph.addVertex("B");
+        graph.addVertex("C");
+        graph.addVertex("D");
+
+        graph.addEdge("A", "B", 1L);
+        graph.addEdge("B", "A", 10L);
+        graph.addEdge("B", "C", 1L);
+        graph.addEdge("C", "A", 1L);
+        graph.addEdge("D", "D", 4L);
+        graph.addEdge("D", "A", 1L);
+        graph.addEdge("A", "D", 1L);
+
+        BidirectionalDijkstra<String, Long> engine = new BidirectionalDijkstra<>(graph);
+        assertArrayEquals("Wrong shortest cycle", new String[]{"A", "D", "A"}, engine.findCycle("A").toArray());
+        assertArrayEquals("Wrong shortest cycle", new String[]{"B", "C", "A", "B"}, engine.findCycle("B").toArray());
+        assertArrayEquals("Wrong shortest cycle", new String[]{"D", "A", "D"}, engine.findCycle("D").toArray());
+        assertNull("The cycle shouldn't exist", engine.findCycle("X"));
+
+        graph.addEdge("D", "D", 1L);
+        assertArrayEquals("Wrong shortest cycle", new String[]{"D", "D"}, engine.findCycle("D").toArray());
+    }
+
+    @Test
+    public void meetingPointOffTheCheapestPath() {
+        /*
+         * X is the first vertex settled by both searches (at 5 each), but the
+         * connection through it costs 10, while A-P-Q-T costs 9.
+         */
+        SimpleDirectedGraph<String, Long> graph = new SimpleDirectedGraph<String, Long>();
+        for (String vertex : new String[]{"A", "X", "P", "Q", "T"}) {
+            graph.addVertex(vertex);
+        }
+        graph.addEdge("A", "X", 5L);
+        graph.addEdge("X", "T", 5L);
+        graph.addEdge("A", "P", 3L);
+        graph.addEdge("P", "Q", 3L);
+        graph.addEdge("Q", "T", 3L);
+
+        BidirectionalDijkstra<String, Long> engine = new BidirectionalDijkstra<>(graph);
+        assertArrayEquals("Wrong shortest path", new String[]{"A", "P", "Q", "T"}, engine.findPath("A", "T").toArray());
+
+        graph.addEdge("T", "A", 1L);
+        assertArrayEquals("Wrong shortest cycle", new String[]{"A", "P", "Q", "T", "A"}, engine.findCycle("A").toArray());
+    }
+
+    @Test
+    public void sameDistancesAsDijkstra() {
+        assertSameDistancesAsDijkstra(BidirectionalDijkstra::new);
+    }
+}
@@ -0,0 +1,102 @@
+package com.adidas.flitetrakr.solver.algo;
+
+import com.adidas.flitetrakr.graph.CompactDirectedGraph;
+import com.adidas.flitetrakr.graph.GraphIndex;
+import com.adidas.flitetrakr.graph.SimpleDirectedGraph;
+import org.junit.Test;
+
+import java.util.*;
+
+import static com.adidas.flitetrakr.solver.algo.ShortestPathFixtures.randomGraph;
+import static org.junit.Assert.*;
+
+public class ComponentIndexTest {
+
+    @Test
+    public void findComponents() {
+        SimpleDirectedGraph<String, Long> graph = new SimpleDirectedGraph<String, Long>();
+        for (String vertex : new String[]{"A", "B", "C", "D", "E", "F"}) {
+            graph.addVertex(vertex);
+        }
+        graph.addEdge("A", "B", 1L);
+        graph.addEdge("B", "C", 1L);
+        graph.addEdge("C", "A", 1L);
+        graph.addEdge("C", "D", 1L);
+        graph.addEdge("D", "E", 1L);
+        graph.addEdge("E", "E", 1L);
+
+        ComponentIndex<String> components = ComponentIndex.of(graph);
+        assertEquals("Wrong number of components", 4, components.getComponentCount());
+        assertEquals("Wrong component", components.getComponent("A"), components.getComponent("C"));
+        assertNotEquals("Wrong component", components.getComponent("A"), components.getComponent("D"));
+        assertEquals("Unknown vertex", -1, components.getComponent("X"));
+        assertTrue("The component should be cyclic", components.isCyclic(components.getComponent("B")));
+        assertTrue("The self loop should be cyclic", components.isCyclic(components.getComponent("E")));
+        assertFalse("The component shouldn't be cyclic", components.isCyclic(components.getComponent("D")));
+
+        assertTrue("The connection should exist", components.hasConnection("B", "E"));
+        assertTrue("The cycle should exist", components.hasConnection("A", "A"));
+        assertFalse("The cycle shouldn't exist", components.hasConnection("D", "D"));
+        assertFalse("The connection shouldn't exist", components.hasConnection("E", "A"));
+        assertFalse("The connection shouldn't exist", components.hasConnection("A", "F"));
+        assertFalse("The connection shouldn't exist", components.hasConnection("A", "X"));
+
+        /* The index follows the changes of the graph. */
+        graph.addEdge("E", "A", 1L);
+        assertSame("The index should be cached", ComponentIndex.of(graph), ComponentIndex.of(graph));
+        assertEquals("Wrong number of components", 2, ComponentIndex.of(graph).getComponentCount());
+        assertTrue("The connection should exist", ComponentIndex.of(graph).hasConnection("E", "A"));
+    }
+
+    @Test
+    public void sameReachabilityAsSearch() {
+        Random random = new Random(7);
+        for (int round = 0; round < 20; round++) {
+            CompactDirectedGraph graph = randomGraph(random, 60, 20 + round * 4);
+            assertSameReachability(graph, random, 60 * 60);
+        }
+    }
+
+    @Test
+    public void reachabilityWithoutBitsets() {
+        /* Too many components for the bitsets, the condensation is searched instead. */
+        int vertices = 30000;
+        assertTrue("The bitsets should exceed the limit",
+                ComponentIndex.estimateReachabilityMemory(vertices) > ComponentIndex.REACHABILITY_MEMORY_LIMIT);
+        CompactDirectedGraph graph = randomGraph(new Random(3), vertices, vertices);
+        assertSameReachability(graph, new Random(5), 500);
+    }
+
+    private static void assertSameReachability(final CompactDirectedGraph graph, final Random random, final int queries) {
+        GraphIndex<String> index = GraphIndex.of(graph);
+        ComponentIndex<String> components = ComponentIndex.of(graph);
+        int vertices = index.getVertexCount();
+        for (int query = 0; query < queries; query++) {
+            int source = random.nextInt(vertices), target = random.nextInt(vertices);
+            boolean[] reached = reachedVertices(index, source);
+            assertEquals("Wrong reachability from " + source + " to " + target, reached[target],
+                    components.hasConnection(index.getVertex(source), index.getVertex(target)));
+            boolean sameComponent = components.getVertexComponent(source) == components.getVertexComponent(target);
+            assertEquals("Wrong component", source == target || (reached[target] && reachedVertices(index, target)[source]),
+                    sameComponent);
+        }
+    }
+
+    /* The vertices reached from the source with at least one edge. */
+    private static boolean[] reachedVertices(final GraphIndex<String> index, final int source) {
+        boolean[] reached = new boolean[index.getVertexCount()];
+        Deque<Integer> queue = new ArrayDeque<>();
+        queue.add(source);
+        while (!queue.isEmpty()) {
+            int vertex = queue.poll();
+            for (int edge = index.getEdgeStart(vertex); edge < index.getEdgeEnd(vertex); edge++) {
+                int target = index.getEdgeTarget(edge);
+                if (!reached[target]) {
+                    reached[target] = true;
+                    queue.add(target);
+                }
+            }
+        }
+        return reached;
+    }
+}
@@ -0,0 +1,90 @@
+package com.adidas.flitetrakr.solver.algo;
+
+import com.adidas.flitetrakr.graph.CompactDirectedGraph;
+
+import java.util.Random;
+
+import static com.adidas.flitetrakr.solver.algo.ShortestPathFixtures.price;
+
+/**
+ * Benchmark of the {@link ContractionHierarchyEngine} against the plain
+ * {@link DijkstraMinimalDistance} on synthetic graphs. It isn't run by the
+ * tests, but started with the vertex counts as arguments, e.g.
+ * {@code 10000 100000 1000000} (the default).
+ * <p>
+ * The synthetic graphs are grids with random prices in both directions,
+ * similar to a network of routes between neighboring places.
+ *
+ * @author Bogdan Zafirov
+ */
+public class ContractionHierarchyBenchmark {
+
+    private static final int QUERIES = 1000;
+
+    public static void main(final String[] args) {
+        final String[] sizes = (args.length > 0) ? args : new String[]{"10000", "100000", "1000000"};
+        for (final String size : sizes) {
+            run(Integer.parseInt(size));
+        }
+    }
+
+    private static void run(final int vertexCount) {
+        final Random random = new Random(vertexCount);
+        final CompactDirectedGraph graph = syntheticGraph(random, vertexCount);
+
+        long start = System.nanoTime();
+        final ContractionHierarchy<String> hierarchy = ContractionHierarchy.build(graph);
+        final long preprocessing = System.nanoTime() - start;
+
+        final DijkstraMinimalDistance<String, Long> dijkstra = new DijkstraMinimalDistance<>(graph);
+        final ContractionHierarchyEngine<String, Long> engine = new ContractionHierarchyEngine<>(graph, hierarchy);
+        final String[] sources = new String[QUERIES];
+        final String[] targets = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            sources[i] = "V" + random.nextInt(vertexCount);
+            targets[i] = "V" + random.nextInt(vertexCount);
+        }
+
+        final long[] dijkstraPrices = new long[QUERIES];
+        start = System.nanoTime();
+        for (int i = 0; i < QUERIES; i++) {
+            dijkstraPrices[i] = price(graph, dijkstra.findPath(sources[i], targets[i]));
+        }
+        final long dijkstraTime = System.nanoTime() - start;
+
+        final long[] hierarchyPrices = new long[QUERIES];
+        start = System.nanoTime();
+        for (int i = 0; i < QUERIES; i++) {
+            hierarchyPrices[i] = price(graph, engine.findPath(sources[i], targets[i]));
+        }
+        final long hierarchyTime = System.nanoTime() - start;
+
+        int mismatches = 0;
+        for (int i = 0; i < QUERIES; i++) {
+            mismatches += (dijkstraPrices[i] != hierarchyPrices[i]) ? 1 : 0;
+        }
+        System.out.printf("%,d vertices, %,d edges: preprocessing %,d ms, %,d shortcuts%n",
+                vertexCount, graph.getEdgeCount(), preprocessing / 1000000, hierarchy.getShortcutCount());
+        System.out.printf("  dijkstra %,d us/query, contraction hierarchy %,d us/query, %d wrong prices%n",
+                dijkstraTime / 1000 / QUERIES, hierarchyTime / 1000 / QUERIES, mismatches);
+    }
+
+    private static CompactDirectedGraph syntheticGraph(final Random random, final int vertexCount) {
+        final int width = (int) Math.ceil(Math.sqrt(vertexCount));
+        final CompactDirectedGraph.Builder builder = new CompactDirectedGraph.Builder();
+        for (int i = 0; i < vertexCount; i++) {
+            builder.addVertex("V" + i);
+        }
+        for (int i = 0; i < vertexCount; i++) {
+            if ((i + 1) % width != 0 && i + 1 < vertexCount) {
+                builder.addEdge(i, i + 1, 10L + random.nextInt(90));
+                builder.addEdge(i + 1, i, 10L + random.nextInt(90));
+            }
+            if (i + width < vertexCount) {
+                builder.addEdge(i, i + width, 10L + random.nextInt(90));
+                builder.addEdge(i + width, i, 10L + random.nextInt(90));
+            }
+        }
+        return builder.build();
+    }
+}
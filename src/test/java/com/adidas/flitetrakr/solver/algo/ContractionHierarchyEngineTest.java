@@ -0,0 +1,112 @@
+package com.adidas.flitetrakr.solver.algo;
+
+import com.adidas.flitetrakr.graph.GraphIndex;
+import com.adidas.flitetrakr.graph.SimpleDirectedGraph;
+import org.junit.Test;
+
+import static com.adidas.flitetrakr.solver.algo.ShortestPathFixtures.assertSameDistancesAsDijkstra;
+import static org.junit.Assert.*;
+
+public class ContractionHierarchyEngineTest {
+
+    @Test
+    public void sameDistancesAsDijkstra() {
+        assertSameDistancesAsDijkstra(ContractionHierarchyEngine::new);
+    }
+
+    @Test
+    public void nodeOrdering() {
+        /* A hub with flights to and from ten places: contracting it early would add a shortcut per pair of places. */
+        SimpleDirectedGraph<String, Long> graph = new SimpleDirectedGraph<String, Long>();
+        graph.addVertex("HUB");
+        for (int i = 0; i < 10; i++) {
+            graph.addVertex("P" + i);
+            graph.addEdge("HUB", "P" + i, 10L + i);
+            graph.addEdge("P" + i, "HUB", 20L + i);
+        }
+
+        ContractionHierarchy<String> hierarchy = ContractionHierarchy.build(graph);
+        GraphIndex<String> index = GraphIndex.of(graph);
+        assertEquals("The hub should be contracted last", 10, hierarchy.getRank(index.getVertexId("HUB")));
+
+        /* The ranks are a permutation, and the edges are split by the ranks of their ends. */
+        boolean[] ranks = new boolean[index.getVertexCount()];
+        for (int vertex = 0; vertex < index.getVertexCount(); vertex++) {
+            assertFalse("Duplicate rank", ranks[hierarchy.getRank(vertex)]);
+            ranks[hierarchy.getRank(vertex)] = true;
+            for (int i = hierarchy.getUpStart(vertex); i < hierarchy.getUpEnd(vertex); i++) {
+                int edge = hierarchy.getUpEdge(i);
+                assertEquals("Wrong upward edge source", vertex, hierarchy.getEdgeSource(edge));
+                assertTrue("The upward edge leads down", hierarchy.getRank(hierarchy.getEdgeTarget(edge)) > hierarchy.getRank(vertex));
+            }
+            for (int i = hierarchy.getDownStart(vertex); i < hierarchy.getDownEnd(vertex); i++) {
+                int edge = hierarchy.getDownEdge(i);
+                assertEquals("Wrong downward edge target", vertex, hierarchy.getEdgeTarget(edge));
+                assertTrue("The downward edge leads up", hierarchy.getRank(hierarchy.getEdgeSource(edge)) > hierarchy.getRank(vertex));
+            }
+        }
+    }
+
+    @Test
+    public void unpackedShortcuts() {
+        SimpleDirectedGraph<String, Long> graph = new SimpleDirectedGraph<String, Long>();
+        graph.addVertex("A");
+        graph.addVertex("B");
+        graph.addVertex("C");
+        graph.addVertex("D");
+        graph.addVertex("E");
+        graph.addEdge("A", "B", 1L);
+        graph.addEdge("B", "C", 1L);
+        graph.addEdge("C", "D", 1L);
+        graph.addEdge("D", "E", 1L);
+        graph.addEdge("E", "A", 1L);
+        graph.addEdge("A", "E", 10L);
+
+        ContractionHierarchyEngine<String, Long> engine = new ContractionHierarchyEngine<>(graph);
+        assertTrue("Shortcuts are expected", engine.getHierarchy().getShortcutCount() > 0);
+        assertArrayEquals("Wrong shortest path", new String[]{"A", "B", "C", "D", "E"}, engine.findPath("A", "E").toArray());
+        assertArrayEquals("Wrong shortest path", new String[]{"B", "C", "D", "E", "A"}, engine.findPath("B", "A").toArray());
+        assertArrayEquals("Wrong shortest cycle", new String[]{"C", "D", "E", "A", "B", "C"}, engine.findCycle("C").toArray());
+    }
+
+    @Test
+    public void disconnectedGraph() {
+        SimpleDirectedGraph<String, Long> graph = new SimpleDirectedGraph<String, Long>();
+        graph.addVertex("A");
+        graph.addVertex("B");
+        graph.addVertex("C");
+        graph.addVertex("D");
+        graph.addEdge("A", "B", 2L);
+        graph.addEdge("B", "A", 3L);
+        graph.addEdge("C", "D", 1L);
+        graph.addEdge("D", "D", 4L);
+
+        ContractionHierarchyEngine<String, Long> engine = new ContractionHierarchyEngine<>(graph);
+        assertArrayEquals("Wrong shortest path", new String[]{"A", "B"}, engine.findPath("A", "B").toArray());
+        assertArrayEquals("Wrong shortest cycle", new String[]{"B", "A", "B"}, engine.findCycle("B").toArray());
+        assertArrayEquals("Wrong shortest cycle", new String[]{"D", "D"}, engine.findCycle("D").toArray());
+        assertNull("The path shouldn't exist", engine.findPath("A", "D"));
+        assertNull("The path shouldn't exist", engine.findPath("D", "C"));
+        assertNull("The cycle shouldn't exist", engine.findCycle("C"));
+        assertNull("The path shouldn't exist", engine.findPath("A", "X"));
+    }
+
+    @Test
+    public void changedGraph() {
+        SimpleDirectedGraph<String, Long> graph = new SimpleDirectedGraph<String, Long>();
+        graph.addVertex("A");
+        graph.addVertex("B");
+        graph.addVertex("C");
+        graph.addEdge("A", "B", 10L);
+        graph.addEdge("B", "C", 10L);
+
+        ContractionHierarchyEngine<String, Long> engine = new ContractionHierarchyEngine<>(graph);
+        assertArrayEquals("Wrong shortest path", new String[]{"A", "B", "C"}, engine.findPath("A", "C").toArray());
+
+        /* The outdated hierarchy isn't used anymore. */
+        graph.addEdge("A", "C", 1L);
+        graph.addEdge("C", "A", 1L);
+        assertArrayEquals("Wrong shortest path", new String[]{"A", "C"}, engine.findPath("A", "C").toArray());
+        assertArrayEquals("Wrong shortest cycle", new String[]{"C", "A", "C"}, engine.findCycle("C").toArray());
+    }
+}
@@ -0,0 +1,73 @@
+package com.adidas.flitetrakr.solver.algo;
+
+import com.adidas.flitetrakr.graph.SimpleDirectedGraph;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class CycleIndexTest {
+
+    @Test
+    public void cyclesGroupedByVertex() {
+        SimpleDirectedGraph<String, Long> graph = new SimpleDirectedGraph<String, Long>();
+
+        graph.addVertex("A");
+        graph.addVertex("B");
+        graph.addVertex("C");
+        graph.addVertex("D");
+
+        graph.addEdge("A", "B", 1L);
+        graph.addEdge("B", "C", 1L);
+        graph.addEdge("C", "A", 1L);
+        graph.addEdge("C", "D", 1L);
+        graph.addEdge("D", "C", 1L);
+
+        CycleIndex<String, Long> cycleIndex = new CycleIndex<>(graph);
+
+        List<List<String>> cycles = cycleIndex.getCycles("B");
+        assertEquals("Wrong number of cycles", 1, cycles.size());
+        assertArrayEquals("Wrong rotated cycle", new String[]{"B", "C", "A", "B"}, cycles.get(0).toArray());
+
+        List<List<String>> cCycles = new ArrayList<>(cycleIndex.getCycles("C"));
+        cCycles.sort((o1, o2) -> o1.size() - o2.size());
+        assertEquals("Wrong number of cycles", 2, cCycles.size());
+        assertArrayEquals("Wrong rotated cycle", new String[]{"C", "D", "C"}, cCycles.get(0).toArray());
+        assertArrayEquals("Wrong rotated cycle", new String[]{"C", "A", "B", "C"}, cCycles.get(1).toArray());
+
+        /* The cycles are enumerated once and shared. */
+        assertSame("The cycles should be cached", cycles, cycleIndex.getCycles("B"));
+    }
+
+    @Test
+    public void rebuildAfterGraphChange() {
+        SimpleDirectedGraph<String, Long> graph = new SimpleDirectedGraph<String, Long>();
+
+        graph.addVertex("A");
+        graph.addVertex("B");
+        graph.addEdge("A", "B", 1L);
+
+        CycleIndex<String, Long> cycleIndex = new CycleIndex<>(graph);
+        assertTrue("There should be no cycles", cycleIndex.getCycles("A").isEmpty());
+
+        graph.addEdge("B", "A", 1L);
+        assertEquals("The index wasn't rebuilt", 1, cycleIndex.getCycles("A").size());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void unmodifiableCycles() {
+        SimpleDirectedGraph<String, Long> graph = new SimpleDirectedGraph<String, Long>();
+
+        graph.addVertex("A");
+        graph.addVertex("B");
+        graph.addEdge("A", "B", 1L);
+        graph.addEdge("B", "A", 1L);
+
+        new CycleIndex<>(graph).getCycles("A").get(0).add("B");
+    }
+}
@@ -1,9 +1,11 @@
 package com.adidas.flitetrakr.solver.algo;
 
+import com.adidas.flitetrakr.graph.CompactDirectedGraph;
 import com.adidas.flitetrakr.graph.SimpleDirectedGraph;
 import org.junit.Test;
 
 import java.util.List;
+import java.util.stream.IntStream;
 
 import static org.junit.Assert.*;
 
@@ -58,4 +60,147 @@ public class DijkstraMinimalDistanceTest {
 
         assertNull("The path shouldn't exist", path);
     }
+
+    @Test
+    public void shortestPathAfterDistanceUpdates() {
+        SimpleDirectedGraph<String, Long> graph = new SimpleDirectedGraph<String, Long>();
+
+        graph.addVertex("A");
+        graph.addVertex("B");
+        graph.addVertex("C");
+        graph.addVertex("D");
+        graph.addVertex("E");
+
+        /* The distance to D is improved twice before D is settled. */
+        graph.addEdge("A", "D", 50L);
+        graph.addEdge("A", "B", 1L);
+        graph.addEdge("B", "D", 30L);
+        graph.addEdge("B", "C", 1L);
+        graph.addEdge("C", "D", 1L);
+        graph.addEdge("D", "E", 1L);
+
+        DijkstraMinimalDistance<String, Long> dijkstraAlgorithm = new DijkstraMinimalDistance<>(graph);
+        List<String> path = dijkstraAlgorithm.findPath("A", "E");
+
+        assertArrayEquals("Wrong shortest path", new String[]{"A", "B", "C", "D", "E"}, path.toArray());
+
+        /* The same instance can be reused for another query. */
+        path = dijkstraAlgorithm.findPath("B", "D");
+        assertArrayEquals("Wrong shortest path", new String[]{"B", "C", "D"}, path.toArray());
+    }
+
+    @Test
+    public void sourceEqualsTarget() {
+        SimpleDirectedGraph<String, Long> graph = new SimpleDirectedGraph<String, Long>();
+
+        graph.addVertex("A");
+        graph.addVertex("B");
+        graph.addEdge("A", "B", 5L);
+        graph.addEdge("B", "A", 5L);
+
+        DijkstraMinimalDistance<String, Long> dijkstraAlgorithm = new DijkstraMinimalDistance<>(graph);
+        assertNull("The path shouldn't exist", dijkstraAlgorithm.findPath("A", "A"));
+    }
+
+    @Test
+    public void shortestCycle() {
+        SimpleDirectedGraph<String, Long> graph = new SimpleDirectedGraph<String, Long>();
+
+        graph.addVertex("A");
+        graph.addVertex("B");
+        graph.addVertex("C");
+        graph.addVertex("D");
+
+        graph.addEdge("A", "B", 5L);
+        graph.addEdge("A", "C", 1L);
+        graph.addEdge("B", "A", 1L);
+        graph.addEdge("C", "D", 1L);
+        graph.addEdge("D", "A", 10L);
+        graph.addEdge("D", "B", 1L);
+
+        DijkstraMinimalDistance<String, Long> dijkstraAlgorithm = new DijkstraMinimalDistance<>(graph);
+        List<String> cycle = dijkstraAlgorithm.findCycle("A");
+        assertArrayEquals("Wrong shortest cycle", new String[]{"A", "C", "D", "B", "A"}, cycle.toArray());
+
+        cycle = dijkstraAlgorithm.findCycle("B");
+        assertArrayEquals("Wrong shortest cycle", new String[]{"B", "A", "C", "D", "B"}, cycle.toArray());
+    }
+
+    @Test
+    public void selfLoopCycle() {
+        SimpleDirectedGraph<String, Long> graph = new SimpleDirectedGraph<String, Long>();
+
+        graph.addVertex("A");
+        graph.addVertex("B");
+        graph.addEdge("A", "A", 7L);
+        graph.addEdge("A", "B", 1L);
+        graph.addEdge("B", "A", 10L);
+
+        DijkstraMinimalDistance<String, Long> dijkstraAlgorithm = new DijkstraMinimalDistance<>(graph);
+        assertArrayEquals("Wrong shortest cycle", new String[]{"A", "A"}, dijkstraAlgorithm.findCycle("A").toArray());
+    }
+
+    @Test
+    public void nonExistingCycle() {
+        SimpleDirectedGraph<String, Long> graph = new SimpleDirectedGraph<String, Long>();
+
+        graph.addVertex("A");
+        graph.addVertex("B");
+        graph.addVertex("C");
+        graph.addEdge("A", "B", 1L);
+        graph.addEdge("B", "C", 1L);
+        graph.addEdge("C", "B", 1L);
+
+        DijkstraMinimalDistance<String, Long> dijkstraAlgorithm = new DijkstraMinimalDistance<>(graph);
+        assertNull("The cycle shouldn't exist", dijkstraAlgorithm.findCycle("A"));
+        assertNull("The cycle shouldn't exist", dijkstraAlgorithm.findCycle("D"));
+    }
+
+    @Test
+    public void concurrentQueries() {
+        /* Ring of 200 vertices with shortcuts from every tenth vertex. */
+        CompactDirectedGraph.Builder builder = new CompactDirectedGraph.Builder();
+        for (int i = 0; i < 200; i++) {
+            builder.addEdge("V" + i, "V" + ((i + 1) % 200), 1L);
+            if (i % 10 == 0) {
+                builder.addEdge("V" + i, "V" + ((i + 10) % 200), 5L);
+            }
+        }
+        DijkstraMinimalDistance<String, Long> dijkstraAlgorithm = new DijkstraMinimalDistance<>(builder.build());
+
+        /* One instance answers all queries, which run in parallel. */
+        IntStream.range(0, 2000).parallel().forEach(query -> {
+            int source = query % 200, target = (query * 7) % 200;
+            int length = (target - source + 200) % 200;
+            if (length == 0) {
+                assertEquals("Wrong cycle length", 21, dijkstraAlgorithm.findCycle("V" + source).size());
+                return;
+            }
+            /* Shortcuts are taken from the first multiple of ten on. */
+            int toShortcut = (10 - source % 10) % 10;
+            int expected = (length <= toShortcut) ? length : toShortcut + ((length - toShortcut) / 10) + ((length - toShortcut) % 10);
+            assertEquals("Wrong path length", expected + 1, dijkstraAlgorithm.findPath("V" + source, "V" + target).size());
+        });
+    }
+
+    @Test
+    public void queriesOnDifferentGraphs() {
+        SimpleDirectedGraph<String, Long> big = new SimpleDirectedGraph<String, Long>();
+        for (int i = 0; i < 100; i++) {
+            big.addVertex("V" + i);
+        }
+        for (int i = 0; i < 99; i++) {
+            big.addEdge("V" + i, "V" + (i + 1), 1L);
+        }
+        SimpleDirectedGraph<String, Long> small = new SimpleDirectedGraph<String, Long>();
+        small.addVertex("V0");
+        small.addVertex("V1");
+        small.addEdge("V1", "V0", 1L);
+
+        /* The reused search buffers mustn't leak distances from one query to the next. */
+        assertEquals("Wrong path length", 100, new DijkstraMinimalDistance<>(big).findPath("V0", "V99").size());
+        assertNull("The path shouldn't exist", new DijkstraMinimalDistance<>(small).findPath("V0", "V1"));
+        assertEquals("Wrong path length", 2, new DijkstraMinimalDistance<>(small).findPath("V1", "V0").size());
+        assertNull("The path shouldn't exist", new DijkstraMinimalDistance<>(big).findPath("V99", "V0"));
+    }
 }
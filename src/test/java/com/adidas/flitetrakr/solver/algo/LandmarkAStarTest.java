@@ -0,0 +1,151 @@
+package com.adidas.flitetrakr.solver.algo;
+
+import com.adidas.flitetrakr.graph.CompactDirectedGraph;
+import com.adidas.flitetrakr.graph.GraphIndex;
+import com.adidas.flitetrakr.graph.SimpleDirectedGraph;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import static com.adidas.flitetrakr.solver.algo.ShortestPathFixtures.*;
+import static org.junit.Assert.*;
+
+public class LandmarkAStarTest {
+
+    @Test
+    public void sameDistancesAsDijkstra() {
+        assertSameDistancesAsDijkstra(graph -> new LandmarkAStar<>(graph, 8));
+    }
+
+    @Test
+    public void admissibleLowerBounds() {
+        CompactDirectedGraph graph = randomGraph(new Random(5), 150, 400);
+        LandmarkIndex<String> landmarks = LandmarkIndex.build(graph, 6);
+        GraphIndex<String> index = GraphIndex.of(graph);
+        DijkstraMinimalDistance<String, Long> dijkstra = new DijkstraMinimalDistance<>(graph);
+
+        long[] targetPricesFrom = new long[landmarks.getLandmarkCount()];
+        long[] targetPricesTo = new long[landmarks.getLandmarkCount()];
+        for (int target = 0; target < 150; target += 7) {
+            landmarks.getPricesFrom(target, targetPricesFrom);
+            landmarks.getPricesTo(target, targetPricesTo);
+            for (int vertex = 0; vertex < 150; vertex++) {
+                if (vertex == target) {
+                    continue;
+                }
+                long bound = landmarks.getLowerBound(vertex, targetPricesFrom, targetPricesTo);
+                long price = price(graph, dijkstra.findPath(index.getVertex(vertex), index.getVertex(target)));
+                if (bound == LandmarkIndex.UNREACHABLE) {
+                    assertEquals("The target should be unreachable", -1L, price);
+                } else if (price != -1) {
+                    assertTrue("The bound " + bound + " exceeds the price " + price, bound <= price);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void disconnectedGraph() {
+        SimpleDirectedGraph<String, Long> graph = new SimpleDirectedGraph<String, Long>();
+        graph.addVertex("A");
+        graph.addVertex("B");
+        graph.addVertex("C");
+        graph.addVertex("D");
+        graph.addEdge("A", "B", 2L);
+        graph.addEdge("B", "A", 3L);
+        graph.addEdge("C", "D", 1L);
+
+        LandmarkAStar<String, Long> engine = new LandmarkAStar<>(graph, 10);
+        assertEquals("Wrong number of landmarks", 4, engine.getLandmarks().getLandmarkCount());
+        assertArrayEquals("Wrong shortest path", new String[]{"A", "B"}, engine.findPath("A", "B").toArray());
+        assertArrayEquals("Wrong shortest cycle", new String[]{"B", "A", "B"}, engine.findCycle("B").toArray());
+        assertNull("The path shouldn't exist", engine.findPath("A", "D"));
+        assertNull("The path shouldn't exist", engine.findPath("D", "C"));
+        assertNull("The cycle shouldn't exist", engine.findCycle("C"));
+        assertNull("The path shouldn't exist", engine.findPath("A", "X"));
+    }
+
+    @Test
+    public void changedGraph() {
+        SimpleDirectedGraph<String, Long> graph = new SimpleDirectedGraph<String, Long>();
+        graph.addVertex("A");
+        graph.addVertex("B");
+        graph.addVertex("C");
+        graph.addEdge("A", "B", 10L);
+        graph.addEdge("B", "C", 10L);
+
+        LandmarkAStar<String, Long> engine = new LandmarkAStar<>(graph, 2);
+        assertArrayEquals("Wrong shortest path", new String[]{"A", "B", "C"}, engine.findPath("A", "C").toArray());
+
+        /* The outdated landmark prices aren't used anymore. */
+        graph.addEdge("A", "C", 1L);
+        graph.addEdge("C", "A", 1L);
+        assertArrayEquals("Wrong shortest path", new String[]{"A", "C"}, engine.findPath("A", "C").toArray());
+        assertArrayEquals("Wrong shortest cycle", new String[]{"C", "A", "C"}, engine.findCycle("C").toArray());
+    }
+
+    @Test
+    public void persistLandmarks() throws IOException {
+        CompactDirectedGraph graph = randomGraph(new Random(3), 100, 400);
+        LandmarkIndex<String> landmarks = LandmarkIndex.build(graph, 4);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        landmarks.writeTo(out);
+        LandmarkIndex<String> loaded = LandmarkIndex.readFrom(new ByteArrayInputStream(out.toByteArray()), graph);
+        assertEquals("Wrong number of landmarks", 4, loaded.getLandmarkCount());
+
+        ByteArrayOutputStream copy = new ByteArrayOutputStream();
+        loaded.writeTo(copy);
+        assertArrayEquals("Wrong landmark index", out.toByteArray(), copy.toByteArray());
+
+        DijkstraMinimalDistance<String, Long> dijkstra = new DijkstraMinimalDistance<>(graph);
+        LandmarkAStar<String, Long> engine = new LandmarkAStar<>(graph, loaded);
+        for (int i = 1; i < 100; i++) {
+            assertEquals("Wrong path price", price(graph, dijkstra.findPath("V0", "V" + i)), price(graph, engine.findPath("V0", "V" + i)));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void persistedLandmarksOfOtherGraph() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        LandmarkIndex.build(randomGraph(new Random(3), 100, 400), 4).writeTo(out);
+        LandmarkIndex.readFrom(new ByteArrayInputStream(out.toByteArray()), randomGraph(new Random(4), 100, 400));
+    }
+
+    @Test
+    public void persistedLandmarksWithOtherPrice() throws IOException {
+        SimpleDirectedGraph<String, Long> graph = new SimpleDirectedGraph<String, Long>();
+        graph.addVertex("A");
+        graph.addVertex("B");
+        graph.addEdge("A", "B", 10L);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        LandmarkIndex.build(graph, 1).writeTo(out);
+
+        /* Same vertices and edges, only the fingerprint of the prices differs. */
+        graph.addEdge("A", "B", 11L);
+        try {
+            LandmarkIndex.readFrom(new ByteArrayInputStream(out.toByteArray()), graph);
+            fail("The landmarks of the old prices should be rejected");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Wrong message", "The landmark index was built for a different graph.", e.getMessage());
+        }
+    }
+
+    @Test
+    public void persistedLandmarksWithWrongMagic() throws IOException {
+        CompactDirectedGraph graph = randomGraph(new Random(3), 100, 400);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        LandmarkIndex.build(graph, 4).writeTo(out);
+        byte[] data = out.toByteArray();
+        data[0] ^= 1;
+        try {
+            LandmarkIndex.readFrom(new ByteArrayInputStream(data), graph);
+            fail("The stream without the magic number should be rejected");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Wrong message", "The stream doesn't contain a landmark index.", e.getMessage());
+        }
+    }
+}
@@ -1,11 +1,16 @@
 package com.adidas.flitetrakr.solver.algo;
 
+import com.adidas.flitetrakr.graph.CompactDirectedGraph;
 import com.adidas.flitetrakr.graph.SimpleDirectedGraph;
 import org.junit.Test;
 
 import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class PathFinderTest {
 
@@ -70,5 +75,87 @@ public class PathFinderTest {
         assertEquals("Wrong number of path vertices", 0, paths.size());
     }
 
+    @Test
+    public void longPaths() {
+        /* A chain of 100000 steps, the first step can be taken directly or with a detour. */
+        CompactDirectedGraph.Builder builder = new CompactDirectedGraph.Builder();
+        int steps = 100000;
+        for (int i = 0; i <= steps; i++) {
+            builder.addVertex("V" + i);
+        }
+        builder.addVertex("D");
+        for (int i = 0; i < steps; i++) {
+            builder.addEdge("V" + i, "V" + (i + 1), 1L);
+        }
+        builder.addEdge("V0", "D", 1L);
+        builder.addEdge("D", "V1", 1L);
+        builder.addEdge("V" + steps, "V0", 1L);
+
+        PathFinder<String, Long> pathFinder = new PathFinder<>(builder.build());
+        List<List<String>> paths = pathFinder.findAllPaths("V0", "V" + steps);
+        paths.sort((o1, o2) -> o1.size() - o2.size());
+
+        assertEquals("Wrong number of paths", 2, paths.size());
+        assertEquals("Wrong path size", steps + 1, paths.get(0).size());
+        assertEquals("Wrong path size", steps + 2, paths.get(1).size());
+        assertTrue("There should be no path", pathFinder.findAllPaths("V0", "X").isEmpty());
+    }
 
+    @Test
+    public void streamPaths() {
+        /* 20 diamonds in a row, which have 2^20 paths with 40 edges. */
+        CompactDirectedGraph.Builder builder = new CompactDirectedGraph.Builder();
+        int diamonds = 20;
+        for (int i = 0; i <= diamonds; i++) {
+            builder.addVertex("V" + i);
+        }
+        for (int i = 0; i < diamonds; i++) {
+            builder.addVertex("U" + i);
+            builder.addVertex("L" + i);
+            builder.addEdge("V" + i, "U" + i, 1L);
+            builder.addEdge("V" + i, "L" + i, 1L);
+            builder.addEdge("U" + i, "V" + (i + 1), 1L);
+            builder.addEdge("L" + i, "V" + (i + 1), 1L);
+        }
+        builder.addEdge("V0", "V" + diamonds, 1L);
+        PathFinder<String, Long> pathFinder = new PathFinder<>(builder.build());
+
+        try (Stream<int[]> paths = pathFinder.streamPaths("V0", "V" + diamonds, Integer.MAX_VALUE)) {
+            assertEquals("Wrong number of paths", 5, paths.limit(5).count());
+        }
+        try (Stream<int[]> paths = pathFinder.streamPaths("V0", "V" + diamonds, 2 * diamonds - 1)) {
+            List<int[]> shortPaths = paths.collect(Collectors.toList());
+            assertEquals("Wrong number of paths", 1, shortPaths.size());
+            assertEquals("Wrong path size", 2, shortPaths.get(0).length);
+        }
+        try (Stream<int[]> paths = pathFinder.streamPaths("V0", "V3", 6)) {
+            assertTrue("Wrong path size", paths.allMatch(path -> path.length == 7));
+        }
+        assertEquals("Wrong number of paths", 8, pathFinder.findAllPaths("V0", "V3").size());
+        assertEquals("Wrong number of paths", 0, pathFinder.streamPaths("V3", "V0", Integer.MAX_VALUE).count());
+    }
+
+    @Test
+    public void samePathsInParallel() {
+        Random random = new Random(17);
+        CompactDirectedGraph.Builder builder = new CompactDirectedGraph.Builder();
+        for (int i = 0; i < 14; i++) {
+            builder.addVertex("V" + i);
+        }
+        for (int i = 0; i < 60; i++) {
+            builder.addEdge("V" + random.nextInt(14), "V" + random.nextInt(14), 1L);
+        }
+        PathFinder<String, Long> pathFinder = new PathFinder<>(builder.build());
+
+        for (int source = 0; source < 14; source++) {
+            for (int target = 0; target < 14; target++) {
+                String from = "V" + source, to = "V" + target;
+                assertEquals("Wrong parallel paths", pathFinder.findAllPaths(from, to),
+                        pathFinder.findAllPathsParallel(from, to, Integer.MAX_VALUE));
+                try (Stream<int[]> paths = pathFinder.streamPaths(from, to, 4)) {
+                    assertEquals("Wrong parallel paths", paths.count(), pathFinder.findAllPathsParallel(from, to, 4).size());
+                }
+            }
+        }
+    }
 }
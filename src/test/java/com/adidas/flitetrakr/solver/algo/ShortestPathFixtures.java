@@ -0,0 +1,70 @@
+package com.adidas.flitetrakr.solver.algo;
+
+import com.adidas.flitetrakr.graph.CompactDirectedGraph;
+import com.adidas.flitetrakr.graph.SimpleGraph;
+
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Random graphs and checks shared by the tests of the shortest path engines.
+ */
+final class ShortestPathFixtures {
+
+    private ShortestPathFixtures() {
+    }
+
+    /**
+     * Creates a graph with the vertices "V0" to "V(n-1)" and random edges with prices from 1 to 100.
+     */
+    static CompactDirectedGraph randomGraph(final Random random, final int vertices, final int edges) {
+        CompactDirectedGraph.Builder builder = new CompactDirectedGraph.Builder();
+        for (int i = 0; i < vertices; i++) {
+            builder.addVertex("V" + i);
+        }
+        for (int i = 0; i < edges; i++) {
+            builder.addEdge("V" + random.nextInt(vertices), "V" + random.nextInt(vertices), 1L + random.nextInt(100));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Returns the price of the path, or -1 for a missing path.
+     */
+    static long price(final SimpleGraph<String, Long> graph, final List<String> path) {
+        if (path == null) {
+            return -1;
+        }
+        long price = 0;
+        for (int i = 1; i < path.size(); i++) {
+            price += graph.getEdge(path.get(i - 1), path.get(i));
+        }
+        return price;
+    }
+
+    /**
+     * Checks that the engine finds paths and cycles with the same prices as the
+     * {@link DijkstraMinimalDistance} on a random graph.
+     *
+     * @param engineFactory Creates the engine for the graph.
+     */
+    static void assertSameDistancesAsDijkstra(final Function<SimpleGraph<String, Long>, ShortestPathEngine<String>> engineFactory) {
+        CompactDirectedGraph graph = randomGraph(new Random(7), 400, 1600);
+
+        DijkstraMinimalDistance<String, Long> dijkstra = new DijkstraMinimalDistance<>(graph);
+        ShortestPathEngine<String> engine = engineFactory.apply(graph);
+
+        Random random = new Random(11);
+        for (int query = 0; query < 500; query++) {
+            String source = "V" + random.nextInt(400), target = "V" + random.nextInt(400);
+            if (source.equals(target)) {
+                assertEquals("Wrong cycle price", price(graph, dijkstra.findCycle(source)), price(graph, engine.findCycle(source)));
+            } else {
+                assertEquals("Wrong path price", price(graph, dijkstra.findPath(source, target)), price(graph, engine.findPath(source, target)));
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.adidas.flitetrakr.solver.algo;
+
+import com.adidas.flitetrakr.graph.CompactDirectedGraph;
+import com.adidas.flitetrakr.graph.SimpleDirectedGraph;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static com.adidas.flitetrakr.solver.algo.ShortestPathFixtures.*;
+import static org.junit.Assert.*;
+
+public class ShortestPathTreeCacheTest {
+
+    @Test
+    public void sameDistancesAsDijkstra() {
+        assertSameDistancesAsDijkstra(ShortestPathTreeCache::new);
+    }
+
+    @Test
+    public void treePerSource() {
+        CompactDirectedGraph graph = randomGraph(new Random(7), 300, 1200);
+        ShortestPathTreeCache<String, Long> engine = new ShortestPathTreeCache<>(graph);
+
+        Random random = new Random(11);
+        for (int query = 0; query < 1000; query++) {
+            String source = "V" + random.nextInt(20), target = "V" + random.nextInt(300);
+            if (source.equals(target)) {
+                engine.findCycle(source);
+            } else {
+                engine.findPath(source, target);
+            }
+        }
+        assertEquals("Wrong number of misses", 20, engine.getMissCount());
+        assertEquals("Wrong number of hits", 980, engine.getHitCount());
+        assertEquals("Wrong number of trees", 20, engine.size());
+        assertEquals("Wrong number of evictions", 0, engine.getEvictionCount());
+    }
+
+    @Test
+    public void leastRecentlyUsedEviction() {
+        CompactDirectedGraph graph = randomGraph(new Random(3), 100, 400);
+
+        /* The budget fits two trees. */
+        ShortestPathTreeCache<String, Long> engine = new ShortestPathTreeCache<>(graph, 2 * ShortestPathTree.estimateMemory(100));
+        engine.findPath("V0", "V1");
+        engine.findPath("V1", "V2");
+        engine.findPath("V0", "V2");
+        engine.findPath("V2", "V3");
+        assertEquals("Wrong number of trees", 2, engine.size());
+        assertEquals("Wrong number of evictions", 1, engine.getEvictionCount());
+
+        /* V1 was evicted, V0 was used more recently. */
+        engine.findPath("V0", "V3");
+        assertEquals("Wrong number of misses", 3, engine.getMissCount());
+        engine.findPath("V1", "V3");
+        assertEquals("Wrong number of misses", 4, engine.getMissCount());
+        assertEquals("Wrong number of hits", 2, engine.getHitCount());
+
+        /* Every further source evicts the least recently used tree. */
+        for (int i = 4; i < 10; i++) {
+            engine.findPath("V" + i, "V0");
+        }
+        assertEquals("Wrong number of trees", 2, engine.size());
+        assertEquals("Wrong number of evictions", 8, engine.getEvictionCount());
+        engine.findPath("V9", "V1");
+        engine.findPath("V8", "V1");
+        assertEquals("Wrong number of hits", 4, engine.getHitCount());
+
+        /* The newest tree is kept even with an empty budget. */
+        ShortestPathTreeCache<String, Long> emptyBudget = new ShortestPathTreeCache<>(graph, 0);
+        emptyBudget.findPath("V0", "V1");
+        emptyBudget.findPath("V0", "V2");
+        assertEquals("Wrong number of trees", 1, emptyBudget.size());
+        assertEquals("Wrong number of hits", 1, emptyBudget.getHitCount());
+    }
+
+    @Test
+    public void changedGraph() {
+        SimpleDirectedGraph<String, Long> graph = new SimpleDirectedGraph<String, Long>();
+        graph.addVertex("A");
+        graph.addVertex("B");
+        graph.addVertex("C");
+        graph.addEdge("A", "B", 10L);
+        graph.addEdge("B", "C", 10L);
+
+        ShortestPathTreeCache<String, Long> engine = new ShortestPathTreeCache<>(graph);
+        assertArrayEquals("Wrong shortest path", new String[]{"A", "B", "C"}, engine.findPath("A", "C").toArray());
+        assertNull("The cycle shouldn't exist", engine.findCycle("A"));
+        assertEquals("Wrong number of hits", 1, engine.getHitCount());
+
+        engine.findPath("B", "C");
+        assertEquals("Wrong number of trees", 2, engine.size());
+
+        /* The outdated trees of all sources are dropped. */
+        graph.addEdge("A", "C", 1L);
+        graph.addEdge("C", "A", 1L);
+        assertArrayEquals("Wrong shortest path", new String[]{"A", "C"}, engine.findPath("A", "C").toArray());
+        assertArrayEquals("Wrong shortest cycle", new String[]{"A", "C", "A"}, engine.findCycle("A").toArray());
+        assertEquals("Wrong number of misses", 3, engine.getMissCount());
+        assertEquals("Wrong number of trees", 1, engine.size());
+        assertEquals("Invalidated trees aren't evictions", 0, engine.getEvictionCount());
+        assertNull("The path shouldn't exist", engine.findPath("A", "X"));
+
+        /* A tree computed for the new version is reused until the next change. */
+        assertArrayEquals("Wrong shortest path", new String[]{"B", "C", "A"}, engine.findPath("B", "A").toArray());
+        assertEquals("Wrong number of misses", 4, engine.getMissCount());
+        graph.addEdge("B", "A", 5L);
+        assertArrayEquals("Wrong shortest path", new String[]{"B", "A"}, engine.findPath("B", "A").toArray());
+        assertEquals("Wrong number of misses", 5, engine.getMissCount());
+    }
+}
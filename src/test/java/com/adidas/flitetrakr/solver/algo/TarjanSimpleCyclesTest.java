@@ -1,12 +1,15 @@
 package com.adidas.flitetrakr.solver.algo;
 
+import com.adidas.flitetrakr.graph.CompactDirectedGraph;
 import com.adidas.flitetrakr.graph.SimpleDirectedGraph;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 
-import static org.junit.Assert.assertArrayEquals;
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.*;
 
 public class TarjanSimpleCyclesTest {
 
@@ -70,4 +73,81 @@ public class TarjanSimpleCyclesTest {
         List<List<String>> cycles = tarjanSimpleCycles.findSimpleCycles();
         assertEquals("There should be no cycles", 0, cycles.size());
     }
+
+    @Test
+    public void stopEnumeration() {
+        TarjanSimpleCycles<String, Long> tarjanSimpleCycles = new TarjanSimpleCycles<>(createGraph());
+        List<List<String>> cycles = new ArrayList<>();
+        assertFalse("The enumeration should be stopped", tarjanSimpleCycles.findSimpleCycles(cycle -> {
+            cycles.add(cycle);
+            return cycles.size() < 2;
+        }));
+        assertEquals("Wrong number of cycles", 2, cycles.size());
+        assertTrue("The enumeration should be complete", tarjanSimpleCycles.findSimpleCycles(cycle -> true));
+    }
+
+    @Test
+    public void findCyclesThroughVertex() {
+        SimpleDirectedGraph<String, Long> graph = createGraph();
+        graph.addVertex("G");
+        graph.addVertex("H");
+        graph.addEdge("E", "G", 1L);
+        graph.addEdge("G", "H", 1L);
+        graph.addEdge("H", "G", 1L);
+
+        TarjanSimpleCycles<String, Long> tarjanSimpleCycles = new TarjanSimpleCycles<>(graph);
+        for (String vertex : new String[]{"A", "B", "C", "D", "E", "F", "G", "H"}) {
+            List<String> expected = new ArrayList<>();
+            for (List<String> cycle : tarjanSimpleCycles.findSimpleCycles()) {
+                if (cycle.contains(vertex)) {
+                    List<String> rotated = new ArrayList<>(cycle);
+                    Collections.rotate(rotated, -cycle.indexOf(vertex));
+                    expected.add(rotated.toString());
+                }
+            }
+            List<String> actual = new ArrayList<>();
+            assertTrue("The enumeration should be complete", tarjanSimpleCycles.findSimpleCycles(vertex, cycle -> {
+                assertEquals("The cycle should start with the vertex", vertex, cycle.get(0));
+                return actual.add(cycle.toString());
+            }));
+            Collections.sort(expected);
+            Collections.sort(actual);
+            assertEquals("Wrong cycles through " + vertex, expected, actual);
+        }
+        assertTrue("There should be no cycles", tarjanSimpleCycles.findSimpleCycles("X", cycle -> false));
+    }
+
+    @Test
+    public void sameCyclesInParallel() {
+        Random random = new Random(13);
+        for (int round = 0; round < 10; round++) {
+            CompactDirectedGraph.Builder builder = new CompactDirectedGraph.Builder();
+            for (int i = 0; i < 16; i++) {
+                builder.addVertex("V" + i);
+            }
+            for (int i = 0; i < 30 + round * 3; i++) {
+                builder.addEdge("V" + random.nextInt(16), "V" + random.nextInt(16), 1L);
+            }
+            TarjanSimpleCycles<String, Long> tarjanSimpleCycles = new TarjanSimpleCycles<>(builder.build());
+            assertEquals("Wrong parallel cycles", tarjanSimpleCycles.findSimpleCycles(), tarjanSimpleCycles.findSimpleCyclesParallel());
+        }
+        assertEquals("Wrong parallel cycles", 5, new TarjanSimpleCycles<>(createGraph()).findSimpleCyclesParallel().size());
+    }
+
+    private static SimpleDirectedGraph<String, Long> createGraph() {
+        SimpleDirectedGraph<String, Long> graph = new SimpleDirectedGraph<String, Long>();
+        for (String vertex : new String[]{"A", "B", "C", "D", "E", "F"}) {
+            graph.addVertex(vertex);
+        }
+        graph.addEdge("A", "B", 1L);
+        graph.addEdge("B", "C", 1L);
+        graph.addEdge("C", "A", 1L);
+        graph.addEdge("B", "D", 1L);
+        graph.addEdge("C", "D", 1L);
+        graph.addEdge("D", "E", 1L);
+        graph.addEdge("E", "F", 1L);
+        graph.addEdge("F", "C", 1L);
+        graph.addEdge("F", "A", 1L);
+        return graph;
+    }
 }
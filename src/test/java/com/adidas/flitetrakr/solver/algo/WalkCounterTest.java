@@ -0,0 +1,142 @@
+package com.adidas.flitetrakr.solver.algo;
+
+import com.adidas.flitetrakr.exception.CountOverflowException;
+import com.adidas.flitetrakr.graph.SimpleDirectedGraph;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class WalkCounterTest {
+
+    @Test
+    public void countWalks() {
+        SimpleDirectedGraph<String, Long> graph = new SimpleDirectedGraph<String, Long>();
+
+        graph.addVertex("A");
+        graph.addVertex("B");
+        graph.addVertex("C");
+
+        graph.addEdge("A", "B", 1L);
+        graph.addEdge("A", "C", 1L);
+        graph.addEdge("B", "C", 1L);
+        graph.addEdge("C", "A", 1L);
+
+        WalkCounter<String, Long> walkCounter = new WalkCounter<>(graph);
+
+        /* A-C, A-B-C */
+        assertEquals("Wrong number of walks", 2, walkCounter.countWalks("A", "C", 1, 2));
+        /* A-C-A-C */
+        assertEquals("Wrong number of walks", 1, walkCounter.countWalks("A", "C", 3, 3));
+        /* A-C-A, A-B-C-A */
+        assertEquals("Wrong number of walks", 2, walkCounter.countWalks("A", "A", 1, 3));
+        assertEquals("Wrong number of walks", 1, walkCounter.countWalks("A", "A", 0, 0));
+        /* Compositions of the length 30 into the cycles A-C-A and A-B-C-A. */
+        assertEquals("Wrong number of walks", 1897, walkCounter.countWalks("A", "A", 30, 30));
+    }
+
+    @Test
+    public void noWalks() {
+        SimpleDirectedGraph<String, Long> graph = new SimpleDirectedGraph<String, Long>();
+
+        graph.addVertex("A");
+        graph.addVertex("B");
+        graph.addVertex("C");
+        graph.addEdge("A", "B", 1L);
+
+        WalkCounter<String, Long> walkCounter = new WalkCounter<>(graph);
+        assertEquals("There should be no walks", 0, walkCounter.countWalks("A", "C", 1, 1000));
+        assertEquals("There should be no walks", 0, walkCounter.countWalks("B", "A", 1, 1000));
+        assertEquals("There should be no walks", 0, walkCounter.countWalks("A", "X", 1, 1000));
+    }
+
+    @Test
+    public void graphChange() {
+        SimpleDirectedGraph<String, Long> graph = new SimpleDirectedGraph<String, Long>();
+
+        graph.addVertex("A");
+        graph.addVertex("B");
+        graph.addEdge("A", "B", 1L);
+
+        WalkCounter<String, Long> walkCounter = new WalkCounter<>(graph);
+        assertEquals("Wrong number of walks", 0, walkCounter.countWalks("B", "A", 1, 5));
+
+        graph.addEdge("B", "A", 1L);
+        assertEquals("Wrong number of walks", 3, walkCounter.countWalks("B", "A", 1, 5));
+    }
+
+    @Test
+    public void countWalksByMatrixPower() {
+        SimpleDirectedGraph<String, Long> graph = new SimpleDirectedGraph<String, Long>();
+
+        graph.addVertex("A");
+        graph.addVertex("B");
+        graph.addVertex("C");
+
+        graph.addEdge("A", "B", 1L);
+        graph.addEdge("A", "C", 1L);
+        graph.addEdge("B", "C", 1L);
+        graph.addEdge("C", "A", 1L);
+
+        WalkCounter<String, Long> walkCounter = new WalkCounter<>(graph);
+        for (int length = 0; length <= 40; length++) {
+            for (String source : graph.getAllVertices()) {
+                for (String destination : graph.getAllVertices()) {
+                    assertEquals("The matrix power and the walk length counts differ",
+                            walkCounter.countWalks(source, destination, length, length),
+                            walkCounter.countWalksByMatrixPower(source, destination, length));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void countWalksByParallelMatrixPower() {
+        SimpleDirectedGraph<String, Long> graph = new SimpleDirectedGraph<String, Long>();
+
+        /* A ring with chords, big enough for the parallel matrix multiplication. */
+        int size = 150;
+        for (int v = 0; v < size; v++) {
+            graph.addVertex("V" + v);
+        }
+        for (int v = 0; v < size; v++) {
+            graph.addEdge("V" + v, "V" + ((v + 1) % size), 1L);
+            graph.addEdge("V" + v, "V" + ((v * 7 + 3) % size), 1L);
+        }
+
+        WalkCounter<String, Long> walkCounter = new WalkCounter<>(graph);
+        assertEquals("The matrix power and the walk length counts differ",
+                walkCounter.countWalks("V0", "V42", 45, 45),
+                walkCounter.countWalksByMatrixPower("V0", "V42", 45));
+    }
+
+    @Test
+    public void countWalksWithLargeLength() {
+        SimpleDirectedGraph<String, Long> graph = new SimpleDirectedGraph<String, Long>();
+
+        graph.addVertex("A");
+        graph.addVertex("B");
+        graph.addEdge("A", "B", 1L);
+        graph.addEdge("B", "A", 1L);
+
+        WalkCounter<String, Long> walkCounter = new WalkCounter<>(graph);
+        assertEquals("Wrong number of walks", 1, walkCounter.countWalks("A", "A", 1000000000, 1000000000));
+        assertEquals("Wrong number of walks", 0, walkCounter.countWalks("A", "B", 1000000000, 1000000000));
+    }
+
+    @Test(expected = CountOverflowException.class)
+    public void countOverflow() {
+        SimpleDirectedGraph<String, Long> graph = new SimpleDirectedGraph<String, Long>();
+
+        graph.addVertex("A");
+        graph.addVertex("B");
+        graph.addEdge("A", "A", 1L);
+        graph.addEdge("A", "B", 1L);
+        graph.addEdge("B", "A", 1L);
+        graph.addEdge("B", "B", 1L);
+
+        /* There are 2^(n - 1) walks of length n between A and B. */
+        WalkCounter<String, Long> walkCounter = new WalkCounter<>(graph);
+        assertEquals("Wrong number of walks", 1L << 62, walkCounter.countWalks("A", "B", 63, 63));
+        walkCounter.countWalks("A", "B", 64, 64);
+    }
+}
@@ -0,0 +1,116 @@
+package com.adidas.flitetrakr.solver.algo;
+
+import com.adidas.flitetrakr.exception.CountOverflowException;
+import com.adidas.flitetrakr.graph.SimpleDirectedGraph;
+import com.adidas.flitetrakr.util.Pair;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class WalkFinderTest {
+
+    @Test
+    public void findWalksBelowPrice() {
+        SimpleDirectedGraph<String, Long> graph = new SimpleDirectedGraph<String, Long>();
+
+        graph.addVertex("A");
+        graph.addVertex("B");
+        graph.addVertex("C");
+        graph.addVertex("D");
+
+        /* Two different cycles through B: B-C-B and B-D-B. */
+        graph.addEdge("A", "B", 1L);
+        graph.addEdge("B", "C", 1L);
+        graph.addEdge("C", "B", 1L);
+        graph.addEdge("B", "D", 2L);
+        graph.addEdge("D", "B", 2L);
+
+        WalkFinder<String, Long> walkFinder = new WalkFinder<>(graph);
+        List<Pair<List<String>, Long>> walks = walkFinder.findWalksBelow("A", "B", 7L);
+        walks.sort((o1, o2) -> o1.getSecond().compareTo(o2.getSecond()));
+
+        /* A-B, A-B-C-B, A-B-C-B-C-B, A-B-D-B, A-B-C-B-C-B-C-B is too expensive. */
+        assertEquals("Wrong number of walks", 4, walks.size());
+        assertArrayEquals("Wrong walk", new String[]{"A", "B"}, walks.get(0).getFirst().toArray());
+        assertEquals("Wrong walk price", new Long(1L), walks.get(0).getSecond());
+        assertArrayEquals("Wrong walk", new String[]{"A", "B", "C", "B"}, walks.get(1).getFirst().toArray());
+        assertEquals("Wrong walk price", new Long(3L), walks.get(1).getSecond());
+        assertEquals("Wrong walk price", new Long(5L), walks.get(2).getSecond());
+        assertEquals("Wrong walk price", new Long(5L), walks.get(3).getSecond());
+
+        /* Walks mixing both cycles. */
+        walks = walkFinder.findWalksBelow("A", "B", 9L);
+        assertEquals("Wrong number of walks", 7, walks.size());
+    }
+
+    @Test
+    public void noWalks() {
+        SimpleDirectedGraph<String, Long> graph = new SimpleDirectedGraph<String, Long>();
+
+        graph.addVertex("A");
+        graph.addVertex("B");
+        graph.addVertex("C");
+        graph.addEdge("A", "B", 1L);
+        graph.addEdge("B", "A", 1L);
+
+        WalkFinder<String, Long> walkFinder = new WalkFinder<>(graph);
+        assertEquals("There should be no walks", 0, walkFinder.findWalksBelow("A", "C", 1000L).size());
+        assertEquals("There should be no walks", 0, walkFinder.findWalksBelow("A", "B", 1L).size());
+        assertEquals("There should be no walks", 0, walkFinder.findWalksBelow("A", "X", 1000L).size());
+    }
+
+    @Test
+    public void zeroPricedEdges() {
+        SimpleDirectedGraph<String, Long> graph = new SimpleDirectedGraph<String, Long>();
+
+        graph.addVertex("A");
+        graph.addVertex("B");
+        graph.addVertex("C");
+
+        /* Free edges without a free cycle. */
+        graph.addEdge("A", "B", 0L);
+        graph.addEdge("B", "C", 0L);
+        graph.addEdge("A", "C", 5L);
+        graph.addEdge("C", "A", 1L);
+
+        WalkFinder<String, Long> walkFinder = new WalkFinder<>(graph);
+        /* A-B-C and A-B-C-A-B-C, A-C is too expensive. */
+        assertEquals("Wrong number of walks", 2, walkFinder.findWalksBelow("A", "C", 2L).size());
+    }
+
+    @Test(expected = CountOverflowException.class)
+    public void zeroPricedCycle() {
+        SimpleDirectedGraph<String, Long> graph = new SimpleDirectedGraph<String, Long>();
+
+        graph.addVertex("A");
+        graph.addVertex("B");
+        graph.addVertex("C");
+
+        graph.addEdge("A", "B", 3L);
+        graph.addEdge("B", "C", 0L);
+        graph.addEdge("C", "B", 0L);
+
+        new WalkFinder<>(graph).findWalksBelow("A", "C", 4L);
+    }
+
+    @Test
+    public void zeroPricedCycleAboveLimit() {
+        SimpleDirectedGraph<String, Long> graph = new SimpleDirectedGraph<String, Long>();
+
+        graph.addVertex("A");
+        graph.addVertex("B");
+        graph.addVertex("C");
+
+        graph.addEdge("A", "B", 3L);
+        graph.addEdge("B", "B", 0L);
+        graph.addEdge("A", "C", 1L);
+        graph.addEdge("B", "C", 1L);
+
+        /* The free cycle B-B can only be reached at the price limit. */
+        WalkFinder<String, Long> walkFinder = new WalkFinder<>(graph);
+        assertEquals("Wrong number of walks", 1, walkFinder.findWalksBelow("A", "C", 4L).size());
+    }
+}
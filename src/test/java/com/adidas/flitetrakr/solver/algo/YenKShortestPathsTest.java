@@ -0,0 +1,104 @@
+package com.adidas.flitetrakr.solver.algo;
+
+import com.adidas.flitetrakr.graph.CompactDirectedGraph;
+import com.adidas.flitetrakr.graph.SimpleDirectedGraph;
+import com.adidas.flitetrakr.graph.SimpleGraph;
+import com.adidas.flitetrakr.util.Pair;
+import org.junit.Test;
+
+import java.util.*;
+
+import static com.adidas.flitetrakr.solver.algo.ShortestPathFixtures.*;
+import static org.junit.Assert.*;
+
+public class YenKShortestPathsTest {
+
+    @Test
+    public void samePricesAsAllPaths() {
+        CompactDirectedGraph graph = randomGraph(new Random(7), 12, 40);
+        YenKShortestPaths<String, Long> yen = new YenKShortestPaths<>(graph);
+        PathFinder<String, Long> pathFinder = new PathFinder<>(graph);
+
+        for (int source = 0; source < 12; source++) {
+            for (int target = 0; target < 12; target++) {
+                if (source == target) {
+                    continue;
+                }
+                List<Long> expected = prices(graph, pathFinder.findAllPaths("V" + source, "V" + target));
+                assertYenPrices(graph, expected, 8, yen.findPaths("V" + source, "V" + target, 8));
+            }
+        }
+    }
+
+    @Test
+    public void samePricesAsAllCycles() {
+        CompactDirectedGraph graph = randomGraph(new Random(5), 10, 35);
+        YenKShortestPaths<String, Long> yen = new YenKShortestPaths<>(graph);
+        CycleIndex<String, Long> cycleIndex = new CycleIndex<>(graph);
+
+        for (int vertex = 0; vertex < 10; vertex++) {
+            List<Long> expected = prices(graph, cycleIndex.getCycles("V" + vertex));
+            assertYenPrices(graph, expected, 6, yen.findPaths("V" + vertex, "V" + vertex, 6));
+        }
+    }
+
+    @Test
+    public void cheapestPaths() {
+        SimpleDirectedGraph<String, Long> graph = new SimpleDirectedGraph<String, Long>();
+        graph.addVertex("A");
+        graph.addVertex("B");
+        graph.addVertex("C");
+        graph.addVertex("D");
+        graph.addVertex("E");
+        graph.addEdge("A", "B", 43L);
+        graph.addEdge("A", "C", 67L);
+        graph.addEdge("B", "C", 17L);
+        graph.addEdge("B", "D", 27L);
+        graph.addEdge("C", "D", 5L);
+        graph.addEdge("D", "A", 23L);
+
+        YenKShortestPaths<String, Long> yen = new YenKShortestPaths<>(graph);
+        List<Pair<List<String>, Long>> paths = yen.findPaths("A", "D", 5);
+        assertEquals("Wrong number of paths", 3, paths.size());
+        assertEquals("Wrong path", Arrays.asList("A", "B", "C", "D"), paths.get(0).getFirst());
+        assertEquals("Wrong price", 65L, (long) paths.get(0).getSecond());
+        assertEquals("Wrong path", Arrays.asList("A", "B", "D"), paths.get(1).getFirst());
+        assertEquals("Wrong price", 70L, (long) paths.get(1).getSecond());
+        assertEquals("Wrong path", Arrays.asList("A", "C", "D"), paths.get(2).getFirst());
+        assertEquals("Wrong price", 72L, (long) paths.get(2).getSecond());
+
+        List<Pair<List<String>, Long>> cycles = yen.findPaths("A", "A", 2);
+        assertEquals("Wrong number of cycles", 2, cycles.size());
+        assertEquals("Wrong cycle", Arrays.asList("A", "B", "C", "D", "A"), cycles.get(0).getFirst());
+        assertEquals("Wrong cycle", Arrays.asList("A", "B", "D", "A"), cycles.get(1).getFirst());
+
+        assertTrue("The path shouldn't exist", yen.findPaths("A", "E", 3).isEmpty());
+        assertTrue("The path shouldn't exist", yen.findPaths("A", "X", 3).isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidCount() {
+        new YenKShortestPaths<>(randomGraph(new Random(1), 5, 10)).findPaths("V0", "V1", 0);
+    }
+
+    private static void assertYenPrices(final SimpleGraph<String, Long> graph, final List<Long> expected, final int count,
+                                        final List<Pair<List<String>, Long>> actual) {
+        assertEquals("Wrong number of paths", Math.min(expected.size(), count), actual.size());
+        Set<List<String>> distinct = new HashSet<>();
+        for (int i = 0; i < actual.size(); i++) {
+            List<String> path = actual.get(i).getFirst();
+            assertEquals("Wrong path price", expected.get(i), actual.get(i).getSecond());
+            assertEquals("Wrong path price", (long) expected.get(i), price(graph, path));
+            assertTrue("Duplicate path", distinct.add(path));
+        }
+    }
+
+    private static List<Long> prices(final SimpleGraph<String, Long> graph, final List<List<String>> paths) {
+        List<Long> prices = new ArrayList<>();
+        for (List<String> path : paths) {
+            prices.add(price(graph, path));
+        }
+        Collections.sort(prices);
+        return prices;
+    }
+}